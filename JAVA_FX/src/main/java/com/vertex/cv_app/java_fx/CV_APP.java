@@ -5,20 +5,34 @@ import com.vertex.cv_app.java_fx.dialog.MaterialRegisterDialog;
 import com.vertex.cv_app.java_fx.panels.MaterialSearchPanel;
 import com.vertex.cv_app.java_fx.panels.MaterialUploadPanel;
 import com.vertex.cv_app.java_fx.panels.MaterialAuditLogPanel;
+import com.vertex.cv_app.java_fx.panels.MaterialDiagnosticsPanel;
 import com.vertex.cv_app.java_fx.panels.ViewCVPanel;
 import com.vertex.cv_app.java_fx.view.MaterialRawView;
+import com.vertex.cv_app.utils.CVDetailCache;
+import com.vertex.cv_app.utils.HttpClientUtil;
 import com.vertex.cv_app.utils.JWTTokenManager;
+import com.vertex.cv_app.utils.ServerProfiles;
+import com.vertex.cv_app.utils.TokenRefresher;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.Menu;
+import javafx.scene.control.MenuItem;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 public class CV_APP extends Application {
 
@@ -27,17 +41,48 @@ public class CV_APP extends Application {
     public static final String VIEW_CV_VIEW = "VIEW_CV";
     public static final String RAW_TEXT_VIEW = "RAW_TEXT";
     public static final String AUDIT_LOG_VIEW = "AUDIT_LOG";
+    public static final String DIAGNOSTICS_VIEW = "DIAGNOSTICS";
 
-    private String serverUrl = "http://13.250.35.49:8000";
-    private String jwtToken = null;
+    private final ServerProfiles serverProfiles = new ServerProfiles();
+    // One per server used this run; switching away leaves a session's panels, token refresh and caches running
+    private final Map<String, ServerSession> sessions = new HashMap<>();
+    private ServerSession session;
+    private String serverUrl;
     private JWTTokenManager tokenManager;
+    private TokenRefresher tokenRefresher;
+    private MenuButton serverButton;
 
+    // The current session's panels; the tabs show these
     private TabPane mainTabPane;
     private MaterialSearchPanel searchPanel;
     private MaterialUploadPanel uploadPanel;
     private ViewCVPanel viewCVPanel;
     private MaterialRawView rawView;
     private MaterialAuditLogPanel auditLogPanel;
+    private MaterialDiagnosticsPanel diagnosticsPanel;
+
+    private static class ServerSession {
+        final String serverUrl;
+        final TokenRefresher tokenRefresher;
+        // Shared by the view and raw text panels so each fetches only the fields the other has not
+        final CVDetailCache cvDetails;
+        String jwtToken;
+        // Kept in memory only, so an expired session can be renewed without asking again
+        String username;
+        String password;
+
+        MaterialSearchPanel searchPanel;
+        MaterialUploadPanel uploadPanel;
+        ViewCVPanel viewCVPanel;
+        MaterialRawView rawView;
+        MaterialAuditLogPanel auditLogPanel;
+
+        ServerSession(String serverUrl, TokenRefresher tokenRefresher) {
+            this.serverUrl = serverUrl;
+            this.tokenRefresher = tokenRefresher;
+            this.cvDetails = new CVDetailCache(serverUrl);
+        }
+    }
 
     private Stage primaryStage;
     private HBox appBar;
@@ -48,6 +93,7 @@ public class CV_APP extends Application {
     private Tab viewCVTab;
     private Tab rawTextTab;
     private Tab auditLogTab;
+    private Tab diagnosticsTab;
 
     // Menu items that need state management
     private Button loginButton;
@@ -60,6 +106,10 @@ public class CV_APP extends Application {
         primaryStage.setTitle("CV Management System");
 
         tokenManager = new JWTTokenManager();
+        diagnosticsPanel = new MaterialDiagnosticsPanel(this);
+        ServerProfiles.Profile activeProfile = serverProfiles.getActive();
+        HttpClientUtil.setReplicas(activeProfile.url, activeProfile.replicas);
+        activateSession(openSession(activeProfile.url));
 
         // Create Material Design root layout
         BorderPane root = new BorderPane();
@@ -90,12 +140,6 @@ public class CV_APP extends Application {
 
         primaryStage.setScene(scene);
 
-        // Check for existing valid token
-        if (hasValidToken()) {
-            jwtToken = tokenManager.getToken("access_token");
-            updateTokensInPanels();
-        }
-
         // Update tab visibility based on login status
         updateTabVisibility();
 
@@ -123,10 +167,14 @@ public class CV_APP extends Application {
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
+        serverButton = new MenuButton();
+        serverButton.getStyleClass().addAll("md-button", "md-button-outlined");
+        updateServerMenu();
+
         // User actions in app bar
         HBox userActions = createUserActions();
 
-        appBar.getChildren().addAll(appTitle, spacer, userActions);
+        appBar.getChildren().addAll(appTitle, spacer, serverButton, userActions);
         return appBar;
     }
 
@@ -164,14 +212,7 @@ public class CV_APP extends Application {
         tabPane.getStyleClass().add("md-tab-pane");
         tabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
 
-        // Initialize Material Design panels
-        searchPanel = new MaterialSearchPanel(this, serverUrl);
-        uploadPanel = new MaterialUploadPanel(this, serverUrl);
-        viewCVPanel = new ViewCVPanel(this, serverUrl);
-        rawView = new MaterialRawView(this, serverUrl);
-        auditLogPanel = new MaterialAuditLogPanel(this, serverUrl);
-
-        // Create tabs
+        // Create tabs over the current session's panels
         searchTab = new Tab("🔍 Search CVs", searchPanel);
         searchTab.getStyleClass().add("md-tab");
 
@@ -181,6 +222,9 @@ public class CV_APP extends Application {
         auditLogTab = new Tab("📋 Audit Logs", auditLogPanel);
         auditLogTab.getStyleClass().add("md-tab");
 
+        diagnosticsTab = new Tab("📈 Diagnostics", diagnosticsPanel);
+        diagnosticsTab.getStyleClass().add("md-tab");
+
         // These tabs are initially hidden and shown programmatically
         viewCVTab = new Tab("📄 CV Details", viewCVPanel);
         viewCVTab.getStyleClass().add("md-tab");
@@ -188,19 +232,199 @@ public class CV_APP extends Application {
         rawTextTab = new Tab("📝 Raw Text", rawView);
         rawTextTab.getStyleClass().add("md-tab");
 
-        // Add main tabs (Search, Upload, Audit are always available)
-        tabPane.getTabs().addAll(searchTab, uploadTab, auditLogTab);
+        // Add main tabs (Search, Upload, Audit and Diagnostics are always available)
+        tabPane.getTabs().addAll(searchTab, uploadTab, auditLogTab, diagnosticsTab);
 
         // Add selection change listener for audit log refresh
         tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
             if (newTab == auditLogTab && auditLogPanel != null) {
                 auditLogPanel.refreshLogs();
             }
+            diagnosticsPanel.setAutoRefresh(newTab == diagnosticsTab);
         });
 
         return tabPane;
     }
 
+    // The session's panels are built once and kept, so switching back finds them as they were left
+    private ServerSession openSession(String url) {
+        ServerSession existing = sessions.get(url);
+        if (existing != null) {
+            return existing;
+        }
+        ServerSession newSession = new ServerSession(url, new TokenRefresher(url, tokenManager));
+        newSession.tokenRefresher.setReauthenticator(() -> newSession.username == null ? null
+                : HttpClientUtil.login(url, newSession.username, newSession.password));
+        newSession.tokenRefresher.setListener(new TokenRefresher.TokenListener() {
+            @Override
+            public void onTokenRefreshed(String token) {
+                Platform.runLater(() -> {
+                    newSession.jwtToken = token;
+                    updateTokensInPanels(newSession);
+                });
+            }
+
+            @Override
+            public void onTokenLost(String reason) {
+                Platform.runLater(() -> handleSessionExpired(newSession, reason));
+            }
+        });
+        if (newSession.tokenRefresher.hasValidToken()) {
+            newSession.jwtToken = newSession.tokenRefresher.getToken();
+        }
+        newSession.tokenRefresher.reschedule();
+
+        newSession.searchPanel = new MaterialSearchPanel(this, url);
+        newSession.uploadPanel = new MaterialUploadPanel(this, url);
+        newSession.viewCVPanel = new ViewCVPanel(this, url);
+        newSession.rawView = new MaterialRawView(this, url);
+        newSession.auditLogPanel = new MaterialAuditLogPanel(this, url);
+        updateTokensInPanels(newSession);
+        sessions.put(url, newSession);
+        return newSession;
+    }
+
+    private void activateSession(ServerSession next) {
+        session = next;
+        serverUrl = next.serverUrl;
+        tokenRefresher = next.tokenRefresher;
+        searchPanel = next.searchPanel;
+        uploadPanel = next.uploadPanel;
+        viewCVPanel = next.viewCVPanel;
+        rawView = next.rawView;
+        auditLogPanel = next.auditLogPanel;
+        if (mainTabPane == null) {
+            return;
+        }
+
+        // Detail tabs belong to the previous server's records
+        mainTabPane.getTabs().removeAll(viewCVTab, rawTextTab);
+        searchTab.setContent(searchPanel);
+        uploadTab.setContent(uploadPanel);
+        auditLogTab.setContent(auditLogPanel);
+        viewCVTab.setContent(viewCVPanel);
+        rawTextTab.setContent(rawView);
+        mainTabPane.getSelectionModel().select(searchTab);
+        updateTabVisibility();
+    }
+
+    private void switchServer(ServerProfiles.Profile profile) {
+        serverProfiles.setActive(profile.name);
+        HttpClientUtil.setReplicas(profile.url, profile.replicas);
+        if (!profile.url.equals(serverUrl)) {
+            activateSession(openSession(profile.url));
+        }
+        updateServerMenu();
+    }
+
+    private void updateServerMenu() {
+        ServerProfiles.Profile active = null;
+        ToggleGroup group = new ToggleGroup();
+        Menu removeMenu = new Menu("Remove Server");
+        List<MenuItem> items = new ArrayList<>();
+        for (ServerProfiles.Profile profile : serverProfiles.list()) {
+            RadioMenuItem item = new RadioMenuItem(profile.toString());
+            item.setToggleGroup(group);
+            item.setSelected(profile.active);
+            item.setOnAction(e -> switchServer(profile));
+            items.add(item);
+            if (profile.active) {
+                active = profile;
+            } else {
+                MenuItem remove = new MenuItem(profile.toString());
+                remove.setOnAction(e -> removeServer(profile));
+                removeMenu.getItems().add(remove);
+            }
+        }
+        removeMenu.setDisable(removeMenu.getItems().isEmpty());
+
+        MenuItem add = new MenuItem("Add Server...");
+        add.setOnAction(e -> showAddServerDialog());
+        add.setDisable(!serverProfiles.isAvailable());
+
+        ServerProfiles.Profile current = active;
+        MenuItem replicas = new MenuItem("Read Replicas...");
+        replicas.setOnAction(e -> showReplicasDialog(current));
+        replicas.setDisable(current == null || !serverProfiles.isAvailable());
+
+        items.add(new SeparatorMenuItem());
+        items.add(add);
+        items.add(replicas);
+        items.add(removeMenu);
+        serverButton.getItems().setAll(items);
+        serverButton.setText("Server: " + (active != null ? active.name : ServerProfiles.DEFAULT_PROFILE_NAME));
+    }
+
+    private void showAddServerDialog() {
+        TextInputDialog nameDialog = new TextInputDialog();
+        nameDialog.initOwner(primaryStage);
+        nameDialog.setTitle("Add Server");
+        nameDialog.setHeaderText("Each server keeps its own sign-in, connections and cached data.");
+        nameDialog.setContentText("Name:");
+        nameDialog.showAndWait().map(String::trim).filter(name -> !name.isEmpty()).ifPresent(name -> {
+            TextInputDialog urlDialog = new TextInputDialog("http://");
+            urlDialog.initOwner(primaryStage);
+            urlDialog.setTitle("Add Server");
+            urlDialog.setHeaderText("Address of \"" + name + "\", e.g. http://staging.example.com:8000");
+            urlDialog.setContentText("URL:");
+            urlDialog.showAndWait().ifPresent(url -> {
+                ServerProfiles.Profile profile = serverProfiles.save(name, url);
+                if (profile == null) {
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setTitle("Add Server");
+                    alert.setHeaderText("Server Not Added");
+                    alert.setContentText("The URL must start with http:// or https://");
+                    alert.getDialogPane().getStyleClass().add("md-dialog");
+                    alert.showAndWait();
+                    return;
+                }
+                switchServer(profile);
+                if (!isLoggedIn()) {
+                    showMaterialLoginDialog();
+                }
+            });
+        });
+    }
+
+    private void showReplicasDialog(ServerProfiles.Profile profile) {
+        TextInputDialog dialog = new TextInputDialog(String.join(", ", profile.replicas));
+        dialog.initOwner(primaryStage);
+        dialog.setTitle("Read Replicas");
+        dialog.setHeaderText("Searches and CV views for \"" + profile.name + "\" go to the fastest healthy of these servers;\n"
+                + "uploads, edits and sign-in always go to " + profile.url + ".");
+        dialog.setContentText("Replica URLs (comma-separated):");
+        dialog.showAndWait().ifPresent(text -> {
+            ServerProfiles.Profile saved = serverProfiles.save(profile.name, profile.url, ServerProfiles.parseReplicas(text));
+            if (saved == null) {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Read Replicas");
+                alert.setHeaderText("Replicas Not Saved");
+                alert.setContentText("Every URL must start with http:// or https://");
+                alert.getDialogPane().getStyleClass().add("md-dialog");
+                alert.showAndWait();
+                return;
+            }
+            HttpClientUtil.setReplicas(saved.url, saved.replicas);
+            updateServerMenu();
+        });
+    }
+
+    // The server's token and local data stay in the database; only its running session is stopped
+    private void removeServer(ServerProfiles.Profile profile) {
+        if (!serverProfiles.delete(profile.name)) {
+            return;
+        }
+        boolean stillUsed = serverProfiles.list().stream().anyMatch(p -> p.url.equals(profile.url));
+        ServerSession removed = stillUsed ? null : sessions.remove(profile.url);
+        if (removed != null) {
+            HttpClientUtil.setReplicas(profile.url, List.of());
+            removed.searchPanel.dispose();
+            removed.tokenRefresher.stop();
+            HttpClientUtil.closePooledClient(profile.url);
+        }
+        updateServerMenu();
+    }
+
     private void updateTabVisibility() {
         boolean loggedIn = isLoggedIn();
 
@@ -218,7 +442,7 @@ public class CV_APP extends Application {
     }
 
     public boolean isLoggedIn() {
-        return jwtToken != null && !jwtToken.isEmpty();
+        return session.jwtToken != null && !session.jwtToken.isEmpty();
     }
 
     public void showView(String viewName) {
@@ -235,6 +459,9 @@ public class CV_APP extends Application {
                 }
                 mainTabPane.getSelectionModel().select(auditLogTab);
                 break;
+            case DIAGNOSTICS_VIEW:
+                mainTabPane.getSelectionModel().select(diagnosticsTab);
+                break;
             case VIEW_CV_VIEW:
                 showCVDetailsTab();
                 break;
@@ -347,8 +574,11 @@ public class CV_APP extends Application {
 
         confirmation.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                jwtToken = null;
-                tokenManager.clearAllTokens();
+                // Signs out of the current server only
+                session.jwtToken = null;
+                clearSessionCredentials(session);
+                tokenRefresher.clearToken();
+                updateTokensInPanels(session);
                 updateTabVisibility();
 
                 // Remove any dynamic tabs and go back to search
@@ -366,29 +596,91 @@ public class CV_APP extends Application {
         });
     }
 
+    // The token could be neither refreshed nor renewed, so the user has to sign in again
+    private void handleSessionExpired(ServerSession expired, String reason) {
+        if (expired.jwtToken == null) {
+            return;
+        }
+        expired.jwtToken = null;
+        clearSessionCredentials(expired);
+        expired.tokenRefresher.clearToken();
+        updateTokensInPanels(expired);
+        if (expired != session) {
+            // Not on screen; the user signs in again after switching back
+            return;
+        }
+        updateTabVisibility();
+        mainTabPane.getTabs().removeAll(viewCVTab, rawTextTab);
+        mainTabPane.getSelectionModel().select(searchTab);
+
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle("Session Expired");
+        alert.setHeaderText("Please Sign In Again");
+        alert.setContentText("Your session could not be renewed: " + reason);
+        alert.getDialogPane().getStyleClass().add("md-dialog");
+        alert.getDialogPane().lookupButton(ButtonType.OK).getStyleClass().addAll("md-button", "md-button-filled");
+        alert.showAndWait();
+        showMaterialLoginDialog();
+    }
+
+    public void setSessionCredentials(String username, String password) {
+        session.username = username;
+        session.password = password;
+    }
+
+    private void clearSessionCredentials(ServerSession target) {
+        target.username = null;
+        target.password = null;
+    }
+
+    /**
+     * Runs an authenticated request with the token of {@code serverUrl}'s session, renewing the
+     * token and retrying once if the server rejects it. {@code statusOf} extracts the HTTP
+     * status from the result. Panels pass their own server, so a request still running after
+     * a switch keeps using its own server's token.
+     */
+    public <T> T callWithToken(String serverUrl, Function<String, T> call, ToIntFunction<T> statusOf) {
+        ServerSession owner = sessions.get(serverUrl);
+        return (owner != null ? owner.tokenRefresher : tokenRefresher).callWithToken(call, statusOf);
+    }
+
+    public CVDetailCache getCVDetailCache(String serverUrl) {
+        ServerSession owner = sessions.get(serverUrl);
+        return (owner != null ? owner : session).cvDetails;
+    }
+
+    public JWTTokenManager getTokenManager() {
+        return tokenManager;
+    }
+
+    public TokenRefresher getTokenRefresher() {
+        return tokenRefresher;
+    }
+
     private boolean hasValidToken() {
-        return tokenManager != null && tokenManager.hasActiveToken("access_token");
+        return tokenRefresher != null && tokenRefresher.hasValidToken();
     }
 
     public void setJwtToken(String token) {
-        this.jwtToken = token;
+        session.jwtToken = token;
         if (token != null && tokenManager != null) {
-            tokenManager.saveNewToken("access_token", token,
+            tokenManager.saveNewToken(tokenRefresher.getTokenType(), token,
                     java.time.LocalDateTime.now().plusHours(24).toString());
+            tokenRefresher.reschedule();
         }
-        updateTokensInPanels();
+        updateTokensInPanels(session);
         updateTabVisibility();
     }
 
     public String getJwtToken() {
-        return jwtToken;
+        return session != null ? session.jwtToken : null;
     }
 
-    private void updateTokensInPanels() {
-        if (uploadPanel != null) uploadPanel.setToken(jwtToken);
-        if (viewCVPanel != null) viewCVPanel.setToken(jwtToken);
-        if (auditLogPanel != null) auditLogPanel.setToken(jwtToken);
-        if (searchPanel != null) searchPanel.setToken(jwtToken);
+    private void updateTokensInPanels(ServerSession target) {
+        if (target.uploadPanel != null) target.uploadPanel.setToken(target.jwtToken);
+        if (target.viewCVPanel != null) target.viewCVPanel.setToken(target.jwtToken);
+        if (target.auditLogPanel != null) target.auditLogPanel.setToken(target.jwtToken);
+        if (target.searchPanel != null) target.searchPanel.setToken(target.jwtToken);
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,241 @@
+package com.vertex.cv_app.java_fx.dialog;
+
+import com.vertex.cv_app.java_fx.CV_APP;
+import com.vertex.cv_app.utils.BatchSearch;
+import com.vertex.cv_app.utils.HttpClientUtil;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a list of queries with the search panel's current filters and shows the combined,
+ * ranked shortlist as the searches complete. Double-click a candidate to open the CV.
+ */
+public class MaterialBatchSearchDialog extends Stage {
+
+    private final CV_APP parentApp;
+    private final String serverUrl;
+    private final HttpClientUtil.SearchParameters baseParams;
+
+    private TextArea queriesArea;
+    private Spinner<Integer> concurrencySpinner;
+    private Button runButton, cancelButton;
+    private ProgressBar progressBar;
+    private Label statusLabel;
+    private TableView<BatchSearch.Candidate> shortlistTable;
+    private final ObservableList<BatchSearch.Candidate> shortlistData = FXCollections.observableArrayList();
+    private ListView<String> outcomesList;
+    private final ObservableList<String> outcomesData = FXCollections.observableArrayList();
+
+    private BatchSearch activeBatch;
+
+    public MaterialBatchSearchDialog(Window owner, String serverUrl, HttpClientUtil.SearchParameters baseParams,
+                                     String initialQueries, CV_APP app) {
+        this.parentApp = app;
+        this.serverUrl = serverUrl;
+        this.baseParams = new HttpClientUtil.SearchParameters(baseParams);
+
+        initOwner(owner);
+        initModality(Modality.NONE);
+        setTitle("Batch Search - Shortlist Builder");
+
+        initializeMaterialUI();
+        if (initialQueries != null && !initialQueries.isBlank()) {
+            queriesArea.setText(initialQueries);
+        }
+        setOnHidden(e -> {
+            if (activeBatch != null) {
+                activeBatch.cancel();
+            }
+        });
+    }
+
+    private void initializeMaterialUI() {
+        VBox mainContainer = new VBox();
+        mainContainer.getStyleClass().addAll("md-dialog", "md-spacing-16");
+
+        Label titleLabel = new Label("Batch Search");
+        titleLabel.getStyleClass().add("md-headline-small");
+        Label subtitleLabel = new Label("One query per line, e.g. a skill or role. Date range and sorting come from the search panel.");
+        subtitleLabel.getStyleClass().add("md-body-medium");
+        subtitleLabel.setWrapText(true);
+
+        queriesArea = new TextArea();
+        queriesArea.setPromptText("java\npython\nskill:kubernetes\nposition:data engineer");
+        queriesArea.setPrefRowCount(6);
+
+        concurrencySpinner = new Spinner<>(1, HttpClientUtil.POOL_MAX_PER_ROUTE, BatchSearch.DEFAULT_MAX_IN_FLIGHT);
+        concurrencySpinner.getStyleClass().add("md-combo-box");
+        concurrencySpinner.setPrefWidth(80);
+
+        runButton = new Button("Run Batch");
+        runButton.getStyleClass().addAll("md-button", "md-button-filled");
+        runButton.setOnAction(e -> runBatch());
+
+        cancelButton = new Button("Cancel");
+        cancelButton.getStyleClass().addAll("md-button", "md-button-text");
+        cancelButton.setDisable(true);
+        cancelButton.setOnAction(e -> {
+            if (activeBatch != null) {
+                statusLabel.setText("Cancelling...");
+                activeBatch.cancel();
+            }
+        });
+
+        HBox controls = new HBox();
+        controls.getStyleClass().add("md-spacing-12");
+        controls.setAlignment(Pos.CENTER_LEFT);
+        controls.getChildren().addAll(new Label("Concurrent searches:"), concurrencySpinner, runButton, cancelButton);
+
+        progressBar = new ProgressBar(0);
+        progressBar.setMaxWidth(Double.MAX_VALUE);
+        statusLabel = new Label("Ready");
+        statusLabel.getStyleClass().add("md-body-medium");
+
+        shortlistTable = new TableView<>(shortlistData);
+        shortlistTable.getStyleClass().add("md-table-view");
+        shortlistTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        createShortlistColumns();
+        shortlistTable.setOnMouseClicked(e -> {
+            if (e.getClickCount() == 2) {
+                BatchSearch.Candidate selected = shortlistTable.getSelectionModel().getSelectedItem();
+                if (selected != null) {
+                    parentApp.showCVDetails(selected.id);
+                }
+            }
+        });
+
+        outcomesList = new ListView<>(outcomesData);
+        outcomesList.getStyleClass().add("md-list-view");
+        outcomesList.setPrefWidth(260);
+
+        SplitPane results = new SplitPane(shortlistTable, outcomesList);
+        results.setDividerPositions(0.72);
+        VBox.setVgrow(results, Priority.ALWAYS);
+
+        mainContainer.getChildren().addAll(titleLabel, subtitleLabel, queriesArea, controls, progressBar, statusLabel, results);
+
+        Scene scene = new Scene(mainContainer, 960, 680);
+        try {
+            String cssResource = getClass().getResource("/styles/material-design.css").toExternalForm();
+            scene.getStylesheets().add(cssResource);
+        } catch (NullPointerException e) {
+            System.out.println("Warning: Material Design CSS file not found for dialog.");
+        }
+        setScene(scene);
+    }
+
+    private void createShortlistColumns() {
+        TableColumn<BatchSearch.Candidate, Integer> rankCol = new TableColumn<>("#");
+        rankCol.setCellValueFactory(cd -> new ReadOnlyObjectWrapper<>(shortlistData.indexOf(cd.getValue()) + 1));
+        rankCol.setSortable(false);
+        rankCol.setMaxWidth(60);
+
+        TableColumn<BatchSearch.Candidate, Integer> hitsCol = new TableColumn<>("Hits");
+        hitsCol.setCellValueFactory(cd -> new ReadOnlyObjectWrapper<>(cd.getValue().getHitCount()));
+        hitsCol.setMaxWidth(70);
+
+        TableColumn<BatchSearch.Candidate, String> nameCol = new TableColumn<>("Name");
+        nameCol.setCellValueFactory(cd -> new ReadOnlyStringWrapper(cd.getValue().row.optString("name", "N/A")));
+
+        TableColumn<BatchSearch.Candidate, String> emailCol = new TableColumn<>("Email");
+        emailCol.setCellValueFactory(cd -> new ReadOnlyStringWrapper(cd.getValue().row.optString("email", "N/A")));
+
+        TableColumn<BatchSearch.Candidate, String> matchedCol = new TableColumn<>("Matched Queries");
+        matchedCol.setCellValueFactory(cd -> new ReadOnlyStringWrapper(String.join(", ", cd.getValue().matchedQueries)));
+
+        TableColumn<BatchSearch.Candidate, String> uploadCol = new TableColumn<>("Upload Date");
+        uploadCol.setCellValueFactory(cd -> new ReadOnlyStringWrapper(cd.getValue().row.optString("upload_date", "N/A")));
+
+        shortlistTable.getColumns().setAll(List.of(rankCol, hitsCol, nameCol, emailCol, matchedCol, uploadCol));
+    }
+
+    private void runBatch() {
+        List<String> queries = BatchSearch.parseQueries(queriesArea.getText());
+        if (queries.isEmpty()) {
+            statusLabel.setText("Enter at least one query");
+            return;
+        }
+
+        BatchSearch batch = new BatchSearch();
+        activeBatch = batch;
+        int maxInFlight = concurrencySpinner.getValue();
+        shortlistData.clear();
+        outcomesData.clear();
+        progressBar.setProgress(0);
+        statusLabel.setText(String.format("Running %d searches, %d at a time...", queries.size(), maxInFlight));
+        runButton.setDisable(true);
+        cancelButton.setDisable(false);
+
+        Task<BatchSearch.BatchResult> task = new Task<>() {
+            @Override
+            protected BatchSearch.BatchResult call() {
+                return batch.run(serverUrl, queries, baseParams, maxInFlight, BatchSearch.DEFAULT_RESULTS_PER_QUERY,
+                        snapshot -> Platform.runLater(() -> {
+                            if (activeBatch == batch) {
+                                showSnapshot(snapshot);
+                            }
+                        }));
+            }
+        };
+
+        task.setOnSucceeded(e -> {
+            if (activeBatch != batch) {
+                return;
+            }
+            activeBatch = null;
+            BatchSearch.BatchResult result = task.getValue();
+            showSnapshot(result);
+            statusLabel.setText(String.format("%s %d of %d searches in %.1f s - %d unique candidate(s)%s",
+                    result.cancelled ? "Cancelled after" : "Completed",
+                    result.getCompletedQueries(), result.totalQueries, result.elapsedMillis / 1000.0,
+                    result.totalCandidates,
+                    result.totalCandidates > result.shortlist.size()
+                            ? ", top " + result.shortlist.size() + " shown" : ""));
+            runButton.setDisable(false);
+            cancelButton.setDisable(true);
+        });
+
+        task.setOnFailed(e -> {
+            activeBatch = null;
+            statusLabel.setText("Batch search failed: " + task.getException().getMessage());
+            runButton.setDisable(false);
+            cancelButton.setDisable(true);
+        });
+
+        new Thread(task).start();
+    }
+
+    private void showSnapshot(BatchSearch.BatchResult snapshot) {
+        progressBar.setProgress(snapshot.totalQueries > 0
+                ? (double) snapshot.getCompletedQueries() / snapshot.totalQueries : 1);
+        shortlistData.setAll(snapshot.shortlist);
+
+        List<String> lines = new ArrayList<>();
+        for (BatchSearch.QueryOutcome outcome : snapshot.outcomes) {
+            if (outcome.errorMessage != null) {
+                lines.add(outcome.query + " - failed: " + outcome.errorMessage);
+            } else {
+                lines.add(String.format("%s - %d match(es)%s, %d ms", outcome.query, outcome.totalMatches,
+                        outcome.fetched < outcome.totalMatches ? " (" + outcome.fetched + " used)" : "",
+                        outcome.elapsedMillis));
+            }
+        }
+        outcomesData.setAll(lines);
+        statusLabel.setText(String.format("%d of %d searches done - %d unique candidate(s)",
+                snapshot.getCompletedQueries(), snapshot.totalQueries, snapshot.totalCandidates));
+    }
+}
@@ -190,6 +190,7 @@ public class MaterialLoginDialog extends Stage {
                 statusLabel.getStyleClass().add("md-status-success");
 
                 // Set token in parent app
+                parentApp.setSessionCredentials(username, password);
                 parentApp.setJwtToken(result.token);
 
                 // Show Material Design success message and close dialog
@@ -1,6 +1,9 @@
 package com.vertex.cv_app.java_fx.panels;
 
 import com.vertex.cv_app.java_fx.CV_APP;
+import com.vertex.cv_app.utils.AuditAnalytics;
+import com.vertex.cv_app.utils.AuditSearchIndex;
+import com.vertex.cv_app.utils.FilterOptionsCache;
 import com.vertex.cv_app.utils.HttpClientUtil;
 import com.vertex.cv_app.utils.HttpClientUtil.AuditLogResult;
 import com.vertex.cv_app.utils.HttpClientUtil.FilterOptionsResult;
@@ -12,13 +15,23 @@ import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.*;
 import javafx.util.Duration;
 import org.json.JSONObject;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
 
 public class MaterialAuditLogPanel extends ScrollPane {
 
@@ -48,6 +61,28 @@ public class MaterialAuditLogPanel extends ScrollPane {
     private Label quickStatsLabel;
     private boolean filtersVisible = false;
 
+    // Client-side analytics over every page loaded so far
+    private final AuditAnalytics analytics = new AuditAnalytics();
+    private VBox analyticsSection;
+    private Button toggleAnalyticsButton;
+    private Label analyticsSummaryLabel;
+    private BarChart<String, Number> userChart, actionChart, hourChart;
+    private LineChart<String, Number> timelineChart;
+    private boolean analyticsVisible = false;
+    private static final int ANALYTICS_TOP_N = 10;
+    private static final int ANALYTICS_TIMELINE_HOURS = 72;
+
+    // Filter options persisted locally and revalidated in the background
+    private final FilterOptionsCache filterOptionsCache = new FilterOptionsCache();
+
+    // Local full-text search over every log indexed so far
+    private final AuditSearchIndex searchIndex = new AuditSearchIndex();
+    private TextField searchField;
+    private Button searchButton, indexAllButton;
+    private Task<Integer> indexSyncTask;
+    private static final int SEARCH_RESULT_LIMIT = 500;
+    private static final int INDEX_SYNC_PAGE_SIZE = 500;
+
     private int currentPage = 1;
     private int totalPages = 1;
     private int[] pageSizeOptions = {25, 50, 100, 200, 500};
@@ -87,6 +122,11 @@ public class MaterialAuditLogPanel extends ScrollPane {
         filtersSection.setVisible(false);
         filtersSection.setManaged(false);
 
+        // Analytics section (initially hidden)
+        analyticsSection = createAnalyticsSection();
+        analyticsSection.setVisible(false);
+        analyticsSection.setManaged(false);
+
         // Create back button at top
         HBox backSection = createBackSection();
 
@@ -104,6 +144,7 @@ public class MaterialAuditLogPanel extends ScrollPane {
                 toggleSection,
                 headerSection,
                 filtersSection,
+                analyticsSection,
                 tableSection,
                 controlsSection
         );
@@ -153,11 +194,16 @@ public class MaterialAuditLogPanel extends ScrollPane {
         toggleFiltersButton.setPadding(new Insets(8, 16, 8, 16));
         toggleFiltersButton.setTooltip(new Tooltip("Press ':' to toggle filters (Ctrl+F)"));
 
+        toggleAnalyticsButton = new Button("📈 Analytics");
+        toggleAnalyticsButton.getStyleClass().addAll("md-button", "md-button-outlined");
+        toggleAnalyticsButton.setPadding(new Insets(8, 16, 8, 16));
+        toggleAnalyticsButton.setTooltip(new Tooltip("Activity histograms over the logs loaded so far"));
+
         VBox titleSection = new VBox();
         titleSection.setSpacing(2);
         titleSection.getChildren().addAll(titleLabel, subtitleLabel);
 
-        toggleSection.getChildren().addAll(titleSection, spacer, quickStatsLabel, toggleFiltersButton);
+        toggleSection.getChildren().addAll(titleSection, spacer, quickStatsLabel, toggleAnalyticsButton, toggleFiltersButton);
 
         // Update quick stats
         updateQuickStats();
@@ -497,6 +543,106 @@ public class MaterialAuditLogPanel extends ScrollPane {
         return filtersSection;
     }
 
+    private VBox createAnalyticsSection() {
+        VBox section = new VBox();
+        section.getStyleClass().addAll("md-card-outlined", "md-spacing-16");
+        section.setPadding(new Insets(20, 24, 20, 24));
+
+        Label title = new Label("Activity Analytics");
+        title.getStyleClass().add("md-title-medium");
+
+        analyticsSummaryLabel = new Label("No audit logs analyzed yet");
+        analyticsSummaryLabel.getStyleClass().add("md-body-small");
+        analyticsSummaryLabel.setStyle("-fx-text-fill: #666666;");
+
+        userChart = createBarChart("Top Users", "User");
+        actionChart = createBarChart("Top Actions", "Action");
+        hourChart = createBarChart("Activity by Hour (UTC)", "Hour");
+
+        CategoryAxis timelineXAxis = new CategoryAxis();
+        timelineXAxis.setLabel("Hour (UTC)");
+        NumberAxis timelineYAxis = new NumberAxis();
+        timelineYAxis.setLabel("Entries");
+        timelineChart = new LineChart<>(timelineXAxis, timelineYAxis);
+        timelineChart.setTitle("Hourly Activity Timeline");
+        timelineChart.setLegendVisible(false);
+        timelineChart.setAnimated(false);
+        timelineChart.setCreateSymbols(false);
+        timelineChart.setPrefHeight(260);
+
+        HBox topRow = new HBox(16, userChart, actionChart);
+        HBox.setHgrow(userChart, Priority.ALWAYS);
+        HBox.setHgrow(actionChart, Priority.ALWAYS);
+
+        HBox bottomRow = new HBox(16, hourChart, timelineChart);
+        HBox.setHgrow(hourChart, Priority.ALWAYS);
+        HBox.setHgrow(timelineChart, Priority.ALWAYS);
+
+        section.getChildren().addAll(title, analyticsSummaryLabel, topRow, bottomRow);
+        VBox.setMargin(section, new Insets(0, 0, 16, 0));
+        return section;
+    }
+
+    private BarChart<String, Number> createBarChart(String title, String categoryLabel) {
+        CategoryAxis xAxis = new CategoryAxis();
+        xAxis.setLabel(categoryLabel);
+        NumberAxis yAxis = new NumberAxis();
+        yAxis.setLabel("Entries");
+
+        BarChart<String, Number> chart = new BarChart<>(xAxis, yAxis);
+        chart.setTitle(title);
+        chart.setLegendVisible(false);
+        chart.setAnimated(false);
+        chart.setPrefHeight(260);
+        return chart;
+    }
+
+    private void toggleAnalytics() {
+        analyticsVisible = !analyticsVisible;
+        analyticsSection.setVisible(analyticsVisible);
+        analyticsSection.setManaged(analyticsVisible);
+        toggleAnalyticsButton.setText(analyticsVisible ? "⬆️ Hide Analytics" : "📈 Analytics");
+        if (analyticsVisible) {
+            updateAnalyticsCharts();
+        }
+    }
+
+    private void updateAnalyticsCharts() {
+        AuditAnalytics.Snapshot snapshot = analytics.snapshot();
+        analyticsSummaryLabel.setText(String.format(
+                "%,d entries analyzed from loaded pages • %d users • %d actions",
+                snapshot.totalLogs, snapshot.perUser.size(), snapshot.perAction.size()));
+
+        userChart.getData().setAll(List.of(topNSeries(snapshot.perUser)));
+        actionChart.getData().setAll(List.of(topNSeries(snapshot.perAction)));
+
+        XYChart.Series<String, Number> hourSeries = new XYChart.Series<>();
+        for (int hour = 0; hour < snapshot.perHourOfDay.length; hour++) {
+            hourSeries.getData().add(new XYChart.Data<>(String.format("%02d", hour), snapshot.perHourOfDay[hour]));
+        }
+        hourChart.getData().setAll(List.of(hourSeries));
+
+        DateTimeFormatter hourFormatter = DateTimeFormatter.ofPattern("MM-dd HH:00").withZone(ZoneOffset.UTC);
+        XYChart.Series<String, Number> timelineSeries = new XYChart.Series<>();
+        Map<Long, Long> recentHours = snapshot.timeline.isEmpty() ? snapshot.timeline
+                : snapshot.timeline.tailMap(snapshot.timeline.lastKey() - ANALYTICS_TIMELINE_HOURS + 1);
+        for (Map.Entry<Long, Long> entry : recentHours.entrySet()) {
+            String label = hourFormatter.format(Instant.ofEpochSecond(entry.getKey() * 3600));
+            timelineSeries.getData().add(new XYChart.Data<>(label, entry.getValue()));
+        }
+        timelineChart.getData().setAll(List.of(timelineSeries));
+    }
+
+    private XYChart.Series<String, Number> topNSeries(Map<String, Long> counts) {
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        int added = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (added++ >= ANALYTICS_TOP_N) break;
+            series.getData().add(new XYChart.Data<>(entry.getKey(), entry.getValue()));
+        }
+        return series;
+    }
+
     private VBox createMaterialTable() {
         VBox tableSection = new VBox();
         tableSection.getStyleClass().addAll("md-card", "md-spacing-16");
@@ -518,8 +664,28 @@ public class MaterialAuditLogPanel extends ScrollPane {
 
         tableHeader.getChildren().addAll(tableTitle, headerSpacer, statusLabel);
 
-        // Add margin below table header
-        VBox.setMargin(tableHeader, new Insets(0, 0, 16, 0));
+        // Full-text search bar
+        HBox searchBar = new HBox();
+        searchBar.setAlignment(Pos.CENTER_LEFT);
+        searchBar.setSpacing(12);
+
+        searchField = new TextField();
+        searchField.getStyleClass().add("md-text-field-outlined");
+        searchField.setPromptText("Search log metadata (use \"quotes\" for phrases)");
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+
+        searchButton = new Button("🔍 Search");
+        searchButton.getStyleClass().addAll("md-button", "md-button-tonal");
+
+        indexAllButton = new Button("Index All Logs");
+        indexAllButton.getStyleClass().addAll("md-button", "md-button-outlined");
+        indexAllButton.setTooltip(new Tooltip("Download every audit log in the background so search covers all of them"));
+
+        searchBar.getChildren().addAll(searchField, searchButton, indexAllButton);
+
+        // Add margin below table header and search bar
+        VBox.setMargin(tableHeader, new Insets(0, 0, 12, 0));
+        VBox.setMargin(searchBar, new Insets(0, 0, 16, 0));
 
         // Material Design table with proper scrolling
         tableData = FXCollections.observableArrayList();
@@ -539,7 +705,7 @@ public class MaterialAuditLogPanel extends ScrollPane {
         // Make table grow within constraints
         VBox.setVgrow(logTable, Priority.NEVER); // Don't let table grow indefinitely
 
-        tableSection.getChildren().addAll(tableHeader, logTable);
+        tableSection.getChildren().addAll(tableHeader, searchBar, logTable);
 
         // Add bottom margin to table section
         VBox.setMargin(tableSection, new Insets(0, 0, 16, 0));
@@ -650,8 +816,12 @@ public class MaterialAuditLogPanel extends ScrollPane {
     }
 
     private void setupEventHandlers() {
-        // Toggle button handler
+        // Toggle button handlers
         toggleFiltersButton.setOnAction(e -> toggleFiltersAndStats());
+        toggleAnalyticsButton.setOnAction(e -> toggleAnalytics());
+        searchButton.setOnAction(e -> searchLogs());
+        searchField.setOnAction(e -> searchLogs());
+        indexAllButton.setOnAction(e -> toggleIndexSync());
 
         // Basic handlers
         backButton.setOnAction(e -> parentApp.showView(CV_APP.SEARCH_VIEW));
@@ -745,31 +915,35 @@ public class MaterialAuditLogPanel extends ScrollPane {
     }
 
     private void loadFilterOptions() {
-        Task<HttpClientUtil.FilterOptionsResult> task = new Task<>() {
-            @Override
-            protected HttpClientUtil.FilterOptionsResult call() {
-                return HttpClientUtil.fetchFilterOptions(serverUrl);
-            }
-        };
-
-        task.setOnSucceeded(e -> {
-            HttpClientUtil.FilterOptionsResult result = task.getValue();
-            if (result.errorMessage == null && result.users != null && result.actions != null) {
-                // Update user filter
-                userFilterCombo.getItems().clear();
-                userFilterCombo.getItems().add("All Users");
-                userFilterCombo.getItems().addAll(result.users);
-                userFilterCombo.setValue("All Users");
-
-                // Update action filter
-                actionFilterCombo.getItems().clear();
-                actionFilterCombo.getItems().add("All Actions");
-                actionFilterCombo.getItems().addAll(result.actions);
-                actionFilterCombo.setValue("All Actions");
+        // Cached options populate the combos right away; a changed server copy replaces them later
+        filterOptionsCache.loadAuditFilterOptions(serverUrl, result -> {
+            if (javafx.application.Platform.isFxApplicationThread()) {
+                applyFilterOptions(result);
+            } else {
+                javafx.application.Platform.runLater(() -> applyFilterOptions(result));
             }
         });
+    }
 
-        new Thread(task).start();
+    private void applyFilterOptions(HttpClientUtil.FilterOptionsResult result) {
+        if (result.errorMessage == null && result.users != null && result.actions != null) {
+            String selectedUser = userFilterCombo.getValue();
+            String selectedAction = actionFilterCombo.getValue();
+
+            // Update user filter
+            userFilterCombo.getItems().clear();
+            userFilterCombo.getItems().add("All Users");
+            userFilterCombo.getItems().addAll(result.users);
+            userFilterCombo.setValue(selectedUser != null && userFilterCombo.getItems().contains(selectedUser)
+                    ? selectedUser : "All Users");
+
+            // Update action filter
+            actionFilterCombo.getItems().clear();
+            actionFilterCombo.getItems().add("All Actions");
+            actionFilterCombo.getItems().addAll(result.actions);
+            actionFilterCombo.setValue(selectedAction != null && actionFilterCombo.getItems().contains(selectedAction)
+                    ? selectedAction : "All Actions");
+        }
     }
 
     private void loadStats() {
@@ -787,7 +961,7 @@ public class MaterialAuditLogPanel extends ScrollPane {
                             null, null, today, today);
 
                     // Get filter options to count users
-                    FilterOptionsResult filterResult = HttpClientUtil.fetchFilterOptions(serverUrl);
+                    FilterOptionsResult filterResult = filterOptionsCache.getAuditFilterOptions(serverUrl);
 
                     // Update UI on JavaFX Application Thread
                     javafx.application.Platform.runLater(() -> {
@@ -868,28 +1042,27 @@ public class MaterialAuditLogPanel extends ScrollPane {
         Task<HttpClientUtil.AuditLogResult> task = new Task<>() {
             @Override
             protected HttpClientUtil.AuditLogResult call() {
-                return HttpClientUtil.fetchAuditLogs(serverUrl, currentPage, currentPageSize,
+                HttpClientUtil.AuditLogResult result = HttpClientUtil.fetchAuditLogs(serverUrl, currentPage, currentPageSize,
                         userFilter, actionFilter, startDate, endDate);
+                if (result.errorMessage == null) {
+                    // Only logs not seen before are counted, so revisiting a page costs nothing
+                    analytics.addLogs(result.logs);
+                    searchIndex.addLogs(result.logs);
+                }
+                return result;
             }
         };
 
         task.setOnSucceeded(e -> {
             HttpClientUtil.AuditLogResult result = task.getValue();
             if (result.errorMessage == null) {
-                tableData.clear();
-
-                for (JSONObject log : result.logs) {
-                    tableData.add(new AuditLogItem(
-                            log.optString("timestamp", "N/A"),
-                            log.optString("user", "N/A"),
-                            log.optString("action", "N/A"),
-                            log.optString("cv_id", "N/A"),
-                            log.optString("ip_address", "N/A")
-                    ));
-                }
+                populateTable(result.logs);
 
                 totalPages = result.totalPages;
                 updatePaginationControls();
+                if (analyticsVisible) {
+                    updateAnalyticsCharts();
+                }
 
                 statusLabel.setText(String.format("Loaded %d of %,d audit log entries",
                         result.logs.size(), result.total));
@@ -911,6 +1084,112 @@ public class MaterialAuditLogPanel extends ScrollPane {
         new Thread(task).start();
     }
 
+    private void populateTable(List<JSONObject> logs) {
+        tableData.clear();
+
+        for (JSONObject log : logs) {
+            tableData.add(new AuditLogItem(
+                    log.optString("timestamp", "N/A"),
+                    log.optString("user", "N/A"),
+                    log.optString("action", "N/A"),
+                    log.optString("cv_id", "N/A"),
+                    log.optString("ip_address", "N/A")
+            ));
+        }
+    }
+
+    private void searchLogs() {
+        String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            refreshLogs();
+            return;
+        }
+
+        Task<AuditSearchIndex.SearchHits> task = new Task<>() {
+            @Override
+            protected AuditSearchIndex.SearchHits call() {
+                return searchIndex.search(query, SEARCH_RESULT_LIMIT);
+            }
+        };
+
+        task.setOnSucceeded(e -> {
+            AuditSearchIndex.SearchHits hits = task.getValue();
+            populateTable(hits.logs);
+
+            prevButton.setDisable(true);
+            nextButton.setDisable(true);
+            totalResultsLabel.setText(String.format("%,d matches", hits.totalMatches));
+
+            statusLabel.setText(String.format("%,d matches in %.1f ms across %,d indexed logs%s",
+                    hits.totalMatches, hits.getElapsedMillis(), hits.indexedLogs,
+                    hits.totalMatches > hits.logs.size() ? " (showing first " + hits.logs.size() + ")" : ""));
+            statusLabel.getStyleClass().removeAll("md-status-error", "md-status-info");
+            statusLabel.getStyleClass().add("md-status-success");
+        });
+
+        task.setOnFailed(e -> {
+            statusLabel.setText("Search failed");
+            statusLabel.getStyleClass().removeAll("md-status-success", "md-status-info");
+            statusLabel.getStyleClass().add("md-status-error");
+        });
+
+        new Thread(task).start();
+    }
+
+    // Pages through every audit log in the background so local search covers the full history
+    private void toggleIndexSync() {
+        if (indexSyncTask != null && indexSyncTask.isRunning()) {
+            indexSyncTask.cancel();
+            return;
+        }
+
+        indexSyncTask = new Task<>() {
+            @Override
+            protected Integer call() throws Exception {
+                int page = 1;
+                int pages = 1;
+                while (page <= pages && !isCancelled()) {
+                    HttpClientUtil.AuditLogResult result = HttpClientUtil.fetchAuditLogs(serverUrl, page, INDEX_SYNC_PAGE_SIZE);
+                    if (result.errorMessage != null) {
+                        throw new Exception(result.errorMessage);
+                    }
+                    searchIndex.addLogs(result.logs);
+                    analytics.addLogs(result.logs);
+                    pages = result.totalPages;
+                    updateMessage(String.format("Indexing audit logs... %,d indexed", searchIndex.getIndexedLogs()));
+                    page++;
+                }
+                return searchIndex.getIndexedLogs();
+            }
+        };
+
+        indexAllButton.setText("Stop Indexing");
+        indexSyncTask.messageProperty().addListener((obs, oldMessage, message) -> statusLabel.setText(message));
+
+        indexSyncTask.setOnSucceeded(e -> {
+            finishIndexSync();
+            statusLabel.setText(String.format("Indexed %,d audit logs (%,d terms)",
+                    indexSyncTask.getValue(), searchIndex.getTermCount()));
+        });
+        indexSyncTask.setOnCancelled(e -> {
+            finishIndexSync();
+            statusLabel.setText(String.format("Indexing stopped - %,d logs indexed", searchIndex.getIndexedLogs()));
+        });
+        indexSyncTask.setOnFailed(e -> {
+            finishIndexSync();
+            statusLabel.setText("Indexing failed: " + indexSyncTask.getException().getMessage());
+        });
+
+        new Thread(indexSyncTask).start();
+    }
+
+    private void finishIndexSync() {
+        indexAllButton.setText("Index All Logs");
+        if (analyticsVisible) {
+            updateAnalyticsCharts();
+        }
+    }
+
     private void updatePaginationControls() {
         prevButton.setDisable(currentPage <= 1);
         nextButton.setDisable(currentPage >= totalPages);
@@ -0,0 +1,327 @@
+package com.vertex.cv_app.java_fx.panels;
+
+import com.vertex.cv_app.java_fx.CV_APP;
+import com.vertex.cv_app.utils.HedgePolicy;
+import com.vertex.cv_app.utils.HttpClientUtil;
+import com.vertex.cv_app.utils.JWTTokenManager;
+import com.vertex.cv_app.utils.LocalStore;
+import com.vertex.cv_app.utils.MetricsRegistry;
+import com.vertex.cv_app.utils.ReplicaRouter;
+import com.vertex.cv_app.utils.SchemaMigrations;
+import com.vertex.cv_app.utils.TokenRefresher;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Request latency, size and error counts per server endpoint, as recorded by
+ * {@link MetricsRegistry}. Refreshes itself while visible; the full histograms can be
+ * dumped to a JSON file.
+ */
+public class MaterialDiagnosticsPanel extends ScrollPane {
+
+    private static final int AUTO_REFRESH_SECONDS = 2;
+    private static final DateTimeFormatter SINCE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final CV_APP parentApp;
+    private TableView<MetricsRegistry.EndpointSnapshot> metricsTable;
+    private final ObservableList<MetricsRegistry.EndpointSnapshot> metricsData = FXCollections.observableArrayList();
+    private Label summaryLabel;
+    private Label tokenLabel;
+    private Label compactionLabel;
+    private Label storeLabel;
+    private Label replicaLabel;
+    private Label statusLabel;
+    private final Timeline autoRefresh = new Timeline(new KeyFrame(Duration.seconds(AUTO_REFRESH_SECONDS), e -> refresh()));
+
+    public MaterialDiagnosticsPanel(CV_APP app) {
+        this.parentApp = app;
+        autoRefresh.setCycleCount(Timeline.INDEFINITE);
+        initializeMaterialUI();
+        refresh();
+    }
+
+    private void initializeMaterialUI() {
+        VBox mainContent = new VBox();
+        mainContent.getStyleClass().addAll("md-spacing-24", "md-padding-24");
+
+        VBox section = new VBox();
+        section.getStyleClass().addAll("md-card", "md-spacing-16");
+
+        Label titleLabel = new Label("Request Diagnostics");
+        titleLabel.getStyleClass().add("md-headline-small");
+        Label subtitleLabel = new Label("Latency percentiles, response sizes and errors for every server endpoint this session");
+        subtitleLabel.getStyleClass().add("md-body-medium");
+
+        Button refreshButton = new Button("Refresh");
+        refreshButton.getStyleClass().addAll("md-button", "md-button-outlined");
+        refreshButton.setOnAction(e -> refresh());
+
+        Button resetButton = new Button("Reset");
+        resetButton.getStyleClass().addAll("md-button", "md-button-text");
+        resetButton.setOnAction(e -> {
+            MetricsRegistry.reset();
+            refresh();
+            statusLabel.setText("Metrics reset");
+        });
+
+        Button dumpButton = new Button("Dump to File");
+        dumpButton.getStyleClass().addAll("md-button", "md-button-filled");
+        dumpButton.setOnAction(e -> dumpToFile());
+
+        CheckBox hedgeCheckBox = new CheckBox("Hedge slow reads");
+        hedgeCheckBox.setSelected(HttpClientUtil.getHedgePolicy().isEnabled());
+        hedgeCheckBox.setTooltip(new Tooltip(
+                "Send a second copy of a search or CV view that is slower than its recent p95; at most 10% extra requests"));
+        hedgeCheckBox.selectedProperty().addListener((obs, wasSelected, isSelected) -> {
+            HttpClientUtil.setHedgePolicy(isSelected ? HedgePolicy.forReads() : HedgePolicy.NONE);
+            refresh();
+        });
+
+        ComboBox<HttpClientUtil.Transport> transportCombo = new ComboBox<>(
+                FXCollections.observableArrayList(HttpClientUtil.Transport.values()));
+        transportCombo.getStyleClass().add("md-combo-box");
+        transportCombo.setValue(HttpClientUtil.getTransport());
+        transportCombo.setTooltip(new Tooltip("How requests reach the server; HTTP/2 falls back to pooled HTTP/1.1 "
+                + "for servers that do not support it"));
+        transportCombo.valueProperty().addListener((obs, oldMode, newMode) -> {
+            HttpClientUtil.setTransport(newMode);
+            refresh();
+        });
+
+        HBox actions = new HBox();
+        actions.getStyleClass().add("md-spacing-12");
+        actions.setAlignment(Pos.CENTER_LEFT);
+        actions.getChildren().addAll(refreshButton, resetButton, dumpButton, hedgeCheckBox, transportCombo);
+
+        summaryLabel = new Label();
+        summaryLabel.getStyleClass().add("md-body-medium");
+        tokenLabel = new Label();
+        tokenLabel.getStyleClass().add("md-body-medium");
+        compactionLabel = new Label();
+        compactionLabel.getStyleClass().add("md-body-small");
+        storeLabel = new Label();
+        storeLabel.getStyleClass().add("md-body-small");
+        replicaLabel = new Label();
+        replicaLabel.getStyleClass().add("md-body-small");
+        statusLabel = new Label();
+        statusLabel.getStyleClass().add("md-body-small");
+
+        metricsTable = new TableView<>(metricsData);
+        metricsTable.getStyleClass().add("md-table-view");
+        metricsTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        metricsTable.setPlaceholder(new Label("No requests recorded yet"));
+        metricsTable.setPrefHeight(480);
+        createColumns();
+
+        section.getChildren().addAll(titleLabel, subtitleLabel, actions, summaryLabel, tokenLabel, compactionLabel, storeLabel, replicaLabel, metricsTable, statusLabel);
+        mainContent.getChildren().add(section);
+
+        setContent(mainContent);
+        setFitToWidth(true);
+        setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
+        getStyleClass().add("md-scroll-pane");
+    }
+
+    private void createColumns() {
+        TableColumn<MetricsRegistry.EndpointSnapshot, String> endpointCol = new TableColumn<>("Endpoint");
+        endpointCol.setCellValueFactory(cd -> new ReadOnlyStringWrapper(cd.getValue().endpoint));
+        endpointCol.setPrefWidth(240);
+
+        TableColumn<MetricsRegistry.EndpointSnapshot, Long> requestsCol = new TableColumn<>("Requests");
+        requestsCol.setCellValueFactory(cd -> new ReadOnlyObjectWrapper<>(cd.getValue().getRequests()));
+
+        TableColumn<MetricsRegistry.EndpointSnapshot, Long> errorsCol = new TableColumn<>("Errors");
+        errorsCol.setCellValueFactory(cd -> new ReadOnlyObjectWrapper<>(cd.getValue().errors));
+
+        // Retries made, and in brackets how many requests they rescued
+        TableColumn<MetricsRegistry.EndpointSnapshot, String> retriesCol = new TableColumn<>("Retries");
+        retriesCol.setCellValueFactory(cd -> new ReadOnlyStringWrapper(cd.getValue().retries == 0 ? "" :
+                cd.getValue().retries + " (" + cd.getValue().recovered + " recovered)"));
+
+        // Duplicates sent for slow reads, and in brackets how many answered first
+        TableColumn<MetricsRegistry.EndpointSnapshot, String> hedgedCol = new TableColumn<>("Hedged");
+        hedgedCol.setCellValueFactory(cd -> new ReadOnlyStringWrapper(cd.getValue().hedged == 0 ? "" :
+                cd.getValue().hedged + " (" + cd.getValue().hedgeWins + " won)"));
+
+        metricsTable.getColumns().setAll(List.of(endpointCol, requestsCol, errorsCol, retriesCol, hedgedCol,
+                millisColumn("p50 (ms)", s -> s.getPercentileMillis(50)),
+                millisColumn("p95 (ms)", s -> s.getPercentileMillis(95)),
+                millisColumn("p99 (ms)", s -> s.getPercentileMillis(99)),
+                millisColumn("Max (ms)", MetricsRegistry.EndpointSnapshot::getMaxMillis),
+                millisColumn("Mean (ms)", MetricsRegistry.EndpointSnapshot::getMeanMillis)));
+
+        TableColumn<MetricsRegistry.EndpointSnapshot, String> bytesInCol = new TableColumn<>("Received");
+        bytesInCol.setCellValueFactory(cd -> new ReadOnlyStringWrapper(MetricsRegistry.formatBytes(cd.getValue().bytesIn)));
+
+        TableColumn<MetricsRegistry.EndpointSnapshot, String> avgSizeCol = new TableColumn<>("Avg Response");
+        avgSizeCol.setCellValueFactory(cd -> new ReadOnlyStringWrapper(cd.getValue().getRequests() == 0 ? "" :
+                MetricsRegistry.formatBytes(cd.getValue().bytesIn / cd.getValue().getRequests())));
+
+        TableColumn<MetricsRegistry.EndpointSnapshot, String> bytesOutCol = new TableColumn<>("Sent");
+        bytesOutCol.setCellValueFactory(cd -> new ReadOnlyStringWrapper(MetricsRegistry.formatBytes(cd.getValue().bytesOut)));
+
+        TableColumn<MetricsRegistry.EndpointSnapshot, String> lastErrorCol = new TableColumn<>("Last Error");
+        lastErrorCol.setCellValueFactory(cd -> new ReadOnlyStringWrapper(cd.getValue().lastError == null ? "" : cd.getValue().lastError));
+        lastErrorCol.setPrefWidth(200);
+
+        metricsTable.getColumns().addAll(List.of(bytesInCol, avgSizeCol, bytesOutCol, lastErrorCol));
+    }
+
+    private TableColumn<MetricsRegistry.EndpointSnapshot, String> millisColumn(
+            String title, Function<MetricsRegistry.EndpointSnapshot, Double> value) {
+        TableColumn<MetricsRegistry.EndpointSnapshot, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(cd -> new ReadOnlyStringWrapper(String.format("%.1f", value.apply(cd.getValue()))));
+        return column;
+    }
+
+    public void refresh() {
+        metricsData.setAll(MetricsRegistry.snapshot());
+
+        long requests = 0;
+        long errors = 0;
+        long retries = 0;
+        long hedged = 0;
+        long bytesIn = 0;
+        for (MetricsRegistry.EndpointSnapshot snapshot : metricsData) {
+            requests += snapshot.getRequests();
+            errors += snapshot.errors;
+            retries += snapshot.retries;
+            hedged += snapshot.hedged;
+            bytesIn += snapshot.bytesIn;
+        }
+        String since = LocalDateTime.ofInstant(Instant.ofEpochMilli(MetricsRegistry.getSinceMillis()),
+                ZoneId.systemDefault()).format(SINCE_FORMAT);
+        summaryLabel.setText(String.format("%d request(s), %d error(s), %d retry(ies), %d hedged, %s received since %s%s",
+                requests, errors, retries, hedged, MetricsRegistry.formatBytes(bytesIn), since, describeHedging())
+                + describeTransport());
+        tokenLabel.setText(describeToken());
+        JWTTokenManager.CompactionResult compaction = parentApp.getTokenManager() != null
+                ? parentApp.getTokenManager().getLastCompaction() : null;
+        compactionLabel.setText(compaction == null ? "Token store: not compacted yet this session"
+                : "Token store: last compaction " + compaction);
+        LocalStore store = LocalStore.getDefault();
+        SchemaMigrations.MigrationResult schema = store.getMigrationResult();
+        storeLabel.setText(!store.isAvailable() ? "Local database: unavailable"
+                : "Local database (schema v" + (schema != null ? schema.toVersion : "?") + "): " + store.getStats());
+        replicaLabel.setText(describeReplicas());
+        replicaLabel.setVisible(!replicaLabel.getText().isEmpty());
+        replicaLabel.setManaged(replicaLabel.isVisible());
+    }
+
+    // Under HTTP/2, which servers answered over it and which fell back
+    private String describeTransport() {
+        if (HttpClientUtil.getTransport() != HttpClientUtil.Transport.HTTP2) {
+            return "";
+        }
+        List<String> origins = HttpClientUtil.describeHttp2Origins();
+        return origins.isEmpty() ? " — HTTP/2: no server contacted yet" : " — " + String.join(", ", origins);
+    }
+
+    // Current hedge thresholds, and how often the budget held a hedge back
+    private String describeHedging() {
+        HedgePolicy policy = HttpClientUtil.getHedgePolicy();
+        if (!policy.isEnabled()) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder(" — hedging after");
+        for (String endpoint : policy.endpoints) {
+            double delay = policy.getDelayMillis(endpoint);
+            text.append(' ').append(endpoint).append(delay < 0 ? " (learning)" : String.format(" %.0f ms", delay)).append(',');
+        }
+        return text.append(' ').append(policy.getSkippedForBudget()).append(" skipped over budget").toString();
+    }
+
+    // One line per server with replicas: each endpoint's circuit, recent latency and failures
+    private String describeReplicas() {
+        StringBuilder text = new StringBuilder();
+        for (ReplicaRouter router : ReplicaRouter.all()) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append("Replicas of ").append(router.getPrimaryUrl())
+                    .append(" (").append(router.getFailovers()).append(" failover(s)): ");
+            StringBuilder endpoints = new StringBuilder();
+            for (ReplicaRouter.EndpointStats stats : router.getStats()) {
+                if (endpoints.length() > 0) {
+                    endpoints.append("; ");
+                }
+                endpoints.append(stats);
+            }
+            text.append(endpoints);
+        }
+        return text.toString();
+    }
+
+    private String describeToken() {
+        TokenRefresher refresher = parentApp.getTokenRefresher();
+        if (refresher == null) {
+            return "";
+        }
+        TokenRefresher.TokenStats stats = refresher.getStats();
+        String server = refresher.getServerUrl();
+        if (!stats.hasToken) {
+            return "Access token (" + server + "): none";
+        }
+        StringBuilder text = new StringBuilder("Access token (" + server + "): age ")
+                .append(TokenRefresher.formatDuration(stats.ageMillis));
+        if (stats.remainingMillis >= 0) {
+            text.append(", expires in ").append(TokenRefresher.formatDuration(stats.remainingMillis));
+        }
+        if (stats.nextRefreshAt > 0) {
+            text.append(", refresh in ").append(TokenRefresher.formatDuration(stats.nextRefreshAt - System.currentTimeMillis()));
+        }
+        text.append(String.format(" — %d refresh(es), %d failed, %d re-login(s), %d request(s) retried",
+                stats.refreshes, stats.failedRefreshes, stats.reauthentications, stats.retriedRequests));
+        if (stats.lastError != null) {
+            text.append(" — last error: ").append(stats.lastError);
+        }
+        return text.toString();
+    }
+
+    // Called when the tab is shown or hidden so the timer only runs while someone is looking
+    public void setAutoRefresh(boolean enabled) {
+        if (enabled) {
+            refresh();
+            autoRefresh.play();
+        } else {
+            autoRefresh.stop();
+        }
+    }
+
+    private void dumpToFile() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Dump Request Metrics");
+        fileChooser.setInitialFileName("cv_app_metrics_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".json");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON Files", "*.json"));
+
+        File selected = fileChooser.showSaveDialog(getScene().getWindow());
+        if (selected == null) {
+            return;
+        }
+        try {
+            MetricsRegistry.dump(selected);
+            statusLabel.setText("Metrics written to " + selected.getAbsolutePath());
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            statusLabel.setText("Could not write metrics: " + ex.getMessage());
+        }
+    }
+}
@@ -1,19 +1,44 @@
 package com.vertex.cv_app.java_fx.panels;
 
 import com.vertex.cv_app.java_fx.CV_APP;
+import com.vertex.cv_app.java_fx.dialog.MaterialBatchSearchDialog;
+import com.vertex.cv_app.utils.AdvancedSearchPlanner;
+import com.vertex.cv_app.utils.AutocompleteIndex;
+import com.vertex.cv_app.utils.FilterOptionsCache;
 import com.vertex.cv_app.utils.HttpClientUtil;
-import javafx.beans.property.SimpleStringProperty;
+import com.vertex.cv_app.utils.LocalCVIndex;
+import com.vertex.cv_app.utils.ResultWindow;
+import com.vertex.cv_app.utils.SavedSearches;
+import com.vertex.cv_app.utils.SearchExporter;
+import com.vertex.cv_app.utils.SearchRefinement;
+import com.vertex.cv_app.utils.SearchResultRows;
+import com.vertex.cv_app.utils.StructuredQuery;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.geometry.Pos;
+import javafx.geometry.Side;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.File;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class MaterialSearchPanel extends ScrollPane {
 
@@ -44,20 +69,98 @@ public class MaterialSearchPanel extends ScrollPane {
 
     private HttpClientUtil.SearchParameters currentSearchParams;
 
+    // Search-as-you-type
+    private static final int DEFAULT_SEARCH_DEBOUNCE_MS = 300;
+    private static final int MIN_LIVE_QUERY_LENGTH = 2;
+    private CheckBox liveSearchCheckBox;
+    private Spinner<Integer> debounceSpinner;
+    private PauseTransition searchDebounce;
+    private HttpClientUtil.RequestHandle activeSearchHandle;
+    private int searchGeneration = 0;
+
+    // Rows and parameters of the last server response, used for local refinement
+    private List<JSONObject> lastResultRows = new ArrayList<>();
+    private HttpClientUtil.SearchParameters lastResultParams;
+
+    // Local mirror used when the server is unreachable (or when the user asks for it)
+    private static final long MIRROR_SYNC_INTERVAL_MINUTES = 10;
+    private static final int MIRROR_FULL_RESYNC_EVERY = 12;
+    private final LocalCVIndex localIndex;
+    private final ScheduledExecutorService mirrorSyncExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cv-mirror-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int mirrorSyncCount = 0;
+    private CheckBox localOnlyCheckBox;
+
+    // Autocomplete over the server's index vocabulary, persisted and revalidated in the background
+    private static final int MAX_SUGGESTIONS = 8;
+    private final FilterOptionsCache optionsCache = new FilterOptionsCache();
+    private volatile AutocompleteIndex autocompleteIndex = AutocompleteIndex.empty();
+    private ContextMenu suggestionsMenu;
+    private boolean applyingSuggestion = false;
+
+    // Export of every page of the current search
+    private Button exportButton;
+    private HBox exportBar;
+    private ProgressBar exportProgressBar;
+    private Label exportStatusLabel;
+    private HttpClientUtil.RequestHandle exportHandle;
+
+    // Structured queries (field:value, AND/OR groups, ranges) go to /api/advanced_search
+    private final AdvancedSearchPlanner advancedPlanner = new AdvancedSearchPlanner();
+    private CheckBox structuredQueryCheckBox;
+    private StructuredQuery currentStructuredQuery;
+
+    // After page 1 of an explicit search is shown, a window of results is fetched in the background;
+    // sorting, facets and paging within it stay client-side. Search-as-you-type skips the window
+    private static final int RESULT_WINDOW_SIZE = 500;  // the server's MAX_PAGE_SIZE
+    private static final int MAX_FACET_CHIPS = 6;
+    private ResultWindow resultWindow;
+    private HttpClientUtil.RequestHandle windowFillHandle;
+    private int windowFillGeneration = 0;
+    private int[] windowView = new int[0];
+    private final Map<ResultWindow.Facet, String> facetFilters = new EnumMap<>(ResultWindow.Facet.class);
+    private HttpClientUtil.SearchParameters unfilteredSearchParams;
+    private boolean windowFilteredOnServer = false;
+    private VBox facetsBox;
+
+    // Saved searches re-run in the background; results new since the previous run are badged
+    private final SavedSearches savedSearches;
+    private final ScheduledExecutorService savedSearchExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "saved-search-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private MenuButton savedSearchesButton;
+
     public MaterialSearchPanel(CV_APP app, String serverUrl) {
         this.parentApp = app;
         this.serverUrl = serverUrl;
+        // Both are keyed by server, so each profile's panel keeps its own mirror and searches
+        this.localIndex = new LocalCVIndex(serverUrl);
+        this.savedSearches = new SavedSearches(serverUrl);
         this.currentSearchParams = new HttpClientUtil.SearchParameters();
+        this.unfilteredSearchParams = currentSearchParams;
 
         initializeMaterialUI();
         setupEventHandlers();
         refresh();
+        startMirrorSync();
+        startSavedSearchRefresh();
     }
 
     public void setToken(String token) {
         this.jwtToken = token;
     }
 
+    // Stops the background mirror sync and saved-search refresh, e.g. when the server profile is removed
+    public void dispose() {
+        mirrorSyncExecutor.shutdownNow();
+        savedSearchExecutor.shutdownNow();
+    }
+
     private void initializeMaterialUI() {
         // Create main content container
         VBox mainContent = new VBox();
@@ -110,7 +213,9 @@ public class MaterialSearchPanel extends ScrollPane {
         // Action buttons
         HBox actionsArea = createMaterialActionButtons();
 
-        section.getChildren().addAll(titleLabel, subtitleLabel, searchArea, actionsArea);
+        exportBar = createExportBar();
+
+        section.getChildren().addAll(titleLabel, subtitleLabel, searchArea, actionsArea, exportBar);
         return section;
     }
 
@@ -126,6 +231,9 @@ public class MaterialSearchPanel extends ScrollPane {
         searchField.setPrefWidth(500);
         HBox.setHgrow(searchField, Priority.ALWAYS);
 
+        suggestionsMenu = new ContextMenu();
+        suggestionsMenu.setAutoHide(true);
+
         // Primary search button
         searchButton = new Button("Search");
         searchButton.getStyleClass().addAll("md-button", "md-button-filled");
@@ -152,10 +260,283 @@ public class MaterialSearchPanel extends ScrollPane {
         clearFiltersButton = new Button("Clear");
         clearFiltersButton.getStyleClass().addAll("md-button", "md-button-text");
 
-        actionsArea.getChildren().addAll(uploadButton, refreshButton, filtersButton, clearFiltersButton);
+        exportButton = new Button("Export");
+        exportButton.getStyleClass().addAll("md-button", "md-button-outlined");
+        exportButton.setOnAction(e -> exportSearchResults());
+
+        Button batchButton = new Button("Batch Search");
+        batchButton.getStyleClass().addAll("md-button", "md-button-outlined");
+        batchButton.setOnAction(e -> openBatchSearch());
+
+        Button saveSearchButton = new Button("Save Search");
+        saveSearchButton.getStyleClass().addAll("md-button", "md-button-text");
+        saveSearchButton.setOnAction(e -> saveCurrentSearch());
+        saveSearchButton.setDisable(!savedSearches.isAvailable());
+
+        savedSearchesButton = new MenuButton("Saved Searches");
+        savedSearchesButton.getStyleClass().addAll("md-button", "md-button-outlined");
+        savedSearchesButton.setDisable(!savedSearches.isAvailable());
+        updateSavedSearchesMenu();
+
+        actionsArea.getChildren().addAll(uploadButton, refreshButton, filtersButton, clearFiltersButton, exportButton,
+                batchButton, saveSearchButton, savedSearchesButton);
         return actionsArea;
     }
 
+    private void saveCurrentSearch() {
+        if (structuredQueryCheckBox.isSelected()) {
+            statusLabel.setText("Structured queries cannot be saved; turn off structured mode first");
+            return;
+        }
+        String query = searchField.getText().trim();
+        TextInputDialog dialog = new TextInputDialog(query.isEmpty() ? "All CVs" : query);
+        dialog.initOwner(getScene().getWindow());
+        dialog.setTitle("Save Search");
+        dialog.setHeaderText("Saved searches are re-run every " + SavedSearches.DEFAULT_REFRESH_INTERVAL_MINUTES
+                + " minutes and flag CVs that are new since the last run.");
+        dialog.setContentText("Name:");
+        dialog.showAndWait().map(String::trim).filter(name -> !name.isEmpty()).ifPresent(name -> {
+            HttpClientUtil.SearchParameters params = collectSearchParams();
+            Task<SavedSearches.RefreshResult> task = new Task<>() {
+                @Override
+                protected SavedSearches.RefreshResult call() {
+                    SavedSearches.SavedSearch saved = savedSearches.save(name, params);
+                    return saved == null ? null : savedSearches.refresh(saved);
+                }
+            };
+            task.setOnSucceeded(e -> {
+                SavedSearches.RefreshResult result = task.getValue();
+                if (result == null) {
+                    statusLabel.setText("Could not save search \"" + name + "\"");
+                } else if (result.errorMessage != null) {
+                    statusLabel.setText("Saved \"" + name + "\" - first run failed: " + result.errorMessage);
+                } else {
+                    statusLabel.setText(String.format("Saved \"%s\" - tracking %d of %d result(s)",
+                            name, result.tracked, result.totalResults));
+                }
+                updateSavedSearchesMenu();
+            });
+            new Thread(task).start();
+        });
+    }
+
+    private void updateSavedSearchesMenu() {
+        List<SavedSearches.SavedSearch> searches = savedSearches.list();
+        int totalNew = 0;
+        List<MenuItem> items = new ArrayList<>();
+        for (SavedSearches.SavedSearch search : searches) {
+            totalNew += search.newCount;
+            Menu menu = new Menu(search.lastError != null ? search + "  (refresh failed)" : search.toString());
+
+            MenuItem showNew = new MenuItem(search.newCount > 0 ? "Show " + search.newCount + " new" : "No new results");
+            showNew.setDisable(search.newCount == 0);
+            showNew.setOnAction(e -> showNewSavedResults(search));
+
+            MenuItem run = new MenuItem("Run search");
+            run.setOnAction(e -> runSavedSearch(search));
+
+            MenuItem delete = new MenuItem("Delete");
+            delete.setOnAction(e -> {
+                savedSearches.delete(search.id);
+                updateSavedSearchesMenu();
+            });
+
+            menu.getItems().addAll(showNew, run, new SeparatorMenuItem(), delete);
+            items.add(menu);
+        }
+        if (items.isEmpty()) {
+            MenuItem empty = new MenuItem("No saved searches");
+            empty.setDisable(true);
+            items.add(empty);
+        }
+        savedSearchesButton.getItems().setAll(items);
+        savedSearchesButton.setText(totalNew > 0 ? "Saved Searches (" + totalNew + " new)" : "Saved Searches");
+    }
+
+    private void startSavedSearchRefresh() {
+        if (!savedSearches.isAvailable()) {
+            return;
+        }
+        savedSearchExecutor.scheduleWithFixedDelay(() -> {
+            for (SavedSearches.RefreshResult result : savedSearches.refreshAll()) {
+                if (result.errorMessage != null) {
+                    System.err.println("Saved search \"" + result.name + "\" refresh failed: " + result.errorMessage);
+                }
+            }
+            Platform.runLater(this::updateSavedSearchesMenu);
+        }, 1, SavedSearches.DEFAULT_REFRESH_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    private void runSavedSearch(SavedSearches.SavedSearch search) {
+        applySearchControls(search.params);
+        performSearch();
+    }
+
+    // Shows only the flagged results, paged and sorted locally, and clears the badge
+    private void showNewSavedResults(SavedSearches.SavedSearch search) {
+        List<JSONObject> rows = savedSearches.getNewResults(search.id);
+        applySearchControls(search.params);
+        currentStructuredQuery = null;
+        currentSearchParams = collectSearchParams();
+        unfilteredSearchParams = currentSearchParams;
+        lastResultParams = null;
+        lastResultRows = new ArrayList<>();
+        clearResultWindow();
+
+        resultWindow = ResultWindow.fromResponse(new JSONObject().put("results", new JSONArray(rows)).put("total", rows.size()));
+        showWindowPage(1);
+        statusLabel.setText(String.format("%d new result(s) for \"%s\" since it was last checked", rows.size(), search.name));
+        statusLabel.getStyleClass().removeAll("md-status-error", "md-status-success");
+        statusLabel.getStyleClass().add("md-status-info");
+
+        savedSearches.markSeen(search.id);
+        updateSavedSearchesMenu();
+    }
+
+    private void applySearchControls(HttpClientUtil.SearchParameters params) {
+        // Cleared first so setting the sort combos does not re-sort the current results
+        currentSearchParams = null;
+        structuredQueryCheckBox.setSelected(false);
+        applyingSuggestion = true;
+        searchField.setText(params.query == null ? "" : params.query);
+        applyingSuggestion = false;
+        searchDebounce.stop();
+        datePresetCombo.setValue("Custom Range");
+        dateFromPicker.setValue(params.dateFrom == null ? null : LocalDate.parse(params.dateFrom));
+        dateToPicker.setValue(params.dateTo == null ? null : LocalDate.parse(params.dateTo));
+        sortByCombo.setValue(params.sortBy);
+        sortOrderCombo.setValue(params.sortOrder);
+        logicCombo.setValue(params.logic);
+    }
+
+    // Seeds the batch with the current comma-separated terms, one per line
+    private void openBatchSearch() {
+        String initialQueries = String.join("\n", SearchRefinement.queryTerms(searchField.getText()));
+        MaterialBatchSearchDialog dialog = new MaterialBatchSearchDialog(getScene().getWindow(), serverUrl,
+                collectSearchParams(), initialQueries, parentApp);
+        dialog.show();
+    }
+
+    private HBox createExportBar() {
+        HBox bar = new HBox();
+        bar.getStyleClass().add("md-spacing-12");
+        bar.setAlignment(Pos.CENTER_LEFT);
+
+        exportProgressBar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        exportProgressBar.setPrefWidth(240);
+
+        exportStatusLabel = new Label();
+        exportStatusLabel.getStyleClass().add("md-body-medium");
+
+        Button cancelExportButton = new Button("Cancel");
+        cancelExportButton.getStyleClass().addAll("md-button", "md-button-text");
+        cancelExportButton.setOnAction(e -> {
+            if (exportHandle != null) {
+                exportStatusLabel.setText("Cancelling...");
+                exportHandle.cancel();
+            }
+        });
+
+        bar.getChildren().addAll(exportProgressBar, exportStatusLabel, cancelExportButton);
+        bar.setVisible(false);
+        bar.setManaged(false);
+        return bar;
+    }
+
+    private void exportSearchResults() {
+        if (currentSearchParams == null) {
+            statusLabel.setText("Run a search before exporting");
+            return;
+        }
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Search Results");
+        fileChooser.setInitialFileName("cv_export_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")));
+        FileChooser.ExtensionFilter csvFilter = new FileChooser.ExtensionFilter("CSV Files", "*.csv");
+        FileChooser.ExtensionFilter jsonFilter = new FileChooser.ExtensionFilter("JSON Files", "*.json");
+        fileChooser.getExtensionFilters().addAll(csvFilter, jsonFilter);
+
+        File selected = fileChooser.showSaveDialog(getScene().getWindow());
+        if (selected == null) {
+            return;
+        }
+
+        String name = selected.getName().toLowerCase();
+        String format;
+        if (name.endsWith(".csv")) {
+            format = SearchExporter.FORMAT_CSV;
+        } else if (name.endsWith(".json")) {
+            format = SearchExporter.FORMAT_JSON;
+        } else {
+            format = fileChooser.getSelectedExtensionFilter() == jsonFilter ? SearchExporter.FORMAT_JSON : SearchExporter.FORMAT_CSV;
+            selected = new File(selected.getAbsolutePath() + "." + format);
+        }
+
+        HttpClientUtil.SearchParameters exportParams = new HttpClientUtil.SearchParameters(currentSearchParams);
+        HttpClientUtil.RequestHandle handle = new HttpClientUtil.RequestHandle();
+        StructuredQuery structuredQuery = currentStructuredQuery;
+        SearchExporter.PageSource source = structuredQuery != null
+                ? (pageParams, pageHandle) -> advancedPlanner.search(serverUrl, structuredQuery, pageParams, pageHandle)
+                : (pageParams, pageHandle) -> HttpClientUtil.searchCVs(serverUrl, pageParams, pageHandle);
+        File target = selected;
+        exportHandle = handle;
+
+        Task<SearchExporter.ExportResult> task = new Task<>() {
+            @Override
+            protected SearchExporter.ExportResult call() {
+                return SearchExporter.export(source, exportParams, format, target, handle, progress -> {
+                    if (progress.totalResults > 0) {
+                        updateProgress(progress.rowsWritten, progress.totalResults);
+                    }
+                    updateMessage(SearchExporter.formatProgress(progress));
+                });
+            }
+        };
+
+        exportProgressBar.progressProperty().bind(task.progressProperty());
+        exportStatusLabel.textProperty().bind(task.messageProperty());
+        exportButton.setDisable(true);
+        exportBar.setVisible(true);
+        exportBar.setManaged(true);
+
+        task.setOnSucceeded(e -> {
+            finishExport();
+            SearchExporter.ExportResult result = task.getValue();
+            statusLabel.getStyleClass().removeAll("md-status-success", "md-status-error", "md-status-info");
+            if (result.cancelled) {
+                statusLabel.setText("Export cancelled after " + result.progress.rowsWritten + " rows");
+            } else if (result.errorMessage != null) {
+                statusLabel.setText("Export failed: " + result.errorMessage);
+                statusLabel.getStyleClass().add("md-status-error");
+            } else {
+                statusLabel.setText(String.format("Exported %s to %s in %.1f s",
+                        SearchExporter.formatProgress(result.progress), target.getName(),
+                        result.progress.elapsedMillis / 1000.0));
+                statusLabel.getStyleClass().add("md-status-success");
+            }
+        });
+
+        task.setOnFailed(e -> {
+            finishExport();
+            statusLabel.setText("Export failed: " + task.getException().getMessage());
+            statusLabel.getStyleClass().removeAll("md-status-success", "md-status-info");
+            statusLabel.getStyleClass().add("md-status-error");
+        });
+
+        new Thread(task).start();
+    }
+
+    private void finishExport() {
+        exportHandle = null;
+        exportProgressBar.progressProperty().unbind();
+        exportProgressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        exportStatusLabel.textProperty().unbind();
+        exportStatusLabel.setText("");
+        exportBar.setVisible(false);
+        exportBar.setManaged(false);
+        exportButton.setDisable(false);
+    }
+
     private VBox createMaterialFiltersCard() {
         VBox filtersCard = new VBox();
         filtersCard.getStyleClass().addAll("md-card-outlined", "md-spacing-16");
@@ -234,7 +615,7 @@ public class MaterialSearchPanel extends ScrollPane {
         logicCombo.getStyleClass().add("md-combo-box");
         logicCombo.setValue("and");
 
-        perPageSpinner = new Spinner<>(5, 100, 10, 5);
+        perPageSpinner = new Spinner<>(5, 500, 10, 5);
         perPageSpinner.getStyleClass().add("md-combo-box");
         perPageSpinner.setEditable(true);
         perPageSpinner.setPrefWidth(80);
@@ -246,7 +627,41 @@ public class MaterialSearchPanel extends ScrollPane {
                 new Label("Per page:"), perPageSpinner
         );
 
-        optionsSection.getChildren().addAll(optionsLabel, optionsControls);
+        HBox liveSearchControls = new HBox();
+        liveSearchControls.getStyleClass().add("md-spacing-16");
+        liveSearchControls.setAlignment(Pos.CENTER_LEFT);
+
+        liveSearchCheckBox = new CheckBox("Search as you type");
+        liveSearchCheckBox.setSelected(true);
+
+        debounceSpinner = new Spinner<>(100, 2000, DEFAULT_SEARCH_DEBOUNCE_MS, 50);
+        debounceSpinner.getStyleClass().add("md-combo-box");
+        debounceSpinner.setEditable(true);
+        debounceSpinner.setPrefWidth(90);
+        debounceSpinner.disableProperty().bind(liveSearchCheckBox.selectedProperty().not());
+
+        localOnlyCheckBox = new CheckBox("Search local mirror only");
+        localOnlyCheckBox.setTooltip(new Tooltip("Answer searches from the offline copy instead of the server"));
+
+        structuredQueryCheckBox = new CheckBox("Structured query");
+        structuredQueryCheckBox.setTooltip(new Tooltip(
+                "e.g. skill:java AND (position:engineer OR position:developer) experience:3-6"));
+        // The query text carries its own AND/OR, and the mirror cannot evaluate groups
+        logicCombo.disableProperty().bind(structuredQueryCheckBox.selectedProperty());
+        localOnlyCheckBox.disableProperty().bind(structuredQueryCheckBox.selectedProperty());
+        structuredQueryCheckBox.selectedProperty().addListener((obs, wasSelected, isSelected) ->
+                searchField.setPromptText(isSelected
+                        ? "skill:java AND (position:engineer OR position:developer) experience:3-6"
+                        : "Search by name, skills, experience, education..."));
+
+        liveSearchControls.getChildren().addAll(
+                liveSearchCheckBox,
+                new Label("Delay (ms):"), debounceSpinner,
+                localOnlyCheckBox,
+                structuredQueryCheckBox
+        );
+
+        optionsSection.getChildren().addAll(optionsLabel, optionsControls, liveSearchControls);
         return optionsSection;
     }
 
@@ -282,33 +697,38 @@ public class MaterialSearchPanel extends ScrollPane {
 
         VBox.setVgrow(resultsTable, Priority.ALWAYS);
 
-        resultsSection.getChildren().addAll(resultsHeader, resultsTable);
+        facetsBox = new VBox();
+        facetsBox.getStyleClass().add("md-spacing-12");
+        facetsBox.setVisible(false);
+        facetsBox.setManaged(false);
+
+        resultsSection.getChildren().addAll(resultsHeader, facetsBox, resultsTable);
         return resultsSection;
     }
 
     private void createMaterialTableColumns() {
         TableColumn<SearchResultItem, String> idCol = new TableColumn<>("ID");
-        idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
+        idCol.setCellValueFactory(cd -> cd.getValue().property(SearchResultRows.ID));
         idCol.setPrefWidth(80);
 
         TableColumn<SearchResultItem, String> nameCol = new TableColumn<>("Name");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        nameCol.setCellValueFactory(cd -> cd.getValue().property(SearchResultRows.NAME));
         nameCol.setPrefWidth(150);
 
         TableColumn<SearchResultItem, String> emailCol = new TableColumn<>("Email");
-        emailCol.setCellValueFactory(new PropertyValueFactory<>("email"));
+        emailCol.setCellValueFactory(cd -> cd.getValue().property(SearchResultRows.EMAIL));
         emailCol.setPrefWidth(200);
 
         TableColumn<SearchResultItem, String> phoneCol = new TableColumn<>("Phone");
-        phoneCol.setCellValueFactory(new PropertyValueFactory<>("phone"));
+        phoneCol.setCellValueFactory(cd -> cd.getValue().property(SearchResultRows.PHONE));
         phoneCol.setPrefWidth(130);
 
         TableColumn<SearchResultItem, String> filenameCol = new TableColumn<>("Filename");
-        filenameCol.setCellValueFactory(new PropertyValueFactory<>("filename"));
+        filenameCol.setCellValueFactory(cd -> cd.getValue().property(SearchResultRows.FILENAME));
         filenameCol.setPrefWidth(200);
 
         TableColumn<SearchResultItem, String> uploadDateCol = new TableColumn<>("Upload Date");
-        uploadDateCol.setCellValueFactory(new PropertyValueFactory<>("uploadDate"));
+        uploadDateCol.setCellValueFactory(cd -> cd.getValue().property(SearchResultRows.UPLOAD_DATE));
         uploadDateCol.setPrefWidth(130);
 
         resultsTable.getColumns().addAll(idCol, nameCol, emailCol, phoneCol, filenameCol, uploadDateCol);
@@ -357,8 +777,40 @@ public class MaterialSearchPanel extends ScrollPane {
     }
 
     private void setupEventHandlers() {
-        searchButton.setOnAction(e -> performSearch());
-        searchField.setOnAction(e -> performSearch());
+        searchButton.setOnAction(e -> {
+            searchDebounce.stop();
+            performSearch();
+        });
+        searchField.setOnAction(e -> {
+            searchDebounce.stop();
+            performSearch();
+        });
+
+        // Search once typing pauses for the configured delay
+        searchDebounce = new PauseTransition(Duration.millis(DEFAULT_SEARCH_DEBOUNCE_MS));
+        searchDebounce.setOnFinished(e -> {
+            if (searchField.getText().trim().length() >= MIN_LIVE_QUERY_LENGTH) {
+                performSearch(true);
+            }
+        });
+        searchField.textProperty().addListener((obs, oldText, newText) -> {
+            if (liveSearchCheckBox.isSelected()) {
+                searchDebounce.playFromStart();
+            }
+            if (!applyingSuggestion) {
+                updateSuggestions(newText);
+            }
+        });
+        searchField.focusedProperty().addListener((obs, wasFocused, isFocused) -> {
+            if (!isFocused) {
+                suggestionsMenu.hide();
+            }
+        });
+        debounceSpinner.valueProperty().addListener((obs, oldValue, newValue) -> {
+            if (newValue != null) {
+                setSearchDebounceMillis(newValue);
+            }
+        });
         uploadButton.setOnAction(e -> parentApp.showView(CV_APP.UPLOAD_VIEW));
         refreshButton.setOnAction(e -> refresh());
         clearFiltersButton.setOnAction(e -> clearAllFilters());
@@ -414,6 +866,8 @@ public class MaterialSearchPanel extends ScrollPane {
         });
 
         datePresetCombo.setOnAction(e -> applyDatePreset(datePresetCombo.getValue()));
+        sortByCombo.setOnAction(e -> resortResults());
+        sortOrderCombo.setOnAction(e -> resortResults());
     }
 
     private void goToPage() {
@@ -482,50 +936,241 @@ public class MaterialSearchPanel extends ScrollPane {
     }
 
     private void performSearch() {
-        currentSearchParams = new HttpClientUtil.SearchParameters();
-        currentSearchParams.query = searchField.getText().trim();
-        currentSearchParams.page = 1;
-        currentSearchParams.perPage = perPageSpinner.getValue();
+        performSearch(false);
+    }
+
+    // A live search is one typing pause among many, so it fetches only the page it shows
+    private void performSearch(boolean live) {
+        HttpClientUtil.SearchParameters params = collectSearchParams();
+        StructuredQuery structuredQuery = null;
+        if (structuredQueryCheckBox.isSelected()) {
+            // Planning up front reports syntax errors and oversized expansions before any request
+            try {
+                structuredQuery = StructuredQuery.parse(searchField.getText());
+                advancedPlanner.plan(structuredQuery, params);
+            } catch (IllegalArgumentException ex) {
+                statusLabel.setText("Query error: " + ex.getMessage());
+                statusLabel.getStyleClass().removeAll("md-status-success", "md-status-info");
+                statusLabel.getStyleClass().add("md-status-error");
+                return;
+            }
+        }
+        currentStructuredQuery = structuredQuery;
+        currentSearchParams = params;
+        unfilteredSearchParams = params;
+        currentPage = 1;
+        clearResultWindow();
+
+        // A narrower AND query can only drop rows, so show the rows it cannot match dropped while
+        // the server confirms; when no row can be ruled out locally this is an ordinary search
+        if (structuredQuery == null && lastResultParams != null && lastResultParams.page == 1
+                && SearchRefinement.isNarrowing(lastResultParams, currentSearchParams)) {
+            List<JSONObject> refined = SearchRefinement.refine(lastResultRows, lastResultParams, currentSearchParams);
+            if (refined.size() < lastResultRows.size()) {
+                showRows(refined.subList(0, Math.min(refined.size(), currentSearchParams.perPage)));
+                statusLabel.setText(String.format("Refined locally to %d of %d row(s) - confirming with server...",
+                        refined.size(), lastResultRows.size()));
+                performSearchWithParams(currentSearchParams, false, !live);
+                return;
+            }
+        }
+
+        performSearchWithParams(currentSearchParams, true, !live);
+    }
+
+    private HttpClientUtil.SearchParameters collectSearchParams() {
+        HttpClientUtil.SearchParameters params = new HttpClientUtil.SearchParameters();
+        params.query = searchField.getText().trim();
+        params.page = 1;
+        params.perPage = perPageSpinner.getValue();
 
         if (dateFromPicker.getValue() != null) {
-            currentSearchParams.dateFrom = dateFromPicker.getValue().toString();
+            params.dateFrom = dateFromPicker.getValue().toString();
         }
         if (dateToPicker.getValue() != null) {
-            currentSearchParams.dateTo = dateToPicker.getValue().toString();
+            params.dateTo = dateToPicker.getValue().toString();
         }
 
-        currentSearchParams.sortBy = sortByCombo.getValue();
-        currentSearchParams.sortOrder = sortOrderCombo.getValue();
-        currentSearchParams.logic = logicCombo.getValue();
+        params.sortBy = sortByCombo.getValue();
+        params.sortOrder = sortOrderCombo.getValue();
+        params.logic = logicCombo.getValue();
+        return params;
+    }
 
-        currentPage = 1;
-        performSearchWithParams(currentSearchParams);
+    private void loadAutocomplete() {
+        // The cached vocabulary is parsed off the FX thread; a changed server copy replaces it later
+        Thread loader = new Thread(() -> optionsCache.loadIndexes(serverUrl, result -> {
+            if (result.errorMessage == null) {
+                autocompleteIndex = AutocompleteIndex.build(result.indexesData);
+            }
+        }), "autocomplete-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void updateSuggestions(String text) {
+        String term = AutocompleteIndex.currentTerm(text);
+        List<AutocompleteIndex.Suggestion> suggestions = autocompleteIndex.suggest(term, MAX_SUGGESTIONS);
+        if (suggestions.isEmpty() || (suggestions.size() == 1 && suggestions.get(0).value.equalsIgnoreCase(term))) {
+            suggestionsMenu.hide();
+            return;
+        }
+
+        List<MenuItem> items = new ArrayList<>();
+        for (AutocompleteIndex.Suggestion suggestion : suggestions) {
+            MenuItem item = new MenuItem(suggestion.toString());
+            item.setOnAction(e -> applySuggestion(suggestion.value));
+            items.add(item);
+        }
+        suggestionsMenu.getItems().setAll(items);
+        if (!suggestionsMenu.isShowing()) {
+            suggestionsMenu.show(searchField, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    private void applySuggestion(String value) {
+        applyingSuggestion = true;
+        searchField.setText(AutocompleteIndex.completeQuery(searchField.getText(), value));
+        searchField.positionCaret(searchField.getText().length());
+        applyingSuggestion = false;
+
+        suggestionsMenu.hide();
+        searchDebounce.stop();
+        performSearch();
+    }
+
+    public void setSearchDebounceMillis(int millis) {
+        searchDebounce.setDuration(Duration.millis(millis));
     }
 
     private void performSearchWithCurrentParams() {
         if (currentSearchParams != null) {
             currentSearchParams.page = currentPage;
             currentSearchParams.perPage = perPageSpinner.getValue(); // Ensure current per-page value
+            if (canServeFromWindow(currentPage)) {
+                showWindowPage(currentPage);
+                return;
+            }
             performSearchWithParams(currentSearchParams);
         }
     }
 
+    // True when the rows for the page are already in the window, or the window is all there is
+    private boolean canServeFromWindow(int page) {
+        if (resultWindow == null) {
+            return false;
+        }
+        return isWindowViewFinal() || (long) page * perPageSpinner.getValue() <= windowView.length;
+    }
+
+    // The filtered window is the whole answer when it holds every result, or when a chip the
+    // server cannot express was applied to the window alone
+    private boolean isWindowViewFinal() {
+        return resultWindow.isComplete() || (!facetFilters.isEmpty() && !windowFilteredOnServer);
+    }
+
+    private void resortResults() {
+        if (currentSearchParams == null) {
+            return;
+        }
+        currentSearchParams.sortBy = sortByCombo.getValue();
+        currentSearchParams.sortOrder = sortOrderCombo.getValue();
+        unfilteredSearchParams.sortBy = currentSearchParams.sortBy;
+        unfilteredSearchParams.sortOrder = currentSearchParams.sortOrder;
+        currentPage = 1;
+        if (resultWindow != null && isWindowViewFinal()) {
+            showWindowPage(1);
+            statusLabel.setText(String.format("Re-sorted %d result(s) locally", windowView.length));
+            return;
+        }
+        currentSearchParams.page = 1;
+        resultWindow = null;
+        performSearchWithParams(currentSearchParams);
+    }
+
+    private void toggleFacet(ResultWindow.Facet facet, String value) {
+        if (value.equals(facetFilters.get(facet))) {
+            facetFilters.remove(facet);
+        } else {
+            facetFilters.put(facet, value);
+        }
+        currentPage = 1;
+
+        if (resultWindow.isComplete() && !windowFilteredOnServer) {
+            showWindowPage(1);
+            return;
+        }
+
+        // The window is a prefix of a larger result set, so counts from it are not the answer
+        HttpClientUtil.SearchParameters params = facetFilters.isEmpty() ? unfilteredSearchParams
+                : ResultWindow.applyToServer(unfilteredSearchParams, facetFilters);
+        if (params == null && !windowFilteredOnServer) {
+            showWindowPage(1);
+            return;
+        }
+        if (params == null) {
+            // Back to the unfiltered search; the chips are then applied to its window
+            params = unfilteredSearchParams;
+        }
+        currentSearchParams = new HttpClientUtil.SearchParameters(params);
+        currentSearchParams.page = 1;
+        windowFilteredOnServer = params != unfilteredSearchParams;
+        resultWindow = null;
+        performSearchWithParams(currentSearchParams);
+    }
+
     private void performSearchWithParams(HttpClientUtil.SearchParameters params) {
-        statusLabel.setText("Searching...");
+        performSearchWithParams(params, true, true);
+    }
+
+    private void performSearchWithParams(HttpClientUtil.SearchParameters params, boolean showSearchingStatus,
+                                         boolean fillWindow) {
+        if (showSearchingStatus) {
+            statusLabel.setText("Searching...");
+        }
         statusLabel.getStyleClass().removeAll("md-status-success", "md-status-error");
         statusLabel.getStyleClass().add("md-status-info");
 
         // Disable pagination controls during search
         setSearchingState(true);
 
+        // Abort the request a newer search supersedes; its response would be discarded anyway
+        if (activeSearchHandle != null) {
+            activeSearchHandle.cancel();
+        }
+        HttpClientUtil.RequestHandle handle = new HttpClientUtil.RequestHandle();
+        activeSearchHandle = handle;
+        int generation = ++searchGeneration;
+        HttpClientUtil.SearchParameters requestParams = new HttpClientUtil.SearchParameters(params);
+        // Chips applied to the window alone (e.g. kept across a refresh) need it before anything is shown
+        boolean windowNeeded = requestParams.page == 1 && !facetFilters.isEmpty() && !windowFilteredOnServer;
+        if (windowNeeded) {
+            requestParams.perPage = RESULT_WINDOW_SIZE;
+        }
+        boolean fillAfterPage = fillWindow && requestParams.page == 1 && !windowNeeded;
+        if (requestParams.page == 1) {
+            // A new first page replaces the results any pending window was for
+            windowFillGeneration++;
+            if (windowFillHandle != null) {
+                windowFillHandle.cancel();
+                windowFillHandle = null;
+            }
+        }
+        int windowGeneration = windowFillGeneration;
+        StructuredQuery structuredQuery = currentStructuredQuery;
+        boolean localOnly = localOnlyCheckBox.isSelected();
+
         Task<HttpClientUtil.SearchResult> task = new Task<>() {
             @Override
             protected HttpClientUtil.SearchResult call() {
-                return HttpClientUtil.searchCVs(serverUrl, params);
+                return runSearch(requestParams, structuredQuery, localOnly, handle);
             }
         };
 
         task.setOnSucceeded(e -> {
+            if (generation != searchGeneration) {
+                return;
+            }
             HttpClientUtil.SearchResult result = task.getValue();
             if (result.errorMessage != null) {
                 statusLabel.setText("Search failed: " + result.errorMessage);
@@ -535,12 +1180,18 @@ public class MaterialSearchPanel extends ScrollPane {
                 tableData.clear();
                 resetPagination();
             } else {
-                displayResults(result.jsonResponse);
+                displayResults(result.jsonResponse, requestParams);
+                if (fillAfterPage && resultWindow == null) {
+                    fillResultWindow(requestParams, structuredQuery, localOnly, windowGeneration);
+                }
             }
             setSearchingState(false);
         });
 
         task.setOnFailed(e -> {
+            if (generation != searchGeneration) {
+                return;
+            }
             statusLabel.setText("Search failed");
             statusLabel.getStyleClass().removeAll("md-status-success", "md-status-info");
             statusLabel.getStyleClass().add("md-status-error");
@@ -553,6 +1204,50 @@ public class MaterialSearchPanel extends ScrollPane {
         new Thread(task).start();
     }
 
+    private HttpClientUtil.SearchResult runSearch(HttpClientUtil.SearchParameters params, StructuredQuery structuredQuery,
+                                                  boolean localOnly, HttpClientUtil.RequestHandle handle) {
+        if (structuredQuery != null) {
+            return advancedPlanner.search(serverUrl, structuredQuery, params, handle);
+        }
+        if (localOnly) {
+            return localIndex.search(params);
+        }
+        HttpClientUtil.SearchResult result = HttpClientUtil.searchCVs(serverUrl, params, handle);
+        return fallBackToMirror(result, params);
+    }
+
+    // Fetches the window behind the first page already shown, then offers its facet chips; the page stays as it is
+    private void fillResultWindow(HttpClientUtil.SearchParameters params, StructuredQuery structuredQuery,
+                                  boolean localOnly, int generation) {
+        HttpClientUtil.SearchParameters windowParams = new HttpClientUtil.SearchParameters(params);
+        windowParams.page = 1;
+        windowParams.perPage = RESULT_WINDOW_SIZE;
+        HttpClientUtil.RequestHandle handle = new HttpClientUtil.RequestHandle();
+        windowFillHandle = handle;
+
+        Task<HttpClientUtil.SearchResult> task = new Task<>() {
+            @Override
+            protected HttpClientUtil.SearchResult call() {
+                return runSearch(windowParams, structuredQuery, localOnly, handle);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            HttpClientUtil.SearchResult result = task.getValue();
+            if (generation != windowFillGeneration || result.errorMessage != null) {
+                return;
+            }
+            windowFillHandle = null;
+            try {
+                resultWindow = ResultWindow.fromResponse(new JSONObject(result.jsonResponse));
+            } catch (Exception ex) {
+                return;
+            }
+            selectWindowView();
+            updateFacetChips();
+        });
+        new Thread(task).start();
+    }
+
     private void setSearchingState(boolean searching) {
         searchButton.setDisable(searching);
         prevButton.setDisable(searching);
@@ -560,8 +1255,11 @@ public class MaterialSearchPanel extends ScrollPane {
         pageInputField.setDisable(searching);
     }
 
-    private void displayResults(String jsonResponse) {
+    // params is null for results that did not come from a search (e.g. recent uploads)
+    private void displayResults(String jsonResponse, HttpClientUtil.SearchParameters params) {
         tableData.clear();
+        lastResultRows = new ArrayList<>();
+        lastResultParams = null;
 
         try {
             JSONObject responseObj = new JSONObject(jsonResponse);
@@ -570,19 +1268,38 @@ public class MaterialSearchPanel extends ScrollPane {
             totalResults = responseObj.optInt("total", 0);
 
             for (int i = 0; i < resultsArray.length(); i++) {
-                JSONObject item = resultsArray.getJSONObject(i);
-                tableData.add(new SearchResultItem(
-                        item.getString("id"),
-                        item.optString("name", "N/A"),
-                        item.optString("email", "N/A"),
-                        item.optString("phone", "N/A"),
-                        item.optString("filename", "N/A"),
-                        item.optString("upload_date", "N/A")
-                ));
+                lastResultRows.add(resultsArray.getJSONObject(i));
+            }
+            lastResultParams = params;
+            // A first page holding every result is the whole window already
+            if (params != null && params.page == 1
+                    && (params.perPage >= RESULT_WINDOW_SIZE || resultsArray.length() >= totalResults)) {
+                resultWindow = ResultWindow.fromResponse(responseObj);
+                showWindowPage(1);
+            } else {
+                if (params == null) {
+                    clearResultWindow();
+                } else if (params.page == 1) {
+                    // The chips come back once the window is filled
+                    resultWindow = null;
+                    windowView = new int[0];
+                    updateFacetChips();
+                }
+                showRows(lastResultRows);
             }
 
             // Update status labels
-            statusLabel.setText(String.format("Found %d result(s)", totalResults));
+            if (resultWindow != null && params != null && params.page == 1 && !facetFilters.isEmpty() && !windowFilteredOnServer) {
+                statusLabel.setText(String.format("%d result(s) match the selected filters within the first %d of %d",
+                        windowView.length, resultWindow.size(), resultWindow.getTotalResults()));
+            } else if ("local".equals(responseObj.optString("source"))) {
+                statusLabel.setText(String.format("Found %d result(s) in local mirror (%s)", totalResults, describeMirrorAge()));
+            } else if (responseObj.has("merged_requests")) {
+                statusLabel.setText(String.format("Found %d result(s), merged from %d searches",
+                        totalResults, responseObj.getInt("merged_requests")));
+            } else {
+                statusLabel.setText(String.format("Found %d result(s)", totalResults));
+            }
             statusLabel.getStyleClass().removeAll("md-status-error", "md-status-info");
             statusLabel.getStyleClass().add("md-status-success");
 
@@ -597,6 +1314,131 @@ public class MaterialSearchPanel extends ScrollPane {
         }
     }
 
+    /**
+     * Shows one page of the window: filtered by the chips, re-sorted locally once the window
+     * holds every result (until then the server's order is kept so later pages line up).
+     */
+    private void showWindowPage(int page) {
+        boolean localSort = selectWindowView();
+
+        int perPage = perPageSpinner.getValue();
+        totalResults = localSort ? windowView.length : resultWindow.getTotalResults();
+        totalPages = Math.max(1, (totalResults + perPage - 1) / perPage);
+        currentPage = Math.min(page, totalPages);
+        int from = (currentPage - 1) * perPage;
+        showRows(resultWindow.toRows(windowView, from, from + perPage));
+        updatePaginationControls();
+        updateFacetChips();
+    }
+
+    // Filters and sorts the window into windowView; true when it was sorted locally
+    private boolean selectWindowView() {
+        boolean localSort = isWindowViewFinal();
+        windowView = resultWindow.select(windowFilteredOnServer ? null : facetFilters,
+                localSort ? currentSearchParams.sortBy : null, "desc".equalsIgnoreCase(currentSearchParams.sortOrder));
+        return localSort;
+    }
+
+    private void updateFacetChips() {
+        facetsBox.getChildren().clear();
+        boolean show = resultWindow != null && resultWindow.size() > 0;
+        facetsBox.setVisible(show);
+        facetsBox.setManaged(show);
+        if (!show) {
+            return;
+        }
+
+        for (ResultWindow.Facet facet : ResultWindow.Facet.values()) {
+            String selected = facetFilters.get(facet);
+            Map<String, Integer> counts = resultWindow.facetCounts(facet, windowView);
+            if (counts.size() < 2 && selected == null) {
+                continue;  // one value everywhere does not narrow anything
+            }
+
+            HBox row = new HBox();
+            row.setAlignment(Pos.CENTER_LEFT);
+            row.getStyleClass().add("md-spacing-12");
+            Label label = new Label(facet.label + ":");
+            label.getStyleClass().add("md-body-medium");
+            label.setMinWidth(100);
+            row.getChildren().add(label);
+
+            int shown = 0;
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                if (shown++ >= MAX_FACET_CHIPS && !entry.getKey().equals(selected)) {
+                    continue;
+                }
+                Button chip = new Button(entry.getKey() + " (" + entry.getValue() + ")");
+                chip.getStyleClass().addAll("md-button",
+                        entry.getKey().equals(selected) ? "md-button-filled" : "md-button-outlined");
+                chip.setOnAction(e -> toggleFacet(facet, entry.getKey()));
+                row.getChildren().add(chip);
+            }
+            facetsBox.getChildren().add(row);
+        }
+
+        if (!resultWindow.isComplete() && !windowFilteredOnServer) {
+            Label note = new Label(String.format("Counts cover the first %d of %d results", resultWindow.size(),
+                    resultWindow.getTotalResults()));
+            note.getStyleClass().add("md-body-small");
+            facetsBox.getChildren().add(note);
+        }
+    }
+
+    private void clearResultWindow() {
+        resultWindow = null;
+        windowView = new int[0];
+        facetFilters.clear();
+        windowFilteredOnServer = false;
+        updateFacetChips();
+    }
+
+    private void showRows(List<JSONObject> rows) {
+        showRows(SearchResultRows.fromObjects(rows));
+    }
+
+    // One bulk setAll so the table sees a single change instead of one per row
+    private void showRows(SearchResultRows page) {
+        List<SearchResultItem> items = new ArrayList<>(page.size());
+        for (int row = 0; row < page.size(); row++) {
+            items.add(new SearchResultItem(page, row));
+        }
+        tableData.setAll(items);
+    }
+
+    // Only connection failures fall back; server-side errors are still reported as such
+    private HttpClientUtil.SearchResult fallBackToMirror(HttpClientUtil.SearchResult result,
+                                                         HttpClientUtil.SearchParameters params) {
+        if (result.errorMessage != null && result.errorMessage.startsWith("Network Error")
+                && localIndex.isAvailable() && localIndex.getLastSyncMillis() > 0) {
+            return localIndex.search(params);
+        }
+        return result;
+    }
+
+    private void startMirrorSync() {
+        if (!localIndex.isAvailable()) {
+            return;
+        }
+        mirrorSyncExecutor.scheduleWithFixedDelay(() -> {
+            // Periodically page through everything so deleted CVs drop out of the mirror
+            boolean fullResync = mirrorSyncCount++ % MIRROR_FULL_RESYNC_EVERY == 0 && localIndex.getLastSyncMillis() > 0;
+            LocalCVIndex.SyncResult result = localIndex.sync(fullResync, null);
+            if (result.errorMessage != null) {
+                System.err.println("Local CV mirror sync failed: " + result.errorMessage);
+            }
+        }, 5, MIRROR_SYNC_INTERVAL_MINUTES * 60, TimeUnit.SECONDS);
+    }
+
+    private String describeMirrorAge() {
+        long lastSync = localIndex.getLastSyncMillis();
+        if (lastSync == 0) {
+            return "never synced";
+        }
+        long minutes = (System.currentTimeMillis() - lastSync) / 60000;
+        return minutes < 1 ? "synced just now" : "synced " + minutes + " min ago";
+    }
+
     private void updatePaginationControls() {
         prevButton.setDisable(currentPage <= 1);
         nextButton.setDisable(currentPage >= totalPages);
@@ -622,6 +1464,9 @@ public class MaterialSearchPanel extends ScrollPane {
     }
 
     private void clearAllFilters() {
+        // Cleared first so resetting the sort combos does not re-sort the old results
+        currentSearchParams = null;
+        clearResultWindow();
         searchField.clear();
         dateFromPicker.setValue(null);
         dateToPicker.setValue(null);
@@ -632,7 +1477,9 @@ public class MaterialSearchPanel extends ScrollPane {
         perPageSpinner.getValueFactory().setValue(10);
 
         currentPage = 1;
-        currentSearchParams = null;
+        currentStructuredQuery = null;
+        lastResultParams = null;
+        lastResultRows = new ArrayList<>();
         tableData.clear();
         resetPagination();
 
@@ -643,6 +1490,14 @@ public class MaterialSearchPanel extends ScrollPane {
     }
 
     public void refresh() {
+        // Also picks up the autocomplete vocabulary on first load
+        loadAutocomplete();
+        advancedPlanner.clearMergedResults();
+        if (resultWindow != null) {
+            // Refetch the window; the chips stay and are re-applied to the fresh rows
+            resultWindow = null;
+            currentPage = 1;
+        }
         if (currentSearchParams != null) {
             performSearchWithCurrentParams();
         } else {
@@ -654,7 +1509,12 @@ public class MaterialSearchPanel extends ScrollPane {
             Task<HttpClientUtil.SearchResult> task = new Task<>() {
                 @Override
                 protected HttpClientUtil.SearchResult call() {
-                    return HttpClientUtil.getRecentUploads(serverUrl, 30, currentPage, perPageSpinner.getValue());
+                    HttpClientUtil.SearchResult result = HttpClientUtil.getRecentUploads(serverUrl, 30, currentPage, perPageSpinner.getValue());
+                    HttpClientUtil.SearchParameters recentParams = new HttpClientUtil.SearchParameters();
+                    recentParams.dateFrom = LocalDate.now().minusDays(30).toString();
+                    recentParams.page = currentPage;
+                    recentParams.perPage = perPageSpinner.getValue();
+                    return fallBackToMirror(result, recentParams);
                 }
             };
 
@@ -666,7 +1526,7 @@ public class MaterialSearchPanel extends ScrollPane {
                     statusLabel.getStyleClass().add("md-status-error");
                     totalResultsLabel.setText("");
                 } else {
-                    displayResults(result.jsonResponse);
+                    displayResults(result.jsonResponse, null);
                 }
             });
 
@@ -674,28 +1534,25 @@ public class MaterialSearchPanel extends ScrollPane {
         }
     }
 
+    // A row view over the flattened page; cell properties are only created for cells the table renders
     public static class SearchResultItem {
-        private final SimpleStringProperty id;
-        private final SimpleStringProperty name;
-        private final SimpleStringProperty email;
-        private final SimpleStringProperty phone;
-        private final SimpleStringProperty filename;
-        private final SimpleStringProperty uploadDate;
-
-        public SearchResultItem(String id, String name, String email, String phone, String filename, String uploadDate) {
-            this.id = new SimpleStringProperty(id);
-            this.name = new SimpleStringProperty(name);
-            this.email = new SimpleStringProperty(email);
-            this.phone = new SimpleStringProperty(phone);
-            this.filename = new SimpleStringProperty(filename);
-            this.uploadDate = new SimpleStringProperty(uploadDate);
-        }
-
-        public String getId() { return id.get(); }
-        public String getName() { return name.get(); }
-        public String getEmail() { return email.get(); }
-        public String getPhone() { return phone.get(); }
-        public String getFilename() { return filename.get(); }
-        public String getUploadDate() { return uploadDate.get(); }
-    }
-}
\ No newline at end of file
+        private final SearchResultRows rows;
+        private final int row;
+
+        SearchResultItem(SearchResultRows rows, int row) {
+            this.rows = rows;
+            this.row = row;
+        }
+
+        ReadOnlyStringWrapper property(int column) {
+            return new ReadOnlyStringWrapper(this, SearchResultRows.FIELDS[column], rows.get(row, column));
+        }
+
+        public String getId() { return rows.get(row, SearchResultRows.ID); }
+        public String getName() { return rows.get(row, SearchResultRows.NAME); }
+        public String getEmail() { return rows.get(row, SearchResultRows.EMAIL); }
+        public String getPhone() { return rows.get(row, SearchResultRows.PHONE); }
+        public String getFilename() { return rows.get(row, SearchResultRows.FILENAME); }
+        public String getUploadDate() { return rows.get(row, SearchResultRows.UPLOAD_DATE); }
+    }
+}
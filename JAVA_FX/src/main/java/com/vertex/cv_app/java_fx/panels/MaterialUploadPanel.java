@@ -629,7 +629,9 @@ public class MaterialUploadPanel extends StackPane {
         Task<HttpClientUtil.UploadResult> task = new Task<>() {
             @Override
             protected HttpClientUtil.UploadResult call() {
-                return HttpClientUtil.uploadFilesWithToken(serverUrl, selectedFiles, token);
+                return parentApp.callWithToken(serverUrl,
+                        t -> HttpClientUtil.uploadFilesWithToken(serverUrl, selectedFiles, t),
+                        r -> r.statusCode);
             }
         };
 
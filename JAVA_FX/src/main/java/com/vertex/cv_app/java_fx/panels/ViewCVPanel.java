@@ -1,7 +1,9 @@
 package com.vertex.cv_app.java_fx.panels;
 
 import com.vertex.cv_app.java_fx.CV_APP;
+import com.vertex.cv_app.utils.CVDetailCache;
 import com.vertex.cv_app.utils.HttpClientUtil;
+import com.vertex.cv_app.utils.RetryPolicy;
 import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -717,7 +719,7 @@ public class ViewCVPanel extends VBox {
         Task<HttpClientUtil.CVDetailsResult> task = new Task<>() {
             @Override
             protected HttpClientUtil.CVDetailsResult call() {
-                return HttpClientUtil.getCVDetails(serverUrl, cvId);
+                return parentApp.getCVDetailCache(serverUrl).get(cvId, CVDetailCache.VIEW_FIELDS);
             }
         };
 
@@ -942,10 +944,26 @@ public class ViewCVPanel extends VBox {
                 return;
             }
 
+            // One id for every attempt of this save, including a retry with a renewed token
+            String requestId = RetryPolicy.newRequestId();
+            CVDetailCache cvDetails = parentApp.getCVDetailCache(serverUrl);
             Task<HttpClientUtil.UpdateResult> updateTask = new Task<>() {
                 @Override
                 protected HttpClientUtil.UpdateResult call() {
-                    return HttpClientUtil.updateCVData(serverUrl, currentCvId, currentCvData.toString(), token);
+                    // The panel loads only the fields it shows, but the update still carries the whole CV
+                    HttpClientUtil.CVDetailsResult full = cvDetails.get(currentCvId, null);
+                    if (full.errorMessage != null) {
+                        return new HttpClientUtil.UpdateResult(false, "Could not load the full CV: " + full.errorMessage);
+                    }
+                    JSONObject update = new JSONObject(full.jsonResponse);
+                    for (String key : currentCvData.keySet()) {
+                        update.put(key, currentCvData.get(key));
+                    }
+                    HttpClientUtil.UpdateResult result = parentApp.callWithToken(serverUrl,
+                            t -> HttpClientUtil.updateCVData(serverUrl, currentCvId, update.toString(), t, requestId),
+                            r -> r.statusCode);
+                    cvDetails.invalidate(currentCvId);
+                    return result;
                 }
             };
 
@@ -980,16 +998,20 @@ public class ViewCVPanel extends VBox {
 
         Optional<ButtonType> result = confirm.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
+            String requestId = RetryPolicy.newRequestId();
             Task<HttpClientUtil.DeleteResult> deleteTask = new Task<>() {
                 @Override
                 protected HttpClientUtil.DeleteResult call() {
-                    return HttpClientUtil.deleteCV(serverUrl, currentCvId, token);
+                    return parentApp.callWithToken(serverUrl,
+                            t -> HttpClientUtil.deleteCV(serverUrl, currentCvId, t, requestId),
+                            r -> r.statusCode);
                 }
             };
 
             deleteTask.setOnSucceeded(e -> {
                 HttpClientUtil.DeleteResult deleteResult = deleteTask.getValue();
                 if (deleteResult.success) {
+                    parentApp.getCVDetailCache(serverUrl).invalidate(currentCvId);
                     showMaterialSuccess("CV Deleted", "CV has been deleted successfully.");
                     parentApp.showView(CV_APP.SEARCH_VIEW);
                 } else {
@@ -1,6 +1,7 @@
 package com.vertex.cv_app.java_fx.view;
 
 import com.vertex.cv_app.java_fx.CV_APP;
+import com.vertex.cv_app.utils.CVDetailCache;
 import com.vertex.cv_app.utils.HttpClientUtil;
 import javafx.concurrent.Task;
 import javafx.geometry.Insets;
@@ -306,7 +307,7 @@ public class MaterialRawView extends StackPane {
         Task<HttpClientUtil.CVDetailsResult> task = new Task<>() {
             @Override
             protected HttpClientUtil.CVDetailsResult call() {
-                return HttpClientUtil.getCVDetails(serverUrl, cvId);
+                return parentApp.getCVDetailCache(serverUrl).get(cvId, CVDetailCache.RAW_TEXT_FIELDS);
             }
         };
 
@@ -38,6 +38,8 @@ import java.time.format.DateTimeFormatter;
     public static final String AUDIT_LOG_VIEW = "AuditLogView";
 
     private static final String SERVER_BASE_URL = "http://13.250.35.49:8000";
+    // Tokens are stored per server, as in the JavaFX client
+    private static final String ACCESS_TOKEN_TYPE = JWTTokenManager.serverTokenType("access_token", SERVER_BASE_URL);
 
     public CV_APP() {
         initialize();
@@ -104,7 +106,7 @@ import java.time.format.DateTimeFormatter;
         frame.setVisible(true);
 
         showView(SEARCH_VIEW);
-        String retrievedToken = jwtTokenManager.getToken("access_token");
+        String retrievedToken = jwtTokenManager.getToken(ACCESS_TOKEN_TYPE);
         if(retrievedToken != null) setJwtToken(retrievedToken);
         else updateAuthUI();
     }
@@ -147,7 +149,7 @@ import java.time.format.DateTimeFormatter;
         String expiresAt = LocalDateTime.now().plusDays(30)
                 .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
         this.jwtToken = token;
-        jwtTokenManager.saveNewToken("access_token", token, expiresAt);
+        jwtTokenManager.saveNewToken(ACCESS_TOKEN_TYPE, token, expiresAt);
         updateAuthUI();
         if (uploadPanel != null) {
             uploadPanel.setToken(token);
@@ -203,7 +205,7 @@ import java.time.format.DateTimeFormatter;
         if (result == JOptionPane.YES_OPTION) {
             this.jwtToken = null;
             updateAuthUI();
-            jwtTokenManager.clearAllTokens();
+            jwtTokenManager.deactivateTokens(ACCESS_TOKEN_TYPE);
             JOptionPane.showMessageDialog(frame, "You have been logged out.", "Logout", JOptionPane.INFORMATION_MESSAGE);
         }
     }
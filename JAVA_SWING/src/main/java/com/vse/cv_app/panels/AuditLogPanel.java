@@ -2,6 +2,9 @@ package com.vse.cv_app.panels;
 
 import com.vse.cv_app.CV_APP;
 import com.vse.cv_app.panels.dialog.AuditDetailDialog;
+import com.vse.cv_app.utils.AuditDetailCache;
+import com.vse.cv_app.utils.AuditSearchIndex;
+import com.vse.cv_app.utils.FilterOptionsCache;
 import com.vse.cv_app.utils.HttpClientUtil;
 import org.json.JSONObject;
 
@@ -19,14 +22,20 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class AuditLogPanel extends JPanel {
 
     private CV_APP mainApp;
     private String serverUrl;
     private JTable logTable;
+    private JScrollPane logScrollPane;
     private LogTableModel tableModel;
+    private AuditDetailCache detailCache;
+    private FilterOptionsCache filterOptionsCache;
+    private final AuditSearchIndex searchIndex = new AuditSearchIndex();
 
     // Control buttons
     private JButton refreshButton;
@@ -46,6 +55,12 @@ public class AuditLogPanel extends JPanel {
     private JButton last7DaysButton;
     private JButton last30DaysButton;
 
+    // Local full-text search over indexed logs
+    private JTextField searchField;
+    private JButton searchButton;
+    private JButton indexAllButton;
+    private SwingWorker<Integer, Integer> indexSyncWorker;
+
     // Status and pagination
     private JLabel pageLabel;
     private JLabel statusLabel;
@@ -56,10 +71,14 @@ public class AuditLogPanel extends JPanel {
     private int totalLogs = 0;
 
     private static final int LOGS_PER_PAGE = 20;
+    private static final int SEARCH_RESULT_LIMIT = 500;
+    private static final int INDEX_SYNC_PAGE_SIZE = 500;
 
     public AuditLogPanel(CV_APP app, String serverUrl) {
         this.mainApp = app;
         this.serverUrl = serverUrl;
+        this.detailCache = new AuditDetailCache(serverUrl);
+        this.filterOptionsCache = new FilterOptionsCache();
         initializeComponents();
         layoutComponents();
         addEventListeners();
@@ -92,6 +111,13 @@ public class AuditLogPanel extends JPanel {
         last7DaysButton = new JButton("Last 7 Days");
         last30DaysButton = new JButton("Last 30 Days");
 
+        // Search controls
+        searchField = new JTextField(30);
+        searchField.setToolTipText("Search loaded logs: terms must all match, use \"quotes\" for phrases");
+        searchButton = new JButton("Search");
+        indexAllButton = new JButton("Index All Logs");
+        indexAllButton.setToolTipText("Download every audit log in the background so search covers all of them");
+
         // Status labels
         pageLabel = new JLabel("Page 1 of 1");
         statusLabel = new JLabel("Click on a row to view full audit details");
@@ -123,8 +149,8 @@ public class AuditLogPanel extends JPanel {
         add(topPanel, BorderLayout.NORTH);
 
         // Center panel with table
-        JScrollPane scrollPane = new JScrollPane(logTable);
-        add(scrollPane, BorderLayout.CENTER);
+        logScrollPane = new JScrollPane(logTable);
+        add(logScrollPane, BorderLayout.CENTER);
 
         // Bottom panel with navigation and actions
         JPanel bottomPanel = createBottomPanel();
@@ -160,8 +186,19 @@ public class AuditLogPanel extends JPanel {
         statusPanel.add(Box.createHorizontalStrut(20));
         statusPanel.add(filterStatusLabel);
 
+        // Full-text search panel
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchPanel.add(new JLabel("Search:"));
+        searchPanel.add(searchField);
+        searchPanel.add(searchButton);
+        searchPanel.add(indexAllButton);
+
+        JPanel controlsPanel = new JPanel(new BorderLayout());
+        controlsPanel.add(filterControlPanel, BorderLayout.NORTH);
+        controlsPanel.add(searchPanel, BorderLayout.SOUTH);
+
         filterPanel.add(datePanel, BorderLayout.NORTH);
-        filterPanel.add(filterControlPanel, BorderLayout.CENTER);
+        filterPanel.add(controlsPanel, BorderLayout.CENTER);
         filterPanel.add(statusPanel, BorderLayout.SOUTH);
 
         return filterPanel;
@@ -222,6 +259,10 @@ public class AuditLogPanel extends JPanel {
         last7DaysButton.addActionListener(e -> setDateRange(7, 0));
         last30DaysButton.addActionListener(e -> setDateRange(30, 0));
 
+        searchButton.addActionListener(e -> searchLogs());
+        searchField.addActionListener(e -> searchLogs());
+        indexAllButton.addActionListener(e -> toggleIndexSync());
+
         // Table selection listener
         logTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
@@ -229,6 +270,9 @@ public class AuditLogPanel extends JPanel {
             }
         });
 
+        // Prefetch details for rows scrolled into view
+        logScrollPane.getViewport().addChangeListener(e -> prefetchVisibleDetails());
+
         // Double-click listener
         logTable.addMouseListener(new MouseAdapter() {
             @Override
@@ -262,42 +306,50 @@ public class AuditLogPanel extends JPanel {
     }
 
     private void loadFilterOptions() {
-        SwingWorker<HttpClientUtil.FilterOptionsResult, Void> worker = new SwingWorker<HttpClientUtil.FilterOptionsResult, Void>() {
-            @Override
-            protected HttpClientUtil.FilterOptionsResult doInBackground() throws Exception {
-                return HttpClientUtil.fetchFilterOptions(serverUrl);
+        // Cached options populate the combos right away; a changed server copy replaces them later
+        filterOptionsCache.loadAuditFilterOptions(serverUrl, result -> {
+            if (SwingUtilities.isEventDispatchThread()) {
+                applyFilterOptions(result);
+            } else {
+                SwingUtilities.invokeLater(() -> applyFilterOptions(result));
             }
+        });
+    }
 
-            @Override
-            protected void done() {
-                try {
-                    HttpClientUtil.FilterOptionsResult result = get();
-                    if (result.errorMessage == null) {
-                        // Update user combo
-                        userFilterCombo.removeAllItems();
-                        userFilterCombo.addItem("All Users");
-                        if (result.users != null) {
-                            for (String user : result.users) {
-                                userFilterCombo.addItem(user);
-                            }
-                        }
-
-                        // Update action combo
-                        actionFilterCombo.removeAllItems();
-                        actionFilterCombo.addItem("All Actions");
-                        if (result.actions != null) {
-                            for (String action : result.actions) {
-                                actionFilterCombo.addItem(action);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    // Silently fail - filter options are not critical
-                }
+    private void applyFilterOptions(HttpClientUtil.FilterOptionsResult result) {
+        if (result.errorMessage != null) {
+            // Silently fail - filter options are not critical
+            return;
+        }
+
+        Object selectedUser = userFilterCombo.getSelectedItem();
+        Object selectedAction = actionFilterCombo.getSelectedItem();
+
+        // Update user combo
+        userFilterCombo.removeAllItems();
+        userFilterCombo.addItem("All Users");
+        if (result.users != null) {
+            for (String user : result.users) {
+                userFilterCombo.addItem(user);
             }
-        };
-        worker.execute();
+        }
+
+        // Update action combo
+        actionFilterCombo.removeAllItems();
+        actionFilterCombo.addItem("All Actions");
+        if (result.actions != null) {
+            for (String action : result.actions) {
+                actionFilterCombo.addItem(action);
+            }
+        }
+
+        // Keep the user's current choice when a revalidated list arrives
+        if (selectedUser != null) {
+            userFilterCombo.setSelectedItem(selectedUser);
+        }
+        if (selectedAction != null) {
+            actionFilterCombo.setSelectedItem(selectedAction);
+        }
     }
 
     private void showSelectedAuditDetails() {
@@ -313,18 +365,51 @@ public class AuditLogPanel extends JPanel {
             return;
         }
 
-        String logId = selectedLog.optString("id", null);
-        if (logId == null) {
-            // If no ID in the log, try to generate one (for backward compatibility)
-            logId = "audit_" + Math.abs(selectedLog.toString().hashCode()) % 1000000;
+        List<String> logIds = new ArrayList<>();
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            logIds.add(getLogId(tableModel.getLogAt(row)));
         }
 
-        // Show the detail dialog
+        // Show the detail dialog; Up/Down inside it steps through the rows of this page
         Frame parentFrame = (Frame) SwingUtilities.getWindowAncestor(this);
-        AuditDetailDialog detailDialog = new AuditDetailDialog(parentFrame, serverUrl, logId);
+        AuditDetailDialog detailDialog = new AuditDetailDialog(parentFrame, serverUrl, logIds, selectedRow,
+                detailCache, row -> {
+                    logTable.setRowSelectionInterval(row, row);
+                    logTable.scrollRectToVisible(logTable.getCellRect(row, 0, true));
+                });
         detailDialog.setVisible(true);
     }
 
+    private String getLogId(JSONObject log) {
+        String logId = log.optString("id", null);
+        if (logId == null) {
+            // If no ID in the log, try to generate one (for backward compatibility)
+            logId = "audit_" + Math.abs(log.toString().hashCode()) % 1000000;
+        }
+        return logId;
+    }
+
+    private void prefetchVisibleDetails() {
+        if (tableModel.getRowCount() == 0) {
+            return;
+        }
+
+        Rectangle visible = logTable.getVisibleRect();
+        int firstRow = logTable.rowAtPoint(visible.getLocation());
+        int lastRow = logTable.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        if (firstRow < 0) firstRow = 0;
+        if (lastRow < 0) lastRow = tableModel.getRowCount() - 1;
+
+        Set<String> logIds = new LinkedHashSet<>();
+        for (int row = firstRow; row <= lastRow; row++) {
+            JSONObject log = tableModel.getLogAt(row);
+            if (log != null && log.has("id")) {
+                logIds.add(log.optString("id"));
+            }
+        }
+        detailCache.prefetch(logIds);
+    }
+
     public void refreshLogs() {
         String userFilter = getSelectedFilterValue(userFilterCombo, "All Users");
         String actionFilter = getSelectedFilterValue(actionFilterCombo, "All Actions");
@@ -344,11 +429,18 @@ public class AuditLogPanel extends JPanel {
 
         updateFilterStatus(userFilter, actionFilter, startDate, endDate);
 
+        // Rows from the previous page are no longer worth prefetching
+        detailCache.cancelPrefetch();
+
         SwingWorker<HttpClientUtil.AuditLogResult, Void> worker = new SwingWorker<HttpClientUtil.AuditLogResult, Void>() {
             @Override
             protected HttpClientUtil.AuditLogResult doInBackground() throws Exception {
-                return HttpClientUtil.fetchAuditLogs(serverUrl, currentPage, LOGS_PER_PAGE,
+                HttpClientUtil.AuditLogResult result = HttpClientUtil.fetchAuditLogs(serverUrl, currentPage, LOGS_PER_PAGE,
                         userFilter, actionFilter, startDate, endDate);
+                if (result.errorMessage == null) {
+                    searchIndex.addLogs(result.logs);
+                }
+                return result;
             }
 
             @Override
@@ -362,6 +454,7 @@ public class AuditLogPanel extends JPanel {
                     } else {
                         tableModel.setLogs(result.logs);
                         updatePagination(result.page, result.totalPages, result.total);
+                        SwingUtilities.invokeLater(() -> prefetchVisibleDetails());
                     }
                 } catch (Exception e) {
                     e.printStackTrace();
@@ -374,6 +467,90 @@ public class AuditLogPanel extends JPanel {
         worker.execute();
     }
 
+    private void searchLogs() {
+        String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            refreshLogs();
+            return;
+        }
+
+        detailCache.cancelPrefetch();
+        SwingWorker<AuditSearchIndex.SearchHits, Void> worker = new SwingWorker<AuditSearchIndex.SearchHits, Void>() {
+            @Override
+            protected AuditSearchIndex.SearchHits doInBackground() throws Exception {
+                return searchIndex.search(query, SEARCH_RESULT_LIMIT);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    AuditSearchIndex.SearchHits hits = get();
+                    tableModel.setLogs(hits.logs);
+                    pageLabel.setText("Search results (" + hits.totalMatches + " matches)");
+                    prevButton.setEnabled(false);
+                    nextButton.setEnabled(false);
+                    statusLabel.setText(String.format("%,d matches in %.1f ms across %,d indexed logs%s",
+                            hits.totalMatches, hits.getElapsedMillis(), hits.indexedLogs,
+                            hits.totalMatches > hits.logs.size() ? " (showing first " + hits.logs.size() + ")" : ""));
+                    SwingUtilities.invokeLater(() -> prefetchVisibleDetails());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    statusLabel.setText("Search failed: " + e.getMessage());
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    // Pages through every audit log in the background so local search covers the full history
+    private void toggleIndexSync() {
+        if (indexSyncWorker != null && !indexSyncWorker.isDone()) {
+            indexSyncWorker.cancel(false);
+            return;
+        }
+
+        indexAllButton.setText("Stop Indexing");
+        indexSyncWorker = new SwingWorker<Integer, Integer>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                int page = 1;
+                int pages = 1;
+                while (page <= pages && !isCancelled()) {
+                    HttpClientUtil.AuditLogResult result = HttpClientUtil.fetchAuditLogs(serverUrl, page, INDEX_SYNC_PAGE_SIZE);
+                    if (result.errorMessage != null) {
+                        throw new Exception(result.errorMessage);
+                    }
+                    searchIndex.addLogs(result.logs);
+                    pages = result.totalPages;
+                    publish(searchIndex.getIndexedLogs());
+                    page++;
+                }
+                return searchIndex.getIndexedLogs();
+            }
+
+            @Override
+            protected void process(List<Integer> chunks) {
+                statusLabel.setText(String.format("Indexing audit logs... %,d indexed", chunks.get(chunks.size() - 1)));
+            }
+
+            @Override
+            protected void done() {
+                indexAllButton.setText("Index All Logs");
+                if (isCancelled()) {
+                    statusLabel.setText(String.format("Indexing stopped - %,d logs indexed", searchIndex.getIndexedLogs()));
+                    return;
+                }
+                try {
+                    statusLabel.setText(String.format("Indexed %,d audit logs (%,d terms)", get(), searchIndex.getTermCount()));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    statusLabel.setText("Indexing failed: " + e.getMessage());
+                }
+            }
+        };
+        indexSyncWorker.execute();
+    }
+
     private String getSelectedFilterValue(JComboBox<String> combo, String defaultValue) {
         String selected = (String) combo.getSelectedItem();
         return (selected == null || selected.equals(defaultValue)) ? null : selected;
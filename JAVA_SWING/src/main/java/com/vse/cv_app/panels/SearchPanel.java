@@ -1,7 +1,11 @@
 package com.vse.cv_app.panels;
 
 import com.vse.cv_app.CV_APP;
+import com.vse.cv_app.utils.AutocompleteIndex;
+import com.vse.cv_app.utils.FilterOptionsCache;
 import com.vse.cv_app.utils.HttpClientUtil;
+import com.vse.cv_app.utils.SearchExporter;
+import com.vse.cv_app.utils.SearchResultRows;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -10,10 +14,14 @@ import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.File;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
@@ -29,6 +37,7 @@ public class SearchPanel extends JPanel {
     private JButton refreshButton;
     private JButton clearFiltersButton;
     private JButton toggleFiltersButton;
+    private JButton exportButton;
     private JTable resultsTable;
     private SearchResultsTableModel tableModel;
     private JTabbedPane indexDisplayTabs;
@@ -55,25 +64,41 @@ public class SearchPanel extends JPanel {
     private int totalPages = 1;
     private HttpClientUtil.SearchParameters currentSearchParams;
 
+    // Autocomplete over the server's index vocabulary, persisted and revalidated in the background
+    private static final int MAX_SUGGESTIONS = 8;
+    private final FilterOptionsCache optionsCache = new FilterOptionsCache();
+    private volatile AutocompleteIndex autocompleteIndex = AutocompleteIndex.empty();
+    private JPopupMenu suggestionsPopup;
+    private DefaultListModel<AutocompleteIndex.Suggestion> suggestionsModel;
+    private JList<AutocompleteIndex.Suggestion> suggestionsList;
+    private String lastCompletedQuery;
+
+    // Cells are read straight from the flattened page; row objects are only built on request
     public static class SearchResultsTableModel extends AbstractTableModel {
         private final String[] columnNames = {"ID", "Name", "Email", "Phone", "Filename", "Upload Date"};
-        private List<SearchResultItem> data = new ArrayList<>();
+        private SearchResultRows rows = SearchResultRows.empty();
 
-        public void setData(List<SearchResultItem> data) {
-            this.data = data != null ? data : new ArrayList<>();
+        public void setRows(SearchResultRows rows) {
+            this.rows = rows != null ? rows : SearchResultRows.empty();
             fireTableDataChanged();
         }
 
         public SearchResultItem getItemAt(int rowIndex) {
-            if (rowIndex >= 0 && rowIndex < data.size()) {
-                return data.get(rowIndex);
+            if (rowIndex >= 0 && rowIndex < rows.size()) {
+                return new SearchResultItem(
+                        rows.get(rowIndex, SearchResultRows.ID),
+                        rows.get(rowIndex, SearchResultRows.NAME),
+                        rows.get(rowIndex, SearchResultRows.EMAIL),
+                        rows.get(rowIndex, SearchResultRows.PHONE),
+                        rows.get(rowIndex, SearchResultRows.FILENAME),
+                        rows.get(rowIndex, SearchResultRows.UPLOAD_DATE));
             }
             return null;
         }
 
         @Override
         public int getRowCount() {
-            return data.size();
+            return rows.size();
         }
 
         @Override
@@ -88,16 +113,10 @@ public class SearchPanel extends JPanel {
 
         @Override
         public Object getValueAt(int rowIndex, int columnIndex) {
-            SearchResultItem item = data.get(rowIndex);
-            switch (columnIndex) {
-                case 0: return item.id;
-                case 1: return item.name;
-                case 2: return item.email;
-                case 3: return item.phone;
-                case 4: return item.filename;
-                case 5: return item.uploadDate;
-                default: return "";
+            if (columnIndex < 0 || columnIndex >= SearchResultRows.FIELDS.length) {
+                return "";
             }
+            return rows.get(rowIndex, columnIndex);
         }
 
         @Override
@@ -157,6 +176,8 @@ public class SearchPanel extends JPanel {
         add(bottomPanel, BorderLayout.SOUTH);
 
         setupEventListeners();
+        setupAutocomplete();
+        loadAutocomplete();
     }
 
     private JPanel createSearchAndFilterPanel() {
@@ -174,6 +195,7 @@ public class SearchPanel extends JPanel {
         refreshButton = new JButton("Refresh");
         clearFiltersButton = new JButton("Clear Filters");
         toggleFiltersButton = new JButton("Show Advanced Filters");
+        exportButton = new JButton("Export Results");
 
         gbc.gridx = 0; gbc.gridy = 0; gbc.anchor = GridBagConstraints.WEST;
         basicSearchPanel.add(new JLabel("Query:"), gbc);
@@ -191,6 +213,8 @@ public class SearchPanel extends JPanel {
         basicSearchPanel.add(refreshButton, gbc);
         gbc.gridx = 7;
         basicSearchPanel.add(toggleFiltersButton, gbc);
+        gbc.gridx = 8;
+        basicSearchPanel.add(exportButton, gbc);
 
         mainPanel.add(basicSearchPanel, BorderLayout.NORTH);
 
@@ -233,7 +257,7 @@ public class SearchPanel extends JPanel {
         String[] logicOptions = {"and", "or"};
         logicCombo = new JComboBox<>(logicOptions);
 
-        perPageSpinner = new JSpinner(new SpinnerNumberModel(10, 5, 100, 5));
+        perPageSpinner = new JSpinner(new SpinnerNumberModel(10, 5, 500, 5));
 
         gbc.gridx = 0; gbc.gridy = 0; gbc.anchor = GridBagConstraints.WEST;
         filtersPanel.add(new JLabel("Date Preset:"), gbc);
@@ -318,6 +342,7 @@ public class SearchPanel extends JPanel {
         refreshButton.addActionListener(e -> refresh());
         clearFiltersButton.addActionListener(e -> clearAllFilters());
         toggleFiltersButton.addActionListener(e -> toggleFiltersVisibility());
+        exportButton.addActionListener(e -> exportSearchResults());
 
         prevPageButton.addActionListener(e -> {
             if (currentPage > 1) {
@@ -356,6 +381,120 @@ public class SearchPanel extends JPanel {
         });
     }
 
+    private void setupAutocomplete() {
+        suggestionsModel = new DefaultListModel<>();
+        suggestionsList = new JList<>(suggestionsModel);
+        suggestionsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        suggestionsList.setFocusable(false);
+        suggestionsList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                AutocompleteIndex.Suggestion selected = suggestionsList.getSelectedValue();
+                if (selected != null) {
+                    applySuggestion(selected.value);
+                }
+            }
+        });
+
+        suggestionsPopup = new JPopupMenu();
+        suggestionsPopup.setFocusable(false);
+        suggestionsPopup.add(new JScrollPane(suggestionsList));
+
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                SwingUtilities.invokeLater(() -> updateSuggestions());
+            }
+
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                SwingUtilities.invokeLater(() -> updateSuggestions());
+            }
+
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+            }
+        });
+
+        // Arrow keys move through the suggestions while typing continues in the field
+        searchField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!suggestionsPopup.isVisible()) {
+                    return;
+                }
+                int selected = suggestionsList.getSelectedIndex();
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN:
+                        suggestionsList.setSelectedIndex(Math.min(selected + 1, suggestionsModel.size() - 1));
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_UP:
+                        suggestionsList.setSelectedIndex(Math.max(selected - 1, 0));
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ENTER:
+                        if (selected >= 0) {
+                            applySuggestion(suggestionsModel.get(selected).value);
+                            e.consume();
+                        }
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        suggestionsPopup.setVisible(false);
+                        e.consume();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        });
+    }
+
+    private void loadAutocomplete() {
+        // The cached vocabulary is parsed off the EDT; a changed server copy replaces it later
+        Thread loader = new Thread(() -> optionsCache.loadIndexes(serverUrl, result -> {
+            if (result.errorMessage == null) {
+                autocompleteIndex = AutocompleteIndex.build(result.indexesData);
+            }
+        }), "autocomplete-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void updateSuggestions() {
+        // Document events are handled later, so skip the one caused by accepting a suggestion
+        if (!searchField.isShowing() || searchField.getText().equals(lastCompletedQuery)) {
+            return;
+        }
+
+        String term = AutocompleteIndex.currentTerm(searchField.getText());
+        List<AutocompleteIndex.Suggestion> suggestions = autocompleteIndex.suggest(term, MAX_SUGGESTIONS);
+        if (suggestions.isEmpty() || (suggestions.size() == 1 && suggestions.get(0).value.equalsIgnoreCase(term))) {
+            suggestionsPopup.setVisible(false);
+            return;
+        }
+
+        suggestionsModel.clear();
+        for (AutocompleteIndex.Suggestion suggestion : suggestions) {
+            suggestionsModel.addElement(suggestion);
+        }
+        suggestionsList.setVisibleRowCount(suggestions.size());
+        suggestionsPopup.setPopupSize(searchField.getWidth(),
+                suggestionsList.getPreferredScrollableViewportSize().height + 6);
+        if (!suggestionsPopup.isVisible()) {
+            suggestionsPopup.show(searchField, 0, searchField.getHeight());
+        }
+        searchField.requestFocusInWindow();
+    }
+
+    private void applySuggestion(String value) {
+        lastCompletedQuery = AutocompleteIndex.completeQuery(searchField.getText(), value);
+        searchField.setText(lastCompletedQuery);
+
+        suggestionsPopup.setVisible(false);
+        performSearch();
+    }
+
     private void toggleFiltersVisibility() {
         filtersVisible = !filtersVisible;
         filtersPanel.setVisible(filtersVisible);
@@ -413,7 +552,7 @@ public class SearchPanel extends JPanel {
         currentSearchParams = new HttpClientUtil.SearchParameters();
         currentPage = 1;
 
-        tableModel.setData(null);
+        tableModel.setRows(null);
         statusArea.setText("Filters cleared. Click Search to see all results.");
         pageLabel.setText("Page: - of -");
         updatePaginationButtons();
@@ -495,7 +634,7 @@ public class SearchPanel extends JPanel {
                     HttpClientUtil.SearchResult result = get();
                     if (result.errorMessage != null) {
                         statusArea.setText("Search failed: " + result.errorMessage);
-                        tableModel.setData(null);
+                        tableModel.setRows(null);
                         pageLabel.setText("Page: - of -");
                         totalPages = 1;
                     } else {
@@ -504,7 +643,7 @@ public class SearchPanel extends JPanel {
                 } catch (Exception ex) {
                     statusArea.setText("Search failed: " + ex.getMessage());
                     ex.printStackTrace();
-                    tableModel.setData(null);
+                    tableModel.setRows(null);
                     pageLabel.setText("Page: - of -");
                     totalPages = 1;
                 } finally {
@@ -527,23 +666,14 @@ public class SearchPanel extends JPanel {
     }
 
     private void displayResults(String jsonResponse) {
-        List<SearchResultItem> items = new ArrayList<>();
+        SearchResultRows rows = SearchResultRows.empty();
         try {
             JSONObject responseObj = new JSONObject(jsonResponse);
             JSONArray resultsArray = responseObj.getJSONArray("results");
             totalPages = responseObj.optInt("total_pages", 1);
             int totalResults = responseObj.optInt("total", 0);
 
-            for (int i = 0; i < resultsArray.length(); i++) {
-                JSONObject item = resultsArray.getJSONObject(i);
-                String id = item.getString("id");
-                String name = item.optString("name", "N/A");
-                String email = item.optString("email", "N/A");
-                String phone = item.optString("phone", "N/A");
-                String filename = item.optString("filename", "N/A");
-                String uploadDate = item.optString("upload_date", "N/A");
-                items.add(new SearchResultItem(id, name, email, phone, filename, uploadDate));
-            }
+            rows = SearchResultRows.fromResults(resultsArray);
 
             StringBuilder statusMsg = new StringBuilder();
             statusMsg.append("Found ").append(totalResults).append(" result(s). ");
@@ -577,7 +707,7 @@ public class SearchPanel extends JPanel {
             pageLabel.setText("Page: - of -");
             totalPages = 1;
         }
-        tableModel.setData(items);
+        tableModel.setRows(rows);
         indexDisplayTabs.setSelectedIndex(0);
     }
 
@@ -606,6 +736,7 @@ public class SearchPanel extends JPanel {
                         clearIndexTabs();
                     } else {
                         displayIndexes(result.indexesData);
+                        autocompleteIndex = AutocompleteIndex.build(result.indexesData);
                         indexStatusArea.setText("Indexes fetched successfully.");
                     }
                 } catch (Exception ex) {
@@ -739,11 +870,94 @@ public class SearchPanel extends JPanel {
 
         if (choice == -1) return;
 
-        String format = choice == 0 ? "json" : "csv";
+        String format = choice == 0 ? SearchExporter.FORMAT_JSON : SearchExporter.FORMAT_CSV;
 
-        JOptionPane.showMessageDialog(this,
-                "Export functionality would be implemented here for " + format + " format.",
-                "Export",
-                JOptionPane.INFORMATION_MESSAGE);
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Export Search Results");
+        fileChooser.setSelectedFile(new File("cv_export_"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + "." + format));
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File target = fileChooser.getSelectedFile();
+        if (!target.getName().toLowerCase().endsWith("." + format)) {
+            target = new File(target.getAbsolutePath() + "." + format);
+        }
+
+        // Export every page of the current search, not only the one on screen
+        HttpClientUtil.SearchParameters exportParams = new HttpClientUtil.SearchParameters(currentSearchParams);
+        HttpClientUtil.RequestHandle exportHandle = new HttpClientUtil.RequestHandle();
+        File exportTarget = target;
+
+        JDialog progressDialog = new JDialog(SwingUtilities.getWindowAncestor(this), "Exporting Search Results");
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setIndeterminate(true);
+        progressBar.setStringPainted(true);
+        JLabel progressLabel = new JLabel("Starting export...");
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> {
+            cancelButton.setEnabled(false);
+            progressLabel.setText("Cancelling...");
+            exportHandle.cancel();
+        });
+
+        JPanel progressPanel = new JPanel(new BorderLayout(5, 5));
+        progressPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        progressPanel.add(progressLabel, BorderLayout.NORTH);
+        progressPanel.add(progressBar, BorderLayout.CENTER);
+        JPanel cancelPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        cancelPanel.add(cancelButton);
+        progressPanel.add(cancelPanel, BorderLayout.SOUTH);
+        progressDialog.setContentPane(progressPanel);
+        progressDialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        progressDialog.setSize(420, 140);
+        progressDialog.setLocationRelativeTo(this);
+
+        exportButton.setEnabled(false);
+        statusArea.setText("Exporting search results to " + exportTarget.getName() + "...");
+
+        SwingWorker<SearchExporter.ExportResult, SearchExporter.ExportProgress> worker =
+                new SwingWorker<SearchExporter.ExportResult, SearchExporter.ExportProgress>() {
+            @Override
+            protected SearchExporter.ExportResult doInBackground() throws Exception {
+                return SearchExporter.export(serverUrl, exportParams, format, exportTarget, exportHandle, this::publish);
+            }
+
+            @Override
+            protected void process(List<SearchExporter.ExportProgress> chunks) {
+                SearchExporter.ExportProgress progress = chunks.get(chunks.size() - 1);
+                if (progress.totalResults > 0) {
+                    progressBar.setIndeterminate(false);
+                    progressBar.setValue(progress.getPercent());
+                }
+                progressLabel.setText(SearchExporter.formatProgress(progress));
+            }
+
+            @Override
+            protected void done() {
+                progressDialog.dispose();
+                exportButton.setEnabled(true);
+                try {
+                    SearchExporter.ExportResult result = get();
+                    if (result.cancelled) {
+                        statusArea.setText("Export cancelled after " + result.progress.rowsWritten + " rows.");
+                    } else if (result.errorMessage != null) {
+                        statusArea.setText("Export failed: " + result.errorMessage);
+                        JOptionPane.showMessageDialog(SearchPanel.this,
+                                "Export failed: " + result.errorMessage,
+                                "Export Error", JOptionPane.ERROR_MESSAGE);
+                    } else {
+                        statusArea.setText(String.format("Exported %s to %s in %.1f s.",
+                                SearchExporter.formatProgress(result.progress), exportTarget.getAbsolutePath(),
+                                result.progress.elapsedMillis / 1000.0));
+                    }
+                } catch (Exception ex) {
+                    statusArea.setText("Export failed: " + ex.getMessage());
+                    ex.printStackTrace();
+                }
+            }
+        };
+        worker.execute();
+        progressDialog.setVisible(true);
     }
-}
\ No newline at end of file
+}
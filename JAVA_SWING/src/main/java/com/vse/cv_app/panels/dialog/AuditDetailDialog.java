@@ -1,5 +1,6 @@
 package com.vse.cv_app.panels.dialog;
 
+import com.vse.cv_app.utils.AuditDetailCache;
 import com.vse.cv_app.utils.HttpClientUtil;
 import org.json.JSONObject;
 
@@ -8,10 +9,14 @@ import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntConsumer;
 
 public class AuditDetailDialog extends JDialog {
 
@@ -20,16 +25,35 @@ public class AuditDetailDialog extends JDialog {
     private JTextArea detailsArea;
     private JButton closeButton;
     private JButton refreshButton;
+    private JButton previousButton;
+    private JButton nextButton;
+    private JLabel positionLabel;
     private JScrollPane scrollPane;
 
+    // Navigation over the rows of the page the dialog was opened from
+    private final List<String> logIds;
+    private int currentIndex;
+    private final AuditDetailCache detailCache;
+    private final IntConsumer onNavigate;
+
     public AuditDetailDialog(Frame parent, String serverUrl, String logId) {
-        super(parent, "Audit Log Details - ID: " + logId, true);
+        this(parent, serverUrl, Collections.singletonList(logId), 0, null, null);
+    }
+
+    public AuditDetailDialog(Frame parent, String serverUrl, List<String> logIds, int index,
+                             AuditDetailCache detailCache, IntConsumer onNavigate) {
+        super(parent, "Audit Log Details - ID: " + logIds.get(index), true);
         this.serverUrl = serverUrl;
-        this.logId = logId;
+        this.logIds = logIds;
+        this.currentIndex = index;
+        this.logId = logIds.get(index);
+        this.detailCache = detailCache;
+        this.onNavigate = onNavigate;
 
         initializeComponents();
         layoutComponents();
         addEventListeners();
+        addNavigationKeyBindings();
         loadAuditDetails();
 
         setSize(800, 600);
@@ -49,6 +73,11 @@ public class AuditDetailDialog extends JDialog {
 
         closeButton = new JButton("Close");
         refreshButton = new JButton("Refresh");
+        previousButton = new JButton("Previous");
+        nextButton = new JButton("Next");
+        positionLabel = new JLabel();
+        previousButton.setToolTipText("Previous log (Up arrow)");
+        nextButton.setToolTipText("Next log (Down arrow)");
     }
 
     private void layoutComponents() {
@@ -60,11 +89,21 @@ public class AuditDetailDialog extends JDialog {
         mainPanel.add(scrollPane, BorderLayout.CENTER);
         add(mainPanel, BorderLayout.CENTER);
 
+        // Navigation panel
+        JPanel navigationPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        navigationPanel.add(previousButton);
+        navigationPanel.add(positionLabel);
+        navigationPanel.add(nextButton);
+
         // Button panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         buttonPanel.add(refreshButton);
         buttonPanel.add(closeButton);
-        add(buttonPanel, BorderLayout.SOUTH);
+
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.add(navigationPanel, BorderLayout.WEST);
+        bottomPanel.add(buttonPanel, BorderLayout.EAST);
+        add(bottomPanel, BorderLayout.SOUTH);
     }
 
     private void addEventListeners() {
@@ -78,23 +117,89 @@ public class AuditDetailDialog extends JDialog {
         refreshButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                if (detailCache != null) {
+                    detailCache.invalidate(logId);
+                }
                 loadAuditDetails();
             }
         });
+
+        previousButton.addActionListener(e -> navigateTo(currentIndex - 1));
+        nextButton.addActionListener(e -> navigateTo(currentIndex + 1));
+    }
+
+    private void addNavigationKeyBindings() {
+        Action previousAction = new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                navigateTo(currentIndex - 1);
+            }
+        };
+        Action nextAction = new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                navigateTo(currentIndex + 1);
+            }
+        };
+
+        // The text area handles Up/Down itself when focused, so bind on it as well as the window
+        for (JComponent component : new JComponent[]{getRootPane(), detailsArea}) {
+            int condition = component == detailsArea ? JComponent.WHEN_FOCUSED : JComponent.WHEN_IN_FOCUSED_WINDOW;
+            component.getInputMap(condition).put(KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0), "previousLog");
+            component.getInputMap(condition).put(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), "nextLog");
+            component.getActionMap().put("previousLog", previousAction);
+            component.getActionMap().put("nextLog", nextAction);
+        }
+    }
+
+    private void navigateTo(int index) {
+        if (index < 0 || index >= logIds.size() || index == currentIndex) {
+            return;
+        }
+        currentIndex = index;
+        logId = logIds.get(index);
+        setTitle("Audit Log Details - ID: " + logId);
+        if (onNavigate != null) {
+            onNavigate.accept(index);
+        }
+        loadAuditDetails();
+    }
+
+    private void updateNavigationState() {
+        previousButton.setEnabled(currentIndex > 0);
+        nextButton.setEnabled(currentIndex < logIds.size() - 1);
+        positionLabel.setText((currentIndex + 1) + " of " + logIds.size());
     }
 
     private void loadAuditDetails() {
+        updateNavigationState();
+
+        HttpClientUtil.AuditDetailResult cached = detailCache != null ? detailCache.getIfPresent(logId) : null;
+        if (cached != null) {
+            displayAuditDetails(cached.auditLog, cached.metadata);
+            refreshButton.setEnabled(true);
+            return;
+        }
+
         detailsArea.setText("Loading audit details...");
         refreshButton.setEnabled(false);
 
+        String requestedLogId = logId;
         SwingWorker<HttpClientUtil.AuditDetailResult, Void> worker = new SwingWorker<HttpClientUtil.AuditDetailResult, Void>() {
             @Override
             protected HttpClientUtil.AuditDetailResult doInBackground() throws Exception {
-                return HttpClientUtil.fetchAuditLogById(serverUrl, logId);
+                if (detailCache != null) {
+                    return detailCache.get(requestedLogId);
+                }
+                return HttpClientUtil.fetchAuditLogById(serverUrl, requestedLogId);
             }
 
             @Override
             protected void done() {
+                // The user may have moved on to another row while this one was loading
+                if (!requestedLogId.equals(logId)) {
+                    return;
+                }
                 try {
                     HttpClientUtil.AuditDetailResult result = get();
                     if (result.errorMessage != null) {
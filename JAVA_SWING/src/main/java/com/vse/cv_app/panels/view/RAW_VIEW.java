@@ -1,6 +1,7 @@
 package com.vse.cv_app.panels.view;
 
 import com.vse.cv_app.CV_APP;
+import com.vse.cv_app.utils.CVDetailCache;
 import com.vse.cv_app.utils.HttpClientUtil;
 import org.json.JSONObject;
 import javax.swing.*;
@@ -101,7 +102,7 @@ public class RAW_VIEW extends JPanel {
         SwingWorker<HttpClientUtil.CVDetailsResult, Void> worker = new SwingWorker<HttpClientUtil.CVDetailsResult, Void>() {
             @Override
             protected HttpClientUtil.CVDetailsResult doInBackground() throws Exception {
-                return HttpClientUtil.getCVDetails(serverUrl, cvId);
+                return HttpClientUtil.getCVDetails(serverUrl, cvId, CVDetailCache.RAW_TEXT_FIELDS);
             }
 
             @Override
@@ -0,0 +1,165 @@
+package com.vse.cv_app.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches audit log details fetched with {@link HttpClientUtil#fetchAuditLogById}
+ * and prefetches them in the background for rows the user is likely to open next.
+ * Prefetching runs on a small fixed pool so a page of rows never opens more than
+ * {@code prefetchConcurrency} connections at once.
+ */
+public class AuditDetailCache {
+
+    private static final int DEFAULT_CAPACITY = 500;
+    private static final int DEFAULT_PREFETCH_CONCURRENCY = 4;
+
+    private final String serverUrl;
+    private final int capacity;
+    private final Map<String, HttpClientUtil.AuditDetailResult> entries;
+    private final Map<String, CompletableFuture<HttpClientUtil.AuditDetailResult>> inFlight = new ConcurrentHashMap<>();
+    private final List<PrefetchEntry> prefetchBatch = new ArrayList<>();
+    private final ExecutorService prefetchExecutor;
+
+    private static class PrefetchEntry {
+        final String logId;
+        final CompletableFuture<HttpClientUtil.AuditDetailResult> result;
+        Future<?> task;
+
+        PrefetchEntry(String logId, CompletableFuture<HttpClientUtil.AuditDetailResult> result) {
+            this.logId = logId;
+            this.result = result;
+        }
+    }
+
+    public AuditDetailCache(String serverUrl) {
+        this(serverUrl, DEFAULT_CAPACITY, DEFAULT_PREFETCH_CONCURRENCY);
+    }
+
+    public AuditDetailCache(String serverUrl, int capacity, int prefetchConcurrency) {
+        this.serverUrl = serverUrl;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, HttpClientUtil.AuditDetailResult> eldest) {
+                return size() > AuditDetailCache.this.capacity;
+            }
+        };
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.prefetchExecutor = Executors.newFixedThreadPool(prefetchConcurrency, r -> {
+            Thread thread = new Thread(r, "audit-prefetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public HttpClientUtil.AuditDetailResult getIfPresent(String logId) {
+        synchronized (entries) {
+            return entries.get(logId);
+        }
+    }
+
+    // Returns the cached entry, waits for a prefetch already in flight, or fetches it now
+    public HttpClientUtil.AuditDetailResult get(String logId) {
+        HttpClientUtil.AuditDetailResult cached = getIfPresent(logId);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<HttpClientUtil.AuditDetailResult> pending = inFlight.get(logId);
+        if (pending != null) {
+            try {
+                return pending.get();
+            } catch (CancellationException | ExecutionException e) {
+                // Prefetch was cancelled or failed - fall through to a direct fetch
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new HttpClientUtil.AuditDetailResult(null, null, "Interrupted while loading audit details");
+            }
+        }
+        return load(logId);
+    }
+
+    public void prefetch(Collection<String> logIds) {
+        synchronized (prefetchBatch) {
+            for (String logId : logIds) {
+                if (logId == null || getIfPresent(logId) != null || inFlight.containsKey(logId)) {
+                    continue;
+                }
+
+                PrefetchEntry entry = new PrefetchEntry(logId, new CompletableFuture<>());
+                inFlight.put(logId, entry.result);
+                entry.task = prefetchExecutor.submit(() -> {
+                    try {
+                        entry.result.complete(load(entry.logId));
+                    } catch (Throwable t) {
+                        entry.result.completeExceptionally(t);
+                    } finally {
+                        inFlight.remove(entry.logId, entry.result);
+                    }
+                });
+                prefetchBatch.add(entry);
+            }
+            prefetchBatch.removeIf(entry -> entry.result.isDone());
+        }
+    }
+
+    // Drops queued prefetches (e.g. on page change); requests already on the wire finish and are cached
+    public void cancelPrefetch() {
+        synchronized (prefetchBatch) {
+            for (PrefetchEntry entry : prefetchBatch) {
+                if (entry.task.cancel(false)) {
+                    entry.result.cancel(false);
+                    inFlight.remove(entry.logId, entry.result);
+                }
+            }
+            prefetchBatch.clear();
+        }
+    }
+
+    public void invalidate(String logId) {
+        synchronized (entries) {
+            entries.remove(logId);
+        }
+    }
+
+    public void clear() {
+        cancelPrefetch();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void shutdown() {
+        cancelPrefetch();
+        prefetchExecutor.shutdownNow();
+    }
+
+    private HttpClientUtil.AuditDetailResult load(String logId) {
+        HttpClientUtil.AuditDetailResult result = HttpClientUtil.fetchAuditLogById(serverUrl, logId);
+        if (result.errorMessage == null) {
+            synchronized (entries) {
+                entries.put(logId, result);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,387 @@
+package com.vse.cv_app.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory inverted index over the audit logs the client has downloaded, covering
+ * user, action, CV id, IP address and every value nested in the log's details.
+ * Postings are kept as delta + varint encoded byte arrays (doc id, frequency, positions),
+ * so logs are appended as they sync without rebuilding anything.
+ *
+ * <p>Queries are whitespace-separated terms, all of which must match; text in double
+ * quotes is matched as a phrase, e.g. {@code admin "cv deleted" 10.0.0.5}.</p>
+ */
+public class AuditSearchIndex {
+
+    // Keeps phrases from matching across the end of one field and the start of the next
+    private static final int FIELD_POSITION_GAP = 16;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Set<String> seenLogKeys = new HashSet<>();
+    private final List<JSONObject> documents = new ArrayList<>();
+
+    public static class SearchHits {
+        public final List<JSONObject> logs;  // in indexing order, at most the requested limit
+        public final int totalMatches;
+        public final int indexedLogs;
+        public final long elapsedNanos;
+
+        SearchHits(List<JSONObject> logs, int totalMatches, int indexedLogs, long elapsedNanos) {
+            this.logs = logs;
+            this.totalMatches = totalMatches;
+            this.indexedLogs = indexedLogs;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double getElapsedMillis() {
+            return elapsedNanos / 1_000_000.0;
+        }
+    }
+
+    // Append-only postings list: per document vint(docDelta), vint(freq), freq x vint(positionDelta)
+    private static class Postings {
+        byte[] data = new byte[8];
+        int length;
+        int docCount;
+        int lastDoc = -1;
+
+        void add(int doc, int[] positions, int count) {
+            writeVInt(doc - lastDoc);
+            writeVInt(count);
+            int previous = 0;
+            for (int i = 0; i < count; i++) {
+                writeVInt(positions[i] - previous);
+                previous = positions[i];
+            }
+            lastDoc = doc;
+            docCount++;
+        }
+
+        private void writeVInt(int value) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+
+        PostingsReader reader() {
+            return new PostingsReader(this);
+        }
+    }
+
+    private static class PostingsReader {
+        private final byte[] data;
+        private final int length;
+        private int offset;
+        private int pendingPositions;
+        int doc = -1;
+        int freq;
+
+        PostingsReader(Postings postings) {
+            this.data = postings.data;
+            this.length = postings.length;
+        }
+
+        // Advances to the next document, skipping any positions that were not read
+        boolean next() {
+            while (pendingPositions > 0) {
+                readVInt();
+                pendingPositions--;
+            }
+            if (offset >= length) {
+                return false;
+            }
+            doc += readVInt();
+            freq = readVInt();
+            pendingPositions = freq;
+            return true;
+        }
+
+        // Advances to the first document >= target
+        boolean advance(int target) {
+            while (doc < target) {
+                if (!next()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int[] positions() {
+            int[] positions = new int[pendingPositions];
+            int position = 0;
+            for (int i = 0; i < positions.length; i++) {
+                position += readVInt();
+                positions[i] = position;
+            }
+            pendingPositions = 0;
+            return positions;
+        }
+
+        private int readVInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+
+    // A single term or a quoted phrase
+    private static class Clause {
+        final String[] terms;
+
+        Clause(String[] terms) {
+            this.terms = terms;
+        }
+    }
+
+    // Returns how many of the given logs were new and therefore indexed
+    public synchronized int addLogs(List<JSONObject> logs) {
+        if (logs == null) {
+            return 0;
+        }
+
+        int added = 0;
+        Map<String, int[]> termPositions = new HashMap<>();
+        Map<String, Integer> termCounts = new HashMap<>();
+        for (JSONObject log : logs) {
+            if (!seenLogKeys.add(logKey(log))) {
+                continue;
+            }
+
+            int doc = documents.size();
+            documents.add(log);
+            termPositions.clear();
+            termCounts.clear();
+
+            List<String> fieldValues = new ArrayList<>();
+            collectValues(log, fieldValues);
+            int position = 0;
+            for (String value : fieldValues) {
+                for (String token : tokenize(value)) {
+                    int count = termCounts.getOrDefault(token, 0);
+                    int[] positions = termPositions.get(token);
+                    if (positions == null) {
+                        positions = new int[4];
+                    } else if (count == positions.length) {
+                        positions = Arrays.copyOf(positions, count * 2);
+                    }
+                    positions[count] = position++;
+                    termPositions.put(token, positions);
+                    termCounts.put(token, count + 1);
+                }
+                position += FIELD_POSITION_GAP;
+            }
+
+            for (Map.Entry<String, int[]> entry : termPositions.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new Postings())
+                        .add(doc, entry.getValue(), termCounts.get(entry.getKey()));
+            }
+            added++;
+        }
+        return added;
+    }
+
+    public synchronized SearchHits search(String query, int limit) {
+        long start = System.nanoTime();
+        List<Clause> clauses = parseQuery(query);
+        if (clauses.isEmpty()) {
+            return new SearchHits(new ArrayList<>(), 0, documents.size(), System.nanoTime() - start);
+        }
+
+        // Drive the intersection from the rarest term so the common ones are only probed
+        List<String> allTerms = new ArrayList<>();
+        for (Clause clause : clauses) {
+            for (String term : clause.terms) {
+                if (!postings.containsKey(term)) {
+                    return new SearchHits(new ArrayList<>(), 0, documents.size(), System.nanoTime() - start);
+                }
+                allTerms.add(term);
+            }
+        }
+        allTerms.sort(Comparator.comparingInt(term -> postings.get(term).docCount));
+        String leadTerm = allTerms.get(0);
+
+        List<JSONObject> matches = new ArrayList<>();
+        int totalMatches = 0;
+        PostingsReader lead = postings.get(leadTerm).reader();
+        List<PostingsReader[]> clauseReaders = new ArrayList<>();
+        for (Clause clause : clauses) {
+            PostingsReader[] readers = new PostingsReader[clause.terms.length];
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = postings.get(clause.terms[i]).reader();
+            }
+            clauseReaders.add(readers);
+        }
+
+        while (lead.next()) {
+            int doc = lead.doc;
+            boolean matched = true;
+            for (int c = 0; c < clauses.size() && matched; c++) {
+                matched = matchesClause(clauseReaders.get(c), doc);
+            }
+            if (matched) {
+                totalMatches++;
+                if (matches.size() < limit) {
+                    matches.add(documents.get(doc));
+                }
+            }
+        }
+
+        return new SearchHits(matches, totalMatches, documents.size(), System.nanoTime() - start);
+    }
+
+    public synchronized int getIndexedLogs() {
+        return documents.size();
+    }
+
+    public synchronized int getTermCount() {
+        return postings.size();
+    }
+
+    // Encoded size of all postings lists, excluding the stored logs themselves
+    public synchronized long getPostingsBytes() {
+        long total = 0;
+        for (Postings list : postings.values()) {
+            total += list.length;
+        }
+        return total;
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        seenLogKeys.clear();
+        documents.clear();
+    }
+
+    private static boolean matchesClause(PostingsReader[] readers, int doc) {
+        for (PostingsReader reader : readers) {
+            if (!reader.advance(doc) || reader.doc != doc) {
+                return false;
+            }
+        }
+        if (readers.length == 1) {
+            return true;
+        }
+
+        // Phrase: some position p of the first term must have term i at p + i
+        int[] candidates = readers[0].positions();
+        for (int i = 1; i < readers.length; i++) {
+            int[] next = readers[i].positions();
+            int kept = 0;
+            int j = 0;
+            for (int candidate : candidates) {
+                int wanted = candidate + i;
+                while (j < next.length && next[j] < wanted) {
+                    j++;
+                }
+                if (j < next.length && next[j] == wanted) {
+                    candidates[kept++] = candidate;
+                }
+            }
+            if (kept == 0) {
+                return false;
+            }
+            candidates = Arrays.copyOf(candidates, kept);
+        }
+        return true;
+    }
+
+    private static List<Clause> parseQuery(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '"') {
+                int end = query.indexOf('"', i + 1);
+                if (end < 0) {
+                    end = query.length();
+                }
+                List<String> phrase = tokenize(query.substring(i + 1, end));
+                if (!phrase.isEmpty()) {
+                    clauses.add(new Clause(phrase.toArray(new String[0])));
+                }
+                i = end + 1;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else {
+                int end = i;
+                while (end < query.length() && !Character.isWhitespace(query.charAt(end)) && query.charAt(end) != '"') {
+                    end++;
+                }
+                // Words that tokenize into several tokens (e.g. an IP address) behave like a phrase
+                List<String> tokens = tokenize(query.substring(i, end));
+                if (!tokens.isEmpty()) {
+                    clauses.add(new Clause(tokens.toArray(new String[0])));
+                }
+                i = end;
+            }
+        }
+        return clauses;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static void collectValues(Object value, List<String> out) {
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            for (String key : object.keySet()) {
+                // The timestamp is already filterable by date and only adds noise
+                if (!key.equals("timestamp")) {
+                    collectValues(object.opt(key), out);
+                }
+            }
+        } else if (value instanceof JSONArray) {
+            for (Object item : (JSONArray) value) {
+                collectValues(item, out);
+            }
+        } else if (value != null && value != JSONObject.NULL) {
+            out.add(value.toString());
+        }
+    }
+
+    private static String logKey(JSONObject log) {
+        String id = log.optString("id", null);
+        if (id != null) {
+            return id;
+        }
+        return log.optString("timestamp", "") + "|" + log.optString("user", "") + "|"
+                + log.optString("action", "") + "|" + log.optString("cv_id", "");
+    }
+}
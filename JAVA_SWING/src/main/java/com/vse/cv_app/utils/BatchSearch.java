@@ -0,0 +1,267 @@
+package com.vse.cv_app.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many searches with the same filters (dates, sort, logic) and combines them into one
+ * shortlist. At most {@code maxInFlight} searches run at once, all over the shared pooled
+ * client; results are merged by CV id on the calling thread as each search completes.
+ *
+ * <p>Candidates are ranked by how many queries they matched, then by how selective those
+ * queries were (a match on a query with few results counts for more), then by upload date.</p>
+ */
+public class BatchSearch {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 6;
+    public static final int DEFAULT_RESULTS_PER_QUERY = 500;  // one page at the server's maximum
+    public static final int SHORTLIST_LIMIT = 1000;
+    private static final int PAGE_SIZE = 500;
+
+    private final List<HttpClientUtil.RequestHandle> handles = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean cancelled;
+
+    // Called on the thread running the batch after each query finishes
+    public interface BatchListener {
+        void onProgress(BatchResult snapshot);
+    }
+
+    private static class QueryRun {
+        final QueryOutcome outcome;
+        final List<JSONObject> rows;
+
+        QueryRun(QueryOutcome outcome, List<JSONObject> rows) {
+            this.outcome = outcome;
+            this.rows = rows;
+        }
+    }
+
+    public static class QueryOutcome {
+        public final String query;
+        public final int totalMatches;  // as reported by the server, may exceed what was fetched
+        public final int fetched;
+        public final long elapsedMillis;
+        public final String errorMessage;
+
+        QueryOutcome(String query, int totalMatches, int fetched, long elapsedMillis, String errorMessage) {
+            this.query = query;
+            this.totalMatches = totalMatches;
+            this.fetched = fetched;
+            this.elapsedMillis = elapsedMillis;
+            this.errorMessage = errorMessage;
+        }
+    }
+
+    public static class Candidate {
+        public final String id;
+        public final JSONObject row;
+        public final List<String> matchedQueries = new ArrayList<>();
+        double selectivity;
+
+        Candidate(String id, JSONObject row) {
+            this.id = id;
+            this.row = row;
+        }
+
+        Candidate copy() {
+            Candidate copy = new Candidate(id, row);
+            copy.matchedQueries.addAll(matchedQueries);
+            copy.selectivity = selectivity;
+            return copy;
+        }
+
+        public int getHitCount() {
+            return matchedQueries.size();
+        }
+
+        public double getScore() {
+            return matchedQueries.size() + selectivity;
+        }
+    }
+
+    public static class BatchResult {
+        public final List<Candidate> shortlist;   // best SHORTLIST_LIMIT candidates, ranked
+        public final int totalCandidates;
+        public final List<QueryOutcome> outcomes;
+        public final int totalQueries;
+        public final long elapsedMillis;
+        public final boolean cancelled;
+
+        BatchResult(List<Candidate> shortlist, int totalCandidates, List<QueryOutcome> outcomes, int totalQueries,
+                    long elapsedMillis, boolean cancelled) {
+            this.shortlist = shortlist;
+            this.totalCandidates = totalCandidates;
+            this.outcomes = outcomes;
+            this.totalQueries = totalQueries;
+            this.elapsedMillis = elapsedMillis;
+            this.cancelled = cancelled;
+        }
+
+        public int getCompletedQueries() {
+            return outcomes.size();
+        }
+    }
+
+    // One query per line; blank lines and repeats are dropped
+    public static List<String> parseQueries(String text) {
+        LinkedHashSet<String> queries = new LinkedHashSet<>();
+        if (text != null) {
+            for (String line : text.split("\\R")) {
+                String query = line.trim();
+                if (!query.isEmpty()) {
+                    queries.add(query);
+                }
+            }
+        }
+        return new ArrayList<>(queries);
+    }
+
+    /**
+     * Blocks until every query has finished or the batch is cancelled. {@code base} supplies the
+     * shared filters; its query and page are replaced per search.
+     */
+    public BatchResult run(String serverUrl, List<String> queries, HttpClientUtil.SearchParameters base,
+                           int maxInFlight, int resultsPerQuery, BatchListener listener) {
+        long start = System.currentTimeMillis();
+        int threads = Math.max(1, Math.min(Math.min(maxInFlight, HttpClientUtil.POOL_MAX_PER_ROUTE), queries.size()));
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "batch-search-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Map<String, Candidate> candidates = new HashMap<>();
+        List<QueryOutcome> outcomes = new ArrayList<>();
+        try {
+            CompletionService<QueryRun> completion = new ExecutorCompletionService<>(executor);
+            for (String query : queries) {
+                completion.submit(() -> runQuery(serverUrl, query, base, resultsPerQuery));
+            }
+
+            for (int i = 0; i < queries.size() && !cancelled; i++) {
+                QueryRun finished = completion.take().get();
+                outcomes.add(finished.outcome);
+                merge(candidates, finished.outcome, finished.rows);
+
+                if (listener != null && !cancelled) {
+                    listener.onProgress(snapshot(candidates, outcomes, queries.size(), start, false));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            executor.shutdownNow();
+        }
+        return snapshot(candidates, outcomes, queries.size(), start, cancelled);
+    }
+
+    public void cancel() {
+        cancelled = true;
+        synchronized (handles) {
+            for (HttpClientUtil.RequestHandle handle : handles) {
+                handle.cancel();
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Runs on a worker thread
+    private QueryRun runQuery(String serverUrl, String query, HttpClientUtil.SearchParameters base, int resultsPerQuery) {
+        long start = System.currentTimeMillis();
+        HttpClientUtil.RequestHandle handle = new HttpClientUtil.RequestHandle();
+        handles.add(handle);
+        List<JSONObject> rows = new ArrayList<>();
+        try {
+            if (cancelled) {
+                handle.cancel();
+            }
+            int totalMatches = 0;
+            int page = 1;
+            int totalPages = 1;
+            while (page <= totalPages && rows.size() < resultsPerQuery) {
+                HttpClientUtil.SearchParameters params = new HttpClientUtil.SearchParameters(base);
+                params.query = query;
+                params.page = page;
+                params.perPage = Math.min(PAGE_SIZE, resultsPerQuery);
+
+                HttpClientUtil.SearchResult result = HttpClientUtil.searchCVsPooled(serverUrl, params, handle);
+                if (result.errorMessage != null) {
+                    return new QueryRun(new QueryOutcome(query, totalMatches, rows.size(),
+                            System.currentTimeMillis() - start, result.errorMessage), rows);
+                }
+
+                JSONObject response = new JSONObject(result.jsonResponse);
+                totalMatches = response.optInt("total", 0);
+                totalPages = response.optInt("total_pages", 1);
+                JSONArray results = response.optJSONArray("results");
+                if (results == null || results.isEmpty()) {
+                    break;
+                }
+                for (int i = 0; i < results.length() && rows.size() < resultsPerQuery; i++) {
+                    rows.add(results.getJSONObject(i));
+                }
+                page++;
+            }
+            return new QueryRun(new QueryOutcome(query, totalMatches, rows.size(),
+                    System.currentTimeMillis() - start, null), rows);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new QueryRun(new QueryOutcome(query, 0, rows.size(), System.currentTimeMillis() - start,
+                    "Search Error: " + e.getMessage()), rows);
+        } finally {
+            handles.remove(handle);
+        }
+    }
+
+    private static void merge(Map<String, Candidate> candidates, QueryOutcome outcome, List<JSONObject> rows) {
+        double weight = outcome.totalMatches > 0 ? 1.0 / outcome.totalMatches : 0;
+        for (JSONObject row : rows) {
+            String id = row.optString("id", null);
+            if (id == null) {
+                continue;
+            }
+            Candidate candidate = candidates.computeIfAbsent(id, key -> new Candidate(key, row));
+            if (!candidate.matchedQueries.contains(outcome.query)) {
+                candidate.matchedQueries.add(outcome.query);
+                candidate.selectivity += weight;
+            }
+        }
+    }
+
+    // Copies the leading candidates so the caller can read them while the batch keeps merging
+    private static BatchResult snapshot(Map<String, Candidate> candidates, List<QueryOutcome> outcomes,
+                                        int totalQueries, long start, boolean cancelled) {
+        List<Candidate> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(Comparator.comparingInt(Candidate::getHitCount).reversed()
+                .thenComparing(Comparator.comparingDouble((Candidate c) -> c.selectivity).reversed())
+                .thenComparing(c -> c.row.optString("upload_date", ""), Comparator.reverseOrder())
+                .thenComparing(c -> c.id));
+
+        List<Candidate> shortlist = new ArrayList<>(Math.min(ranked.size(), SHORTLIST_LIMIT));
+        for (int i = 0; i < ranked.size() && i < SHORTLIST_LIMIT; i++) {
+            shortlist.add(ranked.get(i).copy());
+        }
+        return new BatchResult(shortlist, ranked.size(), new ArrayList<>(outcomes), totalQueries,
+                System.currentTimeMillis() - start, cancelled);
+    }
+}
@@ -0,0 +1,141 @@
+package com.vse.cv_app.utils;
+
+import org.json.JSONObject;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CV details for one server, cached by id as the union of the fields fetched so far. Each panel
+ * asks for the fields it renders and only the ones not cached yet are requested with
+ * {@link HttpClientUtil#getCVDetails(String, String, Collection)}: the view panel never
+ * downloads raw_text, the raw text view downloads only raw_text, and opening both for one CV
+ * fetches each field once. An entry is refetched once it is {@link #MAX_AGE_MS} old, all
+ * fields together; saving or deleting a CV should {@link #invalidate} it.
+ */
+public class CVDetailCache {
+    public static final List<String> VIEW_FIELDS =
+            List.of("personal_info", "skills", "education", "experience", "filename", "upload_date");
+    public static final List<String> RAW_TEXT_FIELDS = List.of("raw_text");
+    public static final long MAX_AGE_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final int DEFAULT_CAPACITY = 200;
+
+    private final String serverUrl;
+    private final Map<String, Entry> entries;
+    private long requests;
+    private long hits;
+
+    private static class Entry {
+        final JSONObject data = new JSONObject();
+        // Fields asked for so far, including ones this CV turned out not to have
+        final Set<String> fields = new HashSet<>();
+        final long fetchedAt = System.currentTimeMillis();
+        boolean complete;
+    }
+
+    public CVDetailCache(String serverUrl) {
+        this.serverUrl = serverUrl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > DEFAULT_CAPACITY;
+            }
+        };
+    }
+
+    /**
+     * The CV with just the given fields (all of it when fields is null), from the cache where
+     * possible. Fields the CV does not have are absent from the result.
+     */
+    public HttpClientUtil.CVDetailsResult get(String cvId, Collection<String> fields) {
+        Set<String> missing;
+        synchronized (entries) {
+            requests++;
+            Entry entry = current(cvId);
+            if (entry != null && (entry.complete || (fields != null && entry.fields.containsAll(fields)))) {
+                hits++;
+                return new HttpClientUtil.CVDetailsResult(project(entry, fields).toString(), null);
+            }
+            if (fields == null) {
+                missing = null;
+            } else {
+                missing = new LinkedHashSet<>(fields);
+                if (entry != null) {
+                    missing.removeAll(entry.fields);
+                }
+            }
+        }
+
+        HttpClientUtil.CVDetailsResult result = HttpClientUtil.getCVDetails(serverUrl, cvId, missing);
+        if (result.errorMessage != null) {
+            return result;
+        }
+        JSONObject fetched = new JSONObject(result.jsonResponse);
+        synchronized (entries) {
+            Entry entry = current(cvId);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(cvId, entry);
+            }
+            for (String key : fetched.keySet()) {
+                entry.data.put(key, fetched.get(key));
+            }
+            // A server that ignores fields= sends every field, which shows up as ones we did not ask for
+            if (missing == null || !missing.containsAll(fetched.keySet())) {
+                entry.complete = true;
+            } else {
+                entry.fields.addAll(missing);
+            }
+            return new HttpClientUtil.CVDetailsResult(project(entry, fields).toString(), null);
+        }
+    }
+
+    public void invalidate(String cvId) {
+        synchronized (entries) {
+            entries.remove(cvId);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    // Requests answered without going to the server, out of all requests
+    public String getStats() {
+        synchronized (entries) {
+            return String.format("%d CV(s) cached, %d of %d request(s) served from cache", entries.size(), hits, requests);
+        }
+    }
+
+    // Caller holds the lock; drops the entry when it has expired
+    private Entry current(String cvId) {
+        Entry entry = entries.get(cvId);
+        if (entry != null && System.currentTimeMillis() - entry.fetchedAt > MAX_AGE_MS) {
+            entries.remove(cvId);
+            return null;
+        }
+        return entry;
+    }
+
+    // Callers serialize the result straight away, so it may share the entry's values
+    private static JSONObject project(Entry entry, Collection<String> fields) {
+        if (fields == null) {
+            return entry.data;
+        }
+        JSONObject projection = new JSONObject();
+        for (String field : fields) {
+            if (entry.data.has(field)) {
+                projection.put(field, entry.data.get(field));
+            }
+        }
+        return projection;
+    }
+}
@@ -1,49 +1,135 @@
 package com.vse.cv_app.utils;
 
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
 import org.apache.hc.client5.http.classic.methods.HttpDelete;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.classic.methods.HttpPut;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
 import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ConnectionClosedException;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http.ProtocolException;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http2.H2ConnectionException;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLException;
 
 public class HttpClientUtil {
 
+    // Keep-alive clients for callers that issue many requests close together (batch searches,
+    // background refreshes), one per server so a busy profile cannot starve another's connections;
+    // the one-off methods below still create a client per call
+    public static final int POOL_MAX_TOTAL = 32;
+    public static final int POOL_MAX_PER_ROUTE = 16;
+    private static final Map<String, CloseableHttpClient> pooledClients = new ConcurrentHashMap<>();
+    private static volatile RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    private static volatile Transport transport = Transport.HTTP1;
+    // HTTP/2 clients by origin, each multiplexing every request to that origin over one connection
+    private static final Map<String, CloseableHttpAsyncClient> http2Clients = new ConcurrentHashMap<>();
+    // Origin -> whether it answered over HTTP/2; absent until the first request settles it
+    private static final Map<String, Boolean> http2Support = new ConcurrentHashMap<>();
+    // Larger bodies (file uploads) are streamed over HTTP/1.1 rather than buffered for HTTP/2
+    private static final long MAX_HTTP2_BODY_BYTES = 1024 * 1024;
+    // Headers HTTP/2 forbids or that the HTTP/2 client derives from the body itself
+    private static final Set<String> SKIPPED_HTTP2_HEADERS = Set.of("connection", "keep-alive", "proxy-connection",
+            "transfer-encoding", "upgrade", "host", "content-length", "content-type");
+    // Hedging is opt-in; the timer only hands each hedge to the pool, which runs the blocking request.
+    // A hedge stuck on a slow replica holds its thread, so when all of them are busy no hedge is sent
+    private static final int HEDGE_THREADS = 4;
+    private static volatile HedgePolicy hedgePolicy = HedgePolicy.NONE;
+    private static final AtomicInteger hedgeThreadCount = new AtomicInteger();
+    private static final ScheduledExecutorService HEDGE_TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService HEDGE_EXECUTOR = new ThreadPoolExecutor(0, HEDGE_THREADS,
+            60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+        Thread thread = new Thread(r, "hedge-" + hedgeThreadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public static class UploadResult {
         public int successCount;
         public int errorCount;
         public String message;
+        // HTTP status of the response, 0 when none arrived
+        public int statusCode;
 
         public UploadResult(int success, int errors, String msg) {
+            this(success, errors, msg, 0);
+        }
+
+        public UploadResult(int success, int errors, String msg, int statusCode) {
             this.successCount = success;
             this.errorCount = errors;
             this.message = msg;
+            this.statusCode = statusCode;
         }
     }
 
     public static class UpdateResult {
         public boolean success;
         public String message;
+        // HTTP status of the response, 0 when none arrived
+        public int statusCode;
 
         public UpdateResult(boolean success, String message) {
+            this(success, message, 0);
+        }
+
+        public UpdateResult(boolean success, String message, int statusCode) {
             this.success = success;
             this.message = message;
+            this.statusCode = statusCode;
         }
     }
 
@@ -61,11 +147,18 @@ public class HttpClientUtil {
         public boolean success;
         public String message;
         public String errorMessage;
+        // HTTP status of the response, 0 when none arrived
+        public int statusCode;
 
         public DeleteResult(boolean success, String message, String error) {
+            this(success, message, error, 0);
+        }
+
+        public DeleteResult(boolean success, String message, String error, int statusCode) {
             this.success = success;
             this.message = message;
             this.errorMessage = error;
+            this.statusCode = statusCode;
         }
     }
 
@@ -93,11 +186,18 @@ public class HttpClientUtil {
         public boolean success;
         public String token;
         public String errorMessage;
+        // HTTP status of the response, 0 when none arrived
+        public int statusCode;
 
         public LoginResult(boolean success, String token, String error) {
+            this(success, token, error, 0);
+        }
+
+        public LoginResult(boolean success, String token, String error, int statusCode) {
             this.success = success;
             this.token = token;
             this.errorMessage = error;
+            this.statusCode = statusCode;
         }
     }
 
@@ -157,6 +257,48 @@ public class HttpClientUtil {
         }
     }
 
+    public static class ConditionalResult {
+        public int statusCode;
+        public String body;
+        public String etag;
+        public String errorMessage;
+
+        public ConditionalResult(int statusCode, String body, String etag, String error) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.etag = etag;
+            this.errorMessage = error;
+        }
+
+        public boolean isNotModified() {
+            return statusCode == 304;
+        }
+    }
+
+    // Status, body and headers of a completed request; the response itself is already closed
+    private static class Exchange {
+        final int statusCode;
+        final String body;
+        final Header[] headers;
+        final long bytesIn;
+
+        Exchange(int statusCode, String body, Header[] headers, long bytesIn) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.headers = headers;
+            this.bytesIn = bytesIn;
+        }
+
+        String getHeader(String name) {
+            for (Header header : headers) {
+                if (header.getName().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
+            return null;
+        }
+    }
+
     // New class for search parameters
     public static class SearchParameters {
         public String query;
@@ -184,6 +326,66 @@ public class HttpClientUtil {
             this.query = query;
             this.page = page;
         }
+
+        public SearchParameters(SearchParameters other) {
+            this.query = other.query;
+            this.page = other.page;
+            this.perPage = other.perPage;
+            this.dateFrom = other.dateFrom;
+            this.dateTo = other.dateTo;
+            this.sortBy = other.sortBy;
+            this.sortOrder = other.sortOrder;
+            this.logic = other.logic;
+        }
+    }
+
+    /**
+     * How requests reach the server. HTTP1 uses the client each method is given, which for most
+     * of them is a new client and connection per call. HTTP1_POOLED sends every request over the
+     * server's keep-alive pool. HTTP2 multiplexes every request to a server over one connection,
+     * falling back to the HTTP/1.1 pool for a server that does not speak HTTP/2 and for bodies
+     * over 1 MB.
+     */
+    public enum Transport {
+        HTTP1("HTTP/1.1, connection per call"),
+        HTTP1_POOLED("HTTP/1.1, pooled"),
+        HTTP2("HTTP/2, multiplexed");
+
+        private final String label;
+
+        Transport(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // Lets a caller abort a request running on another thread, e.g. a superseded search
+    public static class RequestHandle {
+        private volatile HttpUriRequestBase request;
+        private volatile boolean cancelled;
+
+        void attach(HttpUriRequestBase request) {
+            this.request = request;
+            if (cancelled) {
+                request.cancel();
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+            HttpUriRequestBase current = request;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
     }
 
     // New class for date presets
@@ -237,7 +439,7 @@ public class HttpClientUtil {
 
     public static LoginResult login(String serverUrl, String username, String password) {
         String loginUrl = serverUrl + "/login";
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try (CloseableHttpClient httpClient = createClient()) {
             HttpPost loginRequest = new HttpPost(loginUrl);
             loginRequest.setHeader("Content-Type", "application/json");
 
@@ -247,16 +449,16 @@ public class HttpClientUtil {
             StringEntity entity = new StringEntity(jsonPayload.toString(), ContentType.APPLICATION_JSON);
             loginRequest.setEntity(entity);
 
-            ClassicHttpResponse response = httpClient.execute(loginRequest);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+            Exchange response = execute(httpClient, "POST /login", loginRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
 
             if (statusCode == 200) {
                 JSONObject jsonResponse = new JSONObject(responseString);
                 if (jsonResponse.has("token")) {
-                    return new LoginResult(true, jsonResponse.getString("token"), null);
+                    return new LoginResult(true, jsonResponse.getString("token"), null, statusCode);
                 } else {
-                    return new LoginResult(false, null, "Login successful but no token received.");
+                    return new LoginResult(false, null, "Login successful but no token received.", statusCode);
                 }
             } else {
                 String errorMsg = "Login failed (HTTP " + statusCode + ")";
@@ -268,7 +470,7 @@ public class HttpClientUtil {
                 } catch (Exception parseEx) {
                     errorMsg += ": " + responseString;
                 }
-                return new LoginResult(false, null, errorMsg);
+                return new LoginResult(false, null, errorMsg, statusCode);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -276,34 +478,44 @@ public class HttpClientUtil {
         }
     }
 
-    public static IndexesResult fetchIndexes(String serverUrl) {
-        String indexesUrl = serverUrl + "/api/indexes";
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet indexesRequest = new HttpGet(indexesUrl);
-            ClassicHttpResponse response = httpClient.execute(indexesRequest);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+    // Exchanges a still-valid token for one with a fresh expiry; an expired token gets a 401
+    public static LoginResult refreshToken(String serverUrl, String jwtToken) {
+        try (CloseableHttpClient httpClient = createClient()) {
+            HttpPost refreshRequest = new HttpPost(serverUrl + "/refresh");
+            refreshRequest.setHeader("Authorization", "Bearer " + jwtToken);
+            Exchange response = execute(httpClient, "POST /refresh", refreshRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
 
             if (statusCode == 200) {
                 JSONObject jsonResponse = new JSONObject(responseString);
-                Map<String, List<String>> indexesMap = new HashMap<>();
-
-                for (String categoryKey : jsonResponse.keySet()) {
-                    JSONArray itemsArray = jsonResponse.getJSONArray(categoryKey);
-                    List<String> itemsList = new ArrayList<>();
-
-                    for (int i = 0; i < itemsArray.length(); i++) {
-                        Object itemObj = itemsArray.get(i);
-                        if (itemObj instanceof String) {
-                            itemsList.add((String) itemObj);
-                        } else {
-                            itemsList.add(itemObj.toString());
-                        }
-                    }
-                    indexesMap.put(categoryKey, itemsList);
+                if (jsonResponse.has("token")) {
+                    return new LoginResult(true, jsonResponse.getString("token"), null, statusCode);
                 }
+                return new LoginResult(false, null, "Refresh succeeded but no token received.", statusCode);
+            }
+            return new LoginResult(false, null, "Refresh Error (" + statusCode + "): " + responseString, statusCode);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new LoginResult(false, null, "Network Error: " + e.getMessage());
+        }
+    }
+
+    // True when the server rejected the request's token
+    public static boolean isAuthFailure(int statusCode) {
+        return statusCode == 401;
+    }
 
-                return new IndexesResult(indexesMap, null);
+    public static IndexesResult fetchIndexes(String serverUrl) {
+        String indexesUrl = serverUrl + "/api/indexes";
+        try (CloseableHttpClient httpClient = createClient()) {
+            HttpGet indexesRequest = new HttpGet(indexesUrl);
+            Exchange response = execute(httpClient, "GET /api/indexes", indexesRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
+
+            if (statusCode == 200) {
+                return parseIndexes(responseString);
             } else {
                 return new IndexesResult(null, "Server Error (" + statusCode + "): " + responseString);
             }
@@ -313,8 +525,501 @@ public class HttpClientUtil {
         }
     }
 
+    public static IndexesResult parseIndexes(String responseString) {
+        JSONObject jsonResponse = new JSONObject(responseString);
+        Map<String, List<String>> indexesMap = new HashMap<>();
+
+        for (String categoryKey : jsonResponse.keySet()) {
+            JSONArray itemsArray = jsonResponse.getJSONArray(categoryKey);
+            List<String> itemsList = new ArrayList<>();
+
+            for (int i = 0; i < itemsArray.length(); i++) {
+                Object itemObj = itemsArray.get(i);
+                if (itemObj instanceof String) {
+                    itemsList.add((String) itemObj);
+                } else {
+                    itemsList.add(itemObj.toString());
+                }
+            }
+            indexesMap.put(categoryKey, itemsList);
+        }
+
+        return new IndexesResult(indexesMap, null);
+    }
+
     // Updated search method with date filtering support
     public static SearchResult searchCVs(String serverUrl, SearchParameters params) {
+        return searchCVs(serverUrl, params, null);
+    }
+
+    public static SearchResult searchCVs(String serverUrl, SearchParameters params, RequestHandle handle) {
+        try (CloseableHttpClient httpClient = createClient()) {
+            return searchCVs(httpClient, serverUrl, params, handle);
+        } catch (java.io.IOException e) {
+            e.printStackTrace();
+            return new SearchResult(null, "Network Error: " + e.getMessage());
+        }
+    }
+
+    // Same as searchCVs, but over the server's pooled client so connections are reused
+    public static SearchResult searchCVsPooled(String serverUrl, SearchParameters params, RequestHandle handle) {
+        return searchCVs(getPooledClient(serverUrl), serverUrl, params, handle);
+    }
+
+    private static SearchResult searchCVs(CloseableHttpClient httpClient, String serverUrl, SearchParameters params,
+                                          RequestHandle handle) {
+        HttpGet searchRequest = new HttpGet(buildSearchUrl(serverUrl, params));
+        searchRequest.setHeader("Accept", "application/json");
+        if (handle != null) {
+            handle.attach(searchRequest);
+        }
+
+        try {
+            Exchange response = execute(httpClient, "GET /api/search", searchRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
+
+            if (statusCode == 200) {
+                return new SearchResult(responseString, null);
+            } else {
+                return new SearchResult(null, "Search Error (" + statusCode + "): " + responseString);
+            }
+        } catch (Exception e) {
+            if (handle != null && handle.isCancelled()) {
+                return new SearchResult(null, "Search cancelled");
+            }
+            e.printStackTrace();
+            return new SearchResult(null, "Network Error: " + e.getMessage());
+        }
+    }
+
+    // Reads for serverUrl may then be answered by any of the replicas; see ReplicaRouter
+    public static void setReplicas(String serverUrl, List<String> replicaUrls) {
+        ReplicaRouter.setReplicas(serverUrl, replicaUrls);
+    }
+
+    public static void setRetryPolicy(RetryPolicy policy) {
+        retryPolicy = policy != null ? policy : RetryPolicy.NONE;
+    }
+
+    public static RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public static void setTransport(Transport mode) {
+        transport = mode != null ? mode : Transport.HTTP1;
+    }
+
+    public static Transport getTransport() {
+        return transport;
+    }
+
+    // Protocol each origin settled on under HTTP2, e.g. "http://host:8000 HTTP/2"
+    public static List<String> describeHttp2Origins() {
+        List<String> origins = new ArrayList<>();
+        http2Support.forEach((origin, supported) -> origins.add(origin + (supported ? " HTTP/2" : " HTTP/1.1 fallback")));
+        return origins;
+    }
+
+    public static void setHedgePolicy(HedgePolicy policy) {
+        hedgePolicy = policy != null ? policy : HedgePolicy.NONE;
+    }
+
+    public static HedgePolicy getHedgePolicy() {
+        return hedgePolicy;
+    }
+
+    // Retries are made by execute() under the RetryPolicy, so the client's own retry handler is off
+    private static CloseableHttpClient createClient() {
+        return HttpClients.custom().disableAutomaticRetries().build();
+    }
+
+    /**
+     * Executes the request, repeating it under the {@link RetryPolicy} when it is idempotent and
+     * failed transiently. Each attempt is recorded in {@link MetricsRegistry}, plus a retry count.
+     */
+    private static Exchange execute(CloseableHttpClient httpClient, String endpoint, HttpUriRequestBase request)
+            throws IOException, ParseException {
+        RetryPolicy policy = isIdempotent(request) ? retryPolicy : RetryPolicy.NONE;
+        // Replica routing rewrites the URI, so every attempt starts from the original
+        String requestUrl;
+        try {
+            requestUrl = request.getUri().toString();
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            long delay;
+            try {
+                Exchange exchange = executeHedged(httpClient, endpoint, request, requestUrl);
+                delay = attempt < policy.maxAttempts && RetryPolicy.isRetryableStatus(exchange.statusCode)
+                        ? policy.backoffMillis(attempt, exchange.getHeader("Retry-After")) : -1;
+                if (delay < 0) {
+                    if (attempt > 1 && exchange.statusCode < 400) {
+                        MetricsRegistry.recordRecovered(endpoint);
+                    }
+                    return exchange;
+                }
+            } catch (IOException e) {
+                if (request.isCancelled() || attempt >= policy.maxAttempts || !RetryPolicy.isRetryable(e)) {
+                    throw e;
+                }
+                delay = policy.backoffMillis(attempt);
+            }
+            MetricsRegistry.recordRetry(endpoint);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry");
+            }
+            if (request.isCancelled()) {
+                throw new InterruptedIOException("Request cancelled");
+            }
+        }
+    }
+
+    // GETs, and PUTs and DELETEs carrying an idempotency key, can safely reach the server twice
+    private static boolean isIdempotent(HttpUriRequestBase request) {
+        return "GET".equals(request.getMethod())
+                || (("PUT".equals(request.getMethod()) || "DELETE".equals(request.getMethod()))
+                && request.containsHeader(RetryPolicy.IDEMPOTENCY_HEADER));
+    }
+
+    /**
+     * Executes the request, hedging it under the {@link HedgePolicy} when it is a GET to one of
+     * the policy's endpoints: if no answer has arrived by the endpoint's recent p95, a copy is
+     * sent to another replica (or the same server) and the first answer wins; the other copy is
+     * cancelled. The caller's own request is not sent, so cancelling it cancels both copies.
+     */
+    private static Exchange executeHedged(CloseableHttpClient httpClient, String endpoint, HttpUriRequestBase request,
+                                          String requestUrl) throws IOException, ParseException {
+        HedgePolicy policy = hedgePolicy;
+        if (!"GET".equals(request.getMethod()) || !policy.appliesTo(endpoint)) {
+            return executeRouted(httpClient, endpoint, request, requestUrl, false);
+        }
+        long delay = policy.onRequest(endpoint);
+        if (delay < 0) {
+            long start = System.nanoTime();
+            Exchange exchange = executeRouted(httpClient, endpoint, request, requestUrl, false);
+            policy.recordLatency(endpoint, System.nanoTime() - start);
+            return exchange;
+        }
+
+        HttpGet primary = copyRequest(request, requestUrl);
+        HttpGet hedge = copyRequest(request, requestUrl);
+        request.setDependency(() -> {
+            primary.cancel();
+            hedge.cancel();
+            return true;
+        });
+        CompletableFuture<Exchange> winner = new CompletableFuture<>();
+        // Copies that may still answer; once it drops to 0 no hedge is started
+        AtomicInteger outstanding = new AtomicInteger(1);
+        ScheduledFuture<?> timer = HEDGE_TIMER.schedule(() -> {
+            if (winner.isDone() || request.isCancelled()) {
+                return;
+            }
+            try {
+                // The budget is only spent by a hedge that is actually sent
+                HEDGE_EXECUTOR.execute(() -> {
+                    if (winner.isDone() || request.isCancelled() || !policy.tryAcquire()) {
+                        return;
+                    }
+                    if (outstanding.updateAndGet(n -> n == 0 ? 0 : n + 1) == 0) {
+                        policy.release();
+                        return;
+                    }
+                    MetricsRegistry.recordHedge(endpoint);
+                    runHedgedCopy(httpClient, endpoint, hedge, primary, requestUrl, true, policy, winner, outstanding);
+                });
+            } catch (RejectedExecutionException e) {
+                // Every hedge thread is busy; the request waits it out alone
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+
+        runHedgedCopy(httpClient, endpoint, primary, hedge, requestUrl, false, policy, winner, outstanding);
+        try {
+            return winner.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.cancel();
+            hedge.cancel();
+            throw new InterruptedIOException("Interrupted while waiting for a hedged request");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof ParseException parse) {
+                throw parse;
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            timer.cancel(false);
+        }
+    }
+
+    // One copy of a hedged request; the first to answer completes winner and cancels the other
+    private static void runHedgedCopy(CloseableHttpClient httpClient, String endpoint, HttpGet copy, HttpGet other,
+                                      String requestUrl, boolean isHedge, HedgePolicy policy,
+                                      CompletableFuture<Exchange> winner, AtomicInteger outstanding) {
+        long start = System.nanoTime();
+        try {
+            Exchange exchange = executeRouted(httpClient, endpoint, copy, requestUrl, isHedge);
+            policy.recordLatency(endpoint, System.nanoTime() - start);
+            if (winner.complete(exchange)) {
+                other.cancel();
+                if (isHedge) {
+                    MetricsRegistry.recordHedgeWin(endpoint);
+                }
+            }
+        } catch (Exception e) {
+            if (copy.isCancelled() && winner.isDone()) {
+                // Lost the race; it took at least this long, which keeps the slow tail in the window
+                policy.recordLatency(endpoint, System.nanoTime() - start);
+                return;
+            }
+            if (outstanding.decrementAndGet() == 0) {
+                winner.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static HttpGet copyRequest(HttpUriRequestBase request, String requestUrl) {
+        HttpGet copy = new HttpGet(requestUrl);
+        for (Header header : request.getHeaders()) {
+            copy.addHeader(header);
+        }
+        copy.setConfig(request.getConfig());
+        return copy;
+    }
+
+    /**
+     * Executes the request, sending a GET to the best replica when the server has replicas and
+     * trying the next one if the connection fails. Writes always go to the server itself. A
+     * hedge passes preferAlternate to start with the second-best replica, the one the request it
+     * duplicates did not go to.
+     */
+    private static Exchange executeRouted(CloseableHttpClient httpClient, String endpoint, HttpUriRequestBase request,
+                                          String requestUrl, boolean preferAlternate) throws IOException, ParseException {
+        ReplicaRouter router = "GET".equals(request.getMethod()) ? ReplicaRouter.forUrl(requestUrl) : null;
+        if (router == null) {
+            return executeOnce(httpClient, endpoint, request);
+        }
+
+        IOException lastFailure = null;
+        List<ReplicaRouter.Endpoint> candidates = router.candidates();
+        if (preferAlternate && candidates.size() > 1) {
+            candidates.add(candidates.remove(0));
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            ReplicaRouter.Endpoint target = candidates.get(i);
+            request.setUri(URI.create(router.rebase(requestUrl, target)));
+            long start = System.nanoTime();
+            try {
+                Exchange exchange = executeOnce(httpClient, endpoint, request);
+                // A 5xx counts against the replica's health but is still the answer
+                if (exchange.statusCode >= 500) {
+                    target.recordFailure(System.nanoTime() - start);
+                } else {
+                    target.recordSuccess(System.nanoTime() - start);
+                }
+                return exchange;
+            } catch (IOException e) {
+                if (request.isCancelled()) {
+                    throw e;
+                }
+                target.recordFailure(System.nanoTime() - start);
+                lastFailure = e;
+                if (i + 1 < candidates.size()) {
+                    router.recordFailover();
+                }
+            }
+        }
+        throw lastFailure;
+    }
+
+    /**
+     * Executes the request and reads the body, recording latency and bytes for the endpoint in
+     * {@link MetricsRegistry}. HTTP 4xx/5xx and exceptions count as errors; cancelled requests
+     * are not recorded. The response is closed here so a pooled connection goes back to the pool.
+     */
+    private static Exchange executeOnce(CloseableHttpClient httpClient, String endpoint, HttpUriRequestBase request)
+            throws IOException, ParseException {
+        long start = System.nanoTime();
+        long bytesOut = request.getEntity() != null ? Math.max(0, request.getEntity().getContentLength()) : 0;
+        try {
+            Exchange exchange = send(httpClient, request);
+            MetricsRegistry.record(endpoint, System.nanoTime() - start, exchange.bytesIn, bytesOut,
+                    exchange.statusCode >= 400 ? "HTTP " + exchange.statusCode : null);
+            return exchange;
+        } catch (Exception e) {
+            if (!request.isCancelled()) {
+                MetricsRegistry.record(endpoint, System.nanoTime() - start, 0, bytesOut,
+                        e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    // Sends the request over the current Transport
+    private static Exchange send(CloseableHttpClient httpClient, HttpUriRequestBase request)
+            throws IOException, ParseException {
+        Transport mode = transport;
+        if (mode == Transport.HTTP1) {
+            return sendHttp1(httpClient, request);
+        }
+        String origin = originOf(request);
+        HttpEntity entity = request.getEntity();
+        Boolean supported = http2Support.get(origin);
+        // Until the origin has answered over HTTP/2, only requests that may safely be sent twice try it
+        boolean http2 = mode == Transport.HTTP2 && !Boolean.FALSE.equals(supported)
+                && (supported != null || isIdempotent(request))
+                && (entity == null || (entity.getContentLength() >= 0 && entity.getContentLength() <= MAX_HTTP2_BODY_BYTES));
+        if (!http2) {
+            return sendHttp1(getPooledClient(origin), request);
+        }
+        try {
+            Exchange exchange = sendHttp2(origin, request);
+            http2Support.putIfAbsent(origin, true);
+            return exchange;
+        } catch (IOException e) {
+            if (request.isCancelled() || supported != null || !isHttp2Refused(e)) {
+                throw e;
+            }
+            // Not known to speak HTTP/2 and the connection broke the way an HTTP/1.1 server breaks it
+            // when it gets the preface. If HTTP/1.1 then works the origin stays there
+            Exchange exchange = sendHttp1(getPooledClient(origin), request);
+            if (http2Support.putIfAbsent(origin, false) == null) {
+                System.err.println("HTTP/2 not available at " + origin + ", using HTTP/1.1: " + e.getMessage());
+            }
+            return exchange;
+        }
+    }
+
+    // Protocol or handshake failures; timeouts, refused connections and cancellations say nothing about HTTP/2
+    private static boolean isHttp2Refused(IOException e) {
+        if (e instanceof InterruptedIOException || e instanceof ConnectException) {
+            return false;
+        }
+        return e instanceof ConnectionClosedException || e instanceof H2ConnectionException
+                || e instanceof SSLException || e.getCause() instanceof ProtocolException;
+    }
+
+    private static Exchange sendHttp1(CloseableHttpClient httpClient, HttpUriRequestBase request)
+            throws IOException, ParseException {
+        try (ClassicHttpResponse response = httpClient.execute(request)) {
+            HttpEntity entity = response.getEntity();
+            String body = entity != null ? EntityUtils.toString(entity) : null;
+            long bytesIn = body == null ? 0
+                    : entity.getContentLength() >= 0 ? entity.getContentLength() : body.getBytes(StandardCharsets.UTF_8).length;
+            return new Exchange(response.getCode(), body, response.getHeaders(), bytesIn);
+        }
+    }
+
+    // Sends the request as one stream on the origin's HTTP/2 connection; cancelling the request resets the stream
+    private static Exchange sendHttp2(String origin, HttpUriRequestBase request) throws IOException {
+        SimpleHttpRequest http2Request;
+        try {
+            http2Request = SimpleHttpRequest.create(request.getMethod(), request.getUri());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        for (Header header : request.getHeaders()) {
+            if (!SKIPPED_HTTP2_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                http2Request.addHeader(header);
+            }
+        }
+        HttpEntity entity = request.getEntity();
+        if (entity != null) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream((int) entity.getContentLength());
+            entity.writeTo(body);
+            Header contentTypeHeader = request.getFirstHeader("Content-Type");
+            String contentType = entity.getContentType() != null ? entity.getContentType()
+                    : contentTypeHeader != null ? contentTypeHeader.getValue() : null;
+            http2Request.setBody(body.toByteArray(), contentType != null ? ContentType.parse(contentType) : null);
+        }
+
+        Future<SimpleHttpResponse> future = getHttp2Client(origin).execute(http2Request, null);
+        request.setDependency(() -> future.cancel(true));
+        SimpleHttpResponse response;
+        try {
+            response = future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an HTTP/2 response");
+        } catch (CancellationException e) {
+            throw new InterruptedIOException("Request cancelled");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+
+        byte[] bytes = response.getBodyBytes();
+        String body = null;
+        if (bytes != null) {
+            ContentType contentType = response.getContentType();
+            Charset charset = contentType != null ? contentType.getCharset() : null;
+            body = new String(bytes, charset != null ? charset : StandardCharsets.UTF_8);
+        }
+        return new Exchange(response.getCode(), body, response.getHeaders(), bytes != null ? bytes.length : 0);
+    }
+
+    // scheme://host:port of the request, which after replica routing may not be the server itself
+    private static String originOf(HttpUriRequestBase request) throws IOException {
+        try {
+            URI uri = request.getUri();
+            return uri.getScheme() + "://" + uri.getRawAuthority();
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    // Plain http is spoken as HTTP/2 from the first byte (prior knowledge); https negotiates it with ALPN
+    private static CloseableHttpAsyncClient getHttp2Client(String origin) {
+        return http2Clients.computeIfAbsent(origin, key -> {
+            CloseableHttpAsyncClient client = HttpAsyncClients.customHttp2()
+                    .disableAutomaticRetries()
+                    .build();
+            client.start();
+            return client;
+        });
+    }
+
+    public static CloseableHttpClient getPooledClient(String serverUrl) {
+        return pooledClients.computeIfAbsent(ServerProfiles.normalizeUrl(serverUrl), url -> HttpClients.custom()
+                .disableAutomaticRetries()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(POOL_MAX_TOTAL)
+                        .setMaxConnPerRoute(POOL_MAX_PER_ROUTE)
+                        .build())
+                .build());
+    }
+
+    // Closes the server's pool and HTTP/2 connection, e.g. when its profile is deleted; the next call opens new ones
+    public static void closePooledClient(String serverUrl) {
+        String url = ServerProfiles.normalizeUrl(serverUrl);
+        CloseableHttpClient client = pooledClients.remove(url);
+        if (client != null) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                System.err.println("Error closing connection pool: " + e.getMessage());
+            }
+        }
+        CloseableHttpAsyncClient http2Client = http2Clients.remove(url);
+        http2Support.remove(url);
+        if (http2Client != null) {
+            try {
+                http2Client.close();
+            } catch (IOException e) {
+                System.err.println("Error closing HTTP/2 connection: " + e.getMessage());
+            }
+        }
+    }
+
+    public static String buildSearchUrl(String serverUrl, SearchParameters params) {
         StringBuilder urlBuilder = new StringBuilder();
         urlBuilder.append(serverUrl).append("/api/search");
 
@@ -353,15 +1058,22 @@ public class HttpClientUtil {
             urlBuilder.append("?").append(String.join("&", queryParams));
         }
 
-        String searchUrl = urlBuilder.toString();
+        return urlBuilder.toString();
+    }
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet searchRequest = new HttpGet(searchUrl);
+    // POST /api/advanced_search with a prepared JSON body (see AdvancedSearchPlanner)
+    public static SearchResult advancedSearch(String serverUrl, String jsonBody, RequestHandle handle) {
+        try (CloseableHttpClient httpClient = createClient()) {
+            HttpPost searchRequest = new HttpPost(serverUrl + "/api/advanced_search");
             searchRequest.setHeader("Accept", "application/json");
+            searchRequest.setEntity(new StringEntity(jsonBody, ContentType.APPLICATION_JSON));
+            if (handle != null) {
+                handle.attach(searchRequest);
+            }
 
-            ClassicHttpResponse response = httpClient.execute(searchRequest);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+            Exchange response = execute(httpClient, "POST /api/advanced_search", searchRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
 
             if (statusCode == 200) {
                 return new SearchResult(responseString, null);
@@ -369,6 +1081,9 @@ public class HttpClientUtil {
                 return new SearchResult(null, "Search Error (" + statusCode + "): " + responseString);
             }
         } catch (Exception e) {
+            if (handle != null && handle.isCancelled()) {
+                return new SearchResult(null, "Search cancelled");
+            }
             e.printStackTrace();
             return new SearchResult(null, "Network Error: " + e.getMessage());
         }
@@ -383,13 +1098,13 @@ public class HttpClientUtil {
     // New method to get filter options including date presets
     public static SearchResult getFilterOptions(String serverUrl) {
         String filterUrl = serverUrl + "/api/filter_options";
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try (CloseableHttpClient httpClient = createClient()) {
             HttpGet filterRequest = new HttpGet(filterUrl);
             filterRequest.setHeader("Accept", "application/json");
 
-            ClassicHttpResponse response = httpClient.execute(filterRequest);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+            Exchange response = execute(httpClient, "GET /api/filter_options", filterRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
 
             if (statusCode == 200) {
                 return new SearchResult(responseString, null);
@@ -405,13 +1120,13 @@ public class HttpClientUtil {
     // New method to get recent uploads
     public static SearchResult getRecentUploads(String serverUrl, int days, int page, int perPage) {
         String recentUrl = serverUrl + "/api/recent_uploads?days=" + days + "&page=" + page + "&per_page=" + perPage;
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try (CloseableHttpClient httpClient = createClient()) {
             HttpGet recentRequest = new HttpGet(recentUrl);
             recentRequest.setHeader("Accept", "application/json");
 
-            ClassicHttpResponse response = httpClient.execute(recentRequest);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+            Exchange response = execute(httpClient, "GET /api/recent_uploads", recentRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
 
             if (statusCode == 200) {
                 return new SearchResult(responseString, null);
@@ -425,12 +1140,24 @@ public class HttpClientUtil {
     }
 
     public static CVDetailsResult getCVDetails(String serverUrl, String cvId) {
+        return getCVDetails(serverUrl, cvId, null);
+    }
+
+    /**
+     * Fetches only the given top-level fields of the CV (e.g. {@code personal_info}, {@code raw_text}),
+     * or all of it when fields is null. A server without projection support sends the whole CV.
+     * {@link CVDetailCache} builds on this to share fields between panels.
+     */
+    public static CVDetailsResult getCVDetails(String serverUrl, String cvId, Collection<String> fields) {
         String viewUrl = serverUrl + "/api/view/" + cvId;
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        if (fields != null) {
+            viewUrl += "?fields=" + java.net.URLEncoder.encode(String.join(",", fields), StandardCharsets.UTF_8);
+        }
+        try (CloseableHttpClient httpClient = createClient()) {
             HttpGet viewRequest = new HttpGet(viewUrl);
-            ClassicHttpResponse response = httpClient.execute(viewRequest);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+            Exchange response = execute(httpClient, "GET /api/view/{id}", viewRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
 
             if (statusCode == 200) {
                 return new CVDetailsResult(responseString, null);
@@ -445,7 +1172,7 @@ public class HttpClientUtil {
 
     public static UploadResult uploadFilesWithToken(String serverUrl, List<File> files, String jwtToken) {
         String uploadUrl = serverUrl + "/upload";
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try (CloseableHttpClient httpClient = createClient()) {
             HttpPost uploadFile = new HttpPost(uploadUrl);
             if (jwtToken != null && !jwtToken.isEmpty()) {
                 uploadFile.setHeader("Authorization", "Bearer " + jwtToken);
@@ -456,9 +1183,9 @@ public class HttpClientUtil {
             }
             HttpEntity multipart = builder.build();
             uploadFile.setEntity(multipart);
-            ClassicHttpResponse response = httpClient.execute(uploadFile);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+            Exchange response = execute(httpClient, "POST /upload", uploadFile);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
             if (statusCode == 200) {
                 JSONObject jsonResponse = new JSONObject(responseString);
                 int successCount = jsonResponse.getInt("success_count");
@@ -472,9 +1199,9 @@ public class HttpClientUtil {
                         message.append("- ").append(error.getString("filename")).append(": ").append(error.getString("error")).append("\n");
                     }
                 }
-                return new UploadResult(successCount, errorCount, message.toString());
+                return new UploadResult(successCount, errorCount, message.toString(), statusCode);
             } else {
-                return new UploadResult(0, files.size(), "Server Error (" + statusCode + "): " + responseString);
+                return new UploadResult(0, files.size(), "Server Error (" + statusCode + "): " + responseString, statusCode);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -483,29 +1210,38 @@ public class HttpClientUtil {
     }
 
     public static UpdateResult updateCVData(String serverUrl, String cvId, String jsonData, String jwtToken) {
+        return updateCVData(serverUrl, cvId, jsonData, jwtToken, null);
+    }
+
+    // With a requestId the update is sent as idempotent and retried like a GET; see RetryPolicy
+    public static UpdateResult updateCVData(String serverUrl, String cvId, String jsonData, String jwtToken,
+                                            String requestId) {
         String updateUrl = serverUrl + "/api/view/" + cvId;
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try (CloseableHttpClient httpClient = createClient()) {
             HttpPut updateRequest = new HttpPut(updateUrl);
             updateRequest.setHeader("Content-Type", "application/json");
+            if (requestId != null) {
+                updateRequest.setHeader(RetryPolicy.IDEMPOTENCY_HEADER, requestId);
+            }
             if (jwtToken != null && !jwtToken.isEmpty()) {
                 updateRequest.setHeader("Authorization", "Bearer " + jwtToken);
             }
             StringEntity entity = new StringEntity(jsonData, ContentType.APPLICATION_JSON);
             updateRequest.setEntity(entity);
-            ClassicHttpResponse response = httpClient.execute(updateRequest);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+            Exchange response = execute(httpClient, "PUT /api/view/{id}", updateRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
             if (statusCode == 200) {
                 try {
                     JSONObject jsonResponse = new JSONObject(responseString);
                     String message = jsonResponse.optString("message", "CV updated successfully");
-                    return new UpdateResult(true, message);
+                    return new UpdateResult(true, message, statusCode);
                 } catch (Exception e) {
-                    return new UpdateResult(true, "CV updated successfully (response parsing failed)");
+                    return new UpdateResult(true, "CV updated successfully (response parsing failed)", statusCode);
                 }
             } else {
                 String errorMessage = "Server Error (" + statusCode + "): " + responseString;
-                return new UpdateResult(false, errorMessage);
+                return new UpdateResult(false, errorMessage, statusCode);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -514,28 +1250,35 @@ public class HttpClientUtil {
     }
 
     public static DeleteResult deleteCV(String serverUrl, String cvId, String jwtToken) {
+        return deleteCV(serverUrl, cvId, jwtToken, null);
+    }
+
+    public static DeleteResult deleteCV(String serverUrl, String cvId, String jwtToken, String requestId) {
         String deleteUrl = serverUrl + "/api/cv/" + cvId;
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try (CloseableHttpClient httpClient = createClient()) {
             HttpDelete deleteRequest = new HttpDelete(deleteUrl);
+            if (requestId != null) {
+                deleteRequest.setHeader(RetryPolicy.IDEMPOTENCY_HEADER, requestId);
+            }
             if (jwtToken != null && !jwtToken.isEmpty()) {
                 deleteRequest.setHeader("Authorization", "Bearer " + jwtToken);
             }
-            ClassicHttpResponse response = httpClient.execute(deleteRequest);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+            Exchange response = execute(httpClient, "DELETE /api/cv/{id}", deleteRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
             if (statusCode == 200) {
                 try {
                     JSONObject jsonResponse = new JSONObject(responseString);
                     String message = jsonResponse.optString("message", "CV deleted successfully.");
-                    return new DeleteResult(true, message, null);
+                    return new DeleteResult(true, message, null, statusCode);
                 } catch (Exception jsonEx) {
                     System.err.println("Warning: Could not parse JSON response for delete: " + responseString);
-                    return new DeleteResult(true, "CV deleted (response: " + responseString + ")", null);
+                    return new DeleteResult(true, "CV deleted (response: " + responseString + ")", null, statusCode);
                 }
             } else {
                 String errorMessage = "Delete Error (" + statusCode + "): " + responseString;
                 System.err.println(errorMessage);
-                return new DeleteResult(false, null, errorMessage);
+                return new DeleteResult(false, null, errorMessage, statusCode);
             }
         } catch (Exception e) {
             String networkError = "Network Error during delete: " + e.getMessage();
@@ -547,11 +1290,11 @@ public class HttpClientUtil {
     public static AuditDetailResult fetchAuditLogById(String serverUrl, String logId) {
         String logUrl = serverUrl + "/api/audit_logs/" + logId;
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try (CloseableHttpClient httpClient = createClient()) {
             HttpGet logRequest = new HttpGet(logUrl);
-            ClassicHttpResponse response = httpClient.execute(logRequest);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+            Exchange response = execute(httpClient, "GET /api/audit_logs/{id}", logRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
 
             if (statusCode == 200) {
                 JSONObject jsonResponse = new JSONObject(responseString);
@@ -593,11 +1336,11 @@ public class HttpClientUtil {
 
         String logsUrl = urlBuilder.toString();
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try (CloseableHttpClient httpClient = createClient()) {
             HttpGet logsRequest = new HttpGet(logsUrl);
-            ClassicHttpResponse response = httpClient.execute(logsRequest);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+            Exchange response = execute(httpClient, "GET /api/audit_logs", logsRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
 
             if (statusCode == 200) {
                 JSONObject jsonResponse = new JSONObject(responseString);
@@ -630,11 +1373,11 @@ public class HttpClientUtil {
     public static DateRangeResult fetchAuditDateRange(String serverUrl) {
         String dateRangeUrl = serverUrl + "/api/audit_logs/date_range";
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try (CloseableHttpClient httpClient = createClient()) {
             HttpGet dateRangeRequest = new HttpGet(dateRangeUrl);
-            ClassicHttpResponse response = httpClient.execute(dateRangeRequest);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+            Exchange response = execute(httpClient, "GET /api/audit_logs/date_range", dateRangeRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
 
             if (statusCode == 200) {
                 JSONObject jsonResponse = new JSONObject(responseString);
@@ -656,39 +1399,68 @@ public class HttpClientUtil {
     public static FilterOptionsResult fetchFilterOptions(String serverUrl) {
         String optionsUrl = serverUrl + "/api/audit_logs/actions";
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try (CloseableHttpClient httpClient = createClient()) {
             HttpGet optionsRequest = new HttpGet(optionsUrl);
-            ClassicHttpResponse response = httpClient.execute(optionsRequest);
-            int statusCode = response.getCode();
-            String responseString = EntityUtils.toString(response.getEntity());
+            Exchange response = execute(httpClient, "GET /api/audit_logs/actions", optionsRequest);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
 
             if (statusCode == 200) {
-                JSONObject jsonResponse = new JSONObject(responseString);
+                return parseFilterOptions(responseString);
+            } else {
+                return new FilterOptionsResult(null, null, "Server Error (" + statusCode + "): " + responseString);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new FilterOptionsResult(null, null, "Network Error: " + e.getMessage());
+        }
+    }
 
-                List<String> actions = new ArrayList<>();
-                List<String> users = new ArrayList<>();
+    public static FilterOptionsResult parseFilterOptions(String responseString) {
+        JSONObject jsonResponse = new JSONObject(responseString);
 
-                if (jsonResponse.has("actions")) {
-                    JSONArray actionsArray = jsonResponse.getJSONArray("actions");
-                    for (int i = 0; i < actionsArray.length(); i++) {
-                        actions.add(actionsArray.getString(i));
-                    }
-                }
+        List<String> actions = new ArrayList<>();
+        List<String> users = new ArrayList<>();
 
-                if (jsonResponse.has("users")) {
-                    JSONArray usersArray = jsonResponse.getJSONArray("users");
-                    for (int i = 0; i < usersArray.length(); i++) {
-                        users.add(usersArray.getString(i));
-                    }
-                }
+        if (jsonResponse.has("actions")) {
+            JSONArray actionsArray = jsonResponse.getJSONArray("actions");
+            for (int i = 0; i < actionsArray.length(); i++) {
+                actions.add(actionsArray.getString(i));
+            }
+        }
+
+        if (jsonResponse.has("users")) {
+            JSONArray usersArray = jsonResponse.getJSONArray("users");
+            for (int i = 0; i < usersArray.length(); i++) {
+                users.add(usersArray.getString(i));
+            }
+        }
 
-                return new FilterOptionsResult(actions, users, null);
+        return new FilterOptionsResult(actions, users, null);
+    }
+
+    // GET that sends If-None-Match when an ETag from a previous response is known
+    public static ConditionalResult fetchConditional(String url, String etag) {
+        try (CloseableHttpClient httpClient = createClient()) {
+            HttpGet request = new HttpGet(url);
+            request.setHeader("Accept", "application/json");
+            if (etag != null && !etag.isEmpty()) {
+                request.setHeader("If-None-Match", etag);
+            }
+
+            Exchange response = execute(httpClient, "GET " + request.getPath().split("\\?")[0], request);
+            int statusCode = response.statusCode;
+            String responseString = response.body;
+            String responseEtag = response.getHeader("ETag");
+
+            if (statusCode == 200 || statusCode == 304) {
+                return new ConditionalResult(statusCode, responseString, responseEtag, null);
             } else {
-                return new FilterOptionsResult(null, null, "Server Error (" + statusCode + "): " + responseString);
+                return new ConditionalResult(statusCode, null, null, "Server Error (" + statusCode + "): " + responseString);
             }
         } catch (Exception e) {
             e.printStackTrace();
-            return new FilterOptionsResult(null, null, "Network Error: " + e.getMessage());
+            return new ConditionalResult(0, null, null, "Network Error: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
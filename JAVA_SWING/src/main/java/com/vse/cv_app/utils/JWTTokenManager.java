@@ -1,131 +1,338 @@
 package com.vse.cv_app.utils;
 
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Stores JWT tokens in {@code app_data.db}. The active token of each type is also held in
+ * memory, loaded once at startup, so {@link #getToken} and {@link #hasActiveToken} never
+ * touch the database; changes update memory immediately and are written through to SQLite
+ * in order by the {@link LocalStore} writer. {@link #flush} waits for pending writes, and the
+ * store finishes them when the JVM shuts down.
+ *
+ * <p>Tokens issued by a particular server are stored under {@link #serverTokenType}, so each
+ * server profile keeps its own login.
+ *
+ * <p>Replaced and expired tokens are deleted by a periodic compaction, which then returns
+ * the freed pages to the file system with an incremental vacuum.
+ */
 public class JWTTokenManager {
-    private static final String DB_URL = "jdbc:sqlite:app_data.db";
-    private Connection connection;
+    private static final long COMPACTION_INITIAL_DELAY_MINUTES = 1;
+    private static final long COMPACTION_INTERVAL_HOURS = 6;
+    private final LocalStore store;
+
+    private static final DateTimeFormatter SQLITE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // One slot per token type; the reference is swapped, never mutated, so reads need no lock
+    private static class TokenSlot {
+        volatile CachedToken current;
+    }
+
+    public static class CachedToken {
+        public final String value;
+        public final long expiresAtMillis;   // from the JWT exp claim, 0 when unknown
+        public final long receivedAtMillis;
+
+        CachedToken(String value, long receivedAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = decodeExpiryMillis(value);
+            this.receivedAtMillis = receivedAtMillis;
+        }
+    }
+
+    public static class CompactionResult {
+        public final int deletedInactive;
+        public final int deletedExpired;
+        public final long freedPages;
+        public final long remainingRows;
+        public final long elapsedMillis;
+
+        CompactionResult(int deletedInactive, int deletedExpired, long freedPages, long remainingRows, long elapsedMillis) {
+            this.deletedInactive = deletedInactive;
+            this.deletedExpired = deletedExpired;
+            this.freedPages = freedPages;
+            this.remainingRows = remainingRows;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("removed %d replaced and %d expired token(s), freed %d page(s), %d row(s) left, %d ms",
+                    deletedInactive, deletedExpired, freedPages, remainingRows, elapsedMillis);
+        }
+    }
+
+    private final Map<String, TokenSlot> activeTokens = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService compactionScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "token-store-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean available;
+    private volatile CompactionResult lastCompaction;
 
     public JWTTokenManager() {
+        store = LocalStore.getDefault();
         initializeDatabase();
+        loadActiveTokens();
+        if (available) {
+            compactionScheduler.scheduleWithFixedDelay(this::compact, TimeUnit.MINUTES.toMillis(COMPACTION_INITIAL_DELAY_MINUTES),
+                    TimeUnit.HOURS.toMillis(COMPACTION_INTERVAL_HOURS), TimeUnit.MILLISECONDS);
+        }
     }
 
     private void initializeDatabase() {
-        try {
-            connection = DriverManager.getConnection(DB_URL);
-            createTokenTable();
+        // The tokens table is created by the store's schema migrations
+        available = store.isAvailable();
+        if (available) {
             System.out.println("Database connected successfully!");
-        } catch (SQLException e) {
-            System.err.println("Database connection failed: " + e.getMessage());
+        } else {
+            System.err.println("Database connection failed: local store unavailable");
         }
     }
 
-    private void createTokenTable() {
-        String createTableSQL = """
-            CREATE TABLE IF NOT EXISTS tokens (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                token_type VARCHAR(50) NOT NULL,
-                token_value TEXT NOT NULL,
-                created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
-                expires_at DATETIME,
-                is_active BOOLEAN DEFAULT 1
-            )
+    // The newest active token of each type, the one the old per-call query returned
+    private void loadActiveTokens() {
+        if (!available) return;
+        String selectSQL = """
+            SELECT token_type, token_value, created_at FROM tokens
+            WHERE is_active = 1
+            ORDER BY created_at ASC, id ASC
         """;
 
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(createTableSQL);
-            System.out.println("Tokens table created/verified successfully!");
+        try {
+            store.read(session -> {
+                try (ResultSet rs = session.prepare(selectSQL).executeQuery()) {
+                    while (rs.next()) {
+                        slot(rs.getString("token_type")).current =
+                                new CachedToken(rs.getString("token_value"), parseCreatedAt(rs.getString("created_at")));
+                    }
+                }
+                return null;
+            });
         } catch (SQLException e) {
-            System.err.println("Error creating table: " + e.getMessage());
+            System.err.println("Error loading tokens: " + e.getMessage());
         }
     }
 
-    // Save JWT token
-    public boolean saveToken(String tokenType, String tokenValue, String expiresAt) {
-        String insertSQL = """
-            INSERT INTO tokens (token_type, token_value, expires_at) 
-            VALUES (?, ?, ?)
-        """;
+    private TokenSlot slot(String tokenType) {
+        return activeTokens.computeIfAbsent(tokenType, type -> new TokenSlot());
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(insertSQL)) {
-            pstmt.setString(1, tokenType);
-            pstmt.setString(2, tokenValue);
-            pstmt.setString(3, expiresAt);
+    // created_at is SQLite's CURRENT_TIMESTAMP, in UTC
+    private static long parseCreatedAt(String createdAt) {
+        try {
+            return LocalDateTime.parse(createdAt, SQLITE_TIMESTAMP).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (Exception e) {
+            return System.currentTimeMillis();
+        }
+    }
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
-        } catch (SQLException e) {
-            System.err.println("Error saving token: " + e.getMessage());
-            return false;
+    /**
+     * Reads the {@code exp} claim (seconds since the epoch) from the token's payload. The
+     * signature is not checked; the value only decides when to refresh.
+     */
+    public static long decodeExpiryMillis(String jwt) {
+        if (jwt == null) {
+            return 0;
+        }
+        String[] parts = jwt.split("\\.");
+        if (parts.length < 2) {
+            return 0;
+        }
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            return new JSONObject(payload).optLong("exp", 0) * 1000;
+        } catch (Exception e) {
+            return 0;
         }
     }
 
-    public String getToken(String tokenType) {
-        String selectSQL = """
-            SELECT token_value FROM tokens 
-            WHERE token_type = ? AND is_active = 1 
-            ORDER BY created_at DESC 
-            LIMIT 1
-        """;
+    // The expiry to store: the token's own exp claim when it has one, else what the caller supplied
+    private static String storedExpiry(CachedToken token, String expiresAt) {
+        if (token.expiresAtMillis > 0) {
+            return LocalDateTime.ofEpochSecond(token.expiresAtMillis / 1000, 0, ZoneOffset.UTC).format(SQLITE_TIMESTAMP);
+        }
+        return expiresAt;
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(selectSQL)) {
-            pstmt.setString(1, tokenType);
-            ResultSet rs = pstmt.executeQuery();
+    // Save JWT token; it becomes the current token of its type
+    public synchronized boolean saveToken(String tokenType, String tokenValue, String expiresAt) {
+        CachedToken token = new CachedToken(tokenValue, System.currentTimeMillis());
+        slot(tokenType).current = token;
+        String storedExpiry = storedExpiry(token, expiresAt);
+        return writeThrough(session -> insertToken(session, tokenType, tokenValue, storedExpiry), "Error saving token: ");
+    }
 
-            if (rs.next()) {
-                return rs.getString("token_value");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving token: " + e.getMessage());
-        }
-        return null;
+    public String getToken(String tokenType) {
+        CachedToken token = getCachedToken(tokenType);
+        return token != null ? token.value : null;
     }
 
-    public void deactivateTokens(String tokenType) {
-        String updateSQL = "UPDATE tokens SET is_active = 0 WHERE token_type = ?";
+    // The current token with its expiry and when it was received, or null
+    public CachedToken getCachedToken(String tokenType) {
+        TokenSlot slot = activeTokens.get(tokenType);
+        return slot != null ? slot.current : null;
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(updateSQL)) {
-            pstmt.setString(1, tokenType);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Error deactivating tokens: " + e.getMessage());
-        }
+    public synchronized void deactivateTokens(String tokenType) {
+        slot(tokenType).current = null;
+        writeThrough(session -> deactivateStoredTokens(session, tokenType), "Error deactivating tokens: ");
+    }
+
+    public synchronized boolean saveNewToken(String tokenType, String tokenValue, String expiresAt) {
+        CachedToken token = new CachedToken(tokenValue, System.currentTimeMillis());
+        slot(tokenType).current = token;
+        String storedExpiry = storedExpiry(token, expiresAt);
+        // Deactivate old tokens first; both run in the same write, so they commit together
+        return writeThrough(session -> {
+            deactivateStoredTokens(session, tokenType);
+            insertToken(session, tokenType, tokenValue, storedExpiry);
+        }, "Error saving token: ");
     }
 
-    public boolean saveNewToken(String tokenType, String tokenValue, String expiresAt) {
-        deactivateTokens(tokenType); // Deactivate old tokens first
-        return saveToken(tokenType, tokenValue, expiresAt);
+    // The token type under which a server's tokens are stored, e.g. access_token@https://host:8000
+    public static String serverTokenType(String tokenType, String serverUrl) {
+        return tokenType + "@" + ServerProfiles.normalizeUrl(serverUrl);
     }
 
+    // A token whose exp claim has passed is not active, even though it is still stored
     public boolean hasActiveToken(String tokenType) {
-        return getToken(tokenType) != null;
+        CachedToken token = getCachedToken(tokenType);
+        return token != null && (token.expiresAtMillis == 0 || token.expiresAtMillis > System.currentTimeMillis());
     }
 
-    public boolean clearAllTokens() {
-        String deleteSQL = "DELETE FROM tokens";
+    public synchronized boolean clearAllTokens() {
+        for (TokenSlot slot : activeTokens.values()) {
+            slot.current = null;
+        }
+        return writeThrough(session -> session.prepare("DELETE FROM tokens").executeUpdate(), "Error clearing tokens: ");
+    }
 
-        try (Statement stmt = connection.createStatement()) {
-            stmt.executeUpdate(deleteSQL);
-            return true;
-        } catch (SQLException e) {
-            System.err.println("Error clearing tokens: " + e.getMessage());
+    private interface TokenWrite {
+        void run(LocalStore.Session session) throws SQLException;
+    }
+
+    // Queues a database write behind earlier ones; false when there is no database to write to
+    private boolean writeThrough(TokenWrite write, String errorPrefix) {
+        if (!available || !store.isAvailable()) {
             return false;
         }
+        store.submitWrite(session -> {
+            write.run(session);
+            return null;
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                System.err.println(errorPrefix + error.getMessage());
+            }
+        });
+        return true;
     }
 
-    public void close() {
+    // Blocks until every queued write has reached the database
+    public void flush() {
+        store.flush();
+    }
+
+    /**
+     * Runs a compaction now, behind any queued writes, and waits for it. Returns null when
+     * there is no database or it failed.
+     */
+    public CompactionResult compact() {
+        if (!available) {
+            return null;
+        }
+        long start = System.nanoTime();
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed.");
-            }
+            CompactionResult result = store.write(session -> runCompaction(session, start));
+            lastCompaction = result;
+            System.out.println("Token store compaction: " + result);
+            return result;
         } catch (SQLException e) {
-            System.err.println("Error closing connection: " + e.getMessage());
+            System.err.println("Error compacting tokens: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public CompactionResult getLastCompaction() {
+        return lastCompaction;
+    }
+
+    // Runs on the writer thread. Active rows are only deleted once their expiry has passed.
+    private static CompactionResult runCompaction(LocalStore.Session session, long start) throws SQLException {
+        int deletedInactive = session.prepare("DELETE FROM tokens WHERE is_active = 0").executeUpdate();
+        int deletedExpired = session.prepare(
+                "DELETE FROM tokens WHERE expires_at IS NOT NULL AND datetime(expires_at) < datetime('now')").executeUpdate();
+
+        long freedPages = 0;
+        long remainingRows;
+        try (Statement stmt = session.createStatement()) {
+            if (queryLong(stmt, "PRAGMA auto_vacuum") == 2) {
+                long freeBefore = queryLong(stmt, "PRAGMA freelist_count");
+                // The driver steps the pragma once, which frees a single page, so repeat it
+                long free = freeBefore;
+                while (free > 0) {
+                    stmt.execute("PRAGMA incremental_vacuum");
+                    long after = queryLong(stmt, "PRAGMA freelist_count");
+                    if (after >= free) {
+                        break;
+                    }
+                    free = after;
+                }
+                freedPages = freeBefore - free;
+            }
+            remainingRows = queryLong(stmt, "SELECT COUNT(*) FROM tokens");
+        }
+        return new CompactionResult(deletedInactive, deletedExpired, freedPages, remainingRows,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static long queryLong(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
         }
     }
 
+    // Runs on the writer thread
+    private static void insertToken(LocalStore.Session session, String tokenType, String tokenValue, String expiresAt) throws SQLException {
+        String insertSQL = """
+            INSERT INTO tokens (token_type, token_value, expires_at) 
+            VALUES (?, ?, ?)
+        """;
+
+        PreparedStatement pstmt = session.prepare(insertSQL);
+        pstmt.setString(1, tokenType);
+        pstmt.setString(2, tokenValue);
+        pstmt.setString(3, expiresAt);
+        pstmt.executeUpdate();
+    }
+
+    // Runs on the writer thread
+    private static void deactivateStoredTokens(LocalStore.Session session, String tokenType) throws SQLException {
+        String updateSQL = "UPDATE tokens SET is_active = 0 WHERE token_type = ?";
+
+        PreparedStatement pstmt = session.prepare(updateSQL);
+        pstmt.setString(1, tokenType);
+        pstmt.executeUpdate();
+    }
+
+    // The connections belong to the shared store, so this only waits for pending writes
+    public void close() {
+        compactionScheduler.shutdownNow();
+        flush();
+    }
+
     public static void main(String[] args) {
         JWTTokenManager tokenManager = new JWTTokenManager();
 
@@ -146,6 +353,8 @@ public class JWTTokenManager {
         boolean hasToken = tokenManager.hasActiveToken("access_token");
         System.out.println("Has active token: " + hasToken);
 
+        System.out.println("Compaction: " + tokenManager.compact());
+
         tokenManager.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.vse.cv_app.utils;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Base for tables in the {@link LocalStore} that are written in bulk. A subclass names its
+ * table, key and columns and binds one row; inserts and upserts are then generated once,
+ * run as JDBC batches on cached statements, and committed in chunks of
+ * {@link #BATCH_SIZE} rows so a large sync neither holds the writer for long nor commits
+ * row by row.
+ *
+ * <p>The {@code Session} variants join the caller's write, for when the rows must commit
+ * together with other statements.
+ */
+public abstract class LocalDao<T> {
+    public static final int BATCH_SIZE = 500;
+
+    protected final LocalStore store;
+    private final String insertSQL;
+    private final String upsertSQL;
+
+    protected LocalDao(LocalStore store, String table, List<String> keyColumns, List<String> columns) {
+        this.store = store;
+        String placeholders = String.join(", ", Collections.nCopies(columns.size(), "?"));
+        this.insertSQL = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" + placeholders + ")";
+
+        List<String> updates = new ArrayList<>();
+        for (String column : columns) {
+            if (!keyColumns.contains(column)) {
+                updates.add(column + " = excluded." + column);
+            }
+        }
+        this.upsertSQL = insertSQL + " ON CONFLICT(" + String.join(", ", keyColumns) + ") DO " +
+                (updates.isEmpty() ? "NOTHING" : "UPDATE SET " + String.join(", ", updates));
+    }
+
+    // Binds the row's values in column order, starting at parameter 1
+    protected abstract void bind(PreparedStatement statement, T row) throws SQLException;
+
+    public int insertAll(Collection<T> rows) throws SQLException {
+        return writeChunked(rows, insertSQL);
+    }
+
+    public int upsertAll(Collection<T> rows) throws SQLException {
+        return writeChunked(rows, upsertSQL);
+    }
+
+    // Queued without waiting; the rows are group-committed with whatever else is pending
+    public CompletableFuture<Integer> upsertAllAsync(Collection<T> rows) {
+        List<T> copy = new ArrayList<>(rows);
+        return store.submitWrite(session -> executeBatch(session, copy, upsertSQL));
+    }
+
+    public int insertAll(LocalStore.Session session, Collection<T> rows) throws SQLException {
+        return executeBatch(session, rows, insertSQL);
+    }
+
+    public int upsertAll(LocalStore.Session session, Collection<T> rows) throws SQLException {
+        return executeBatch(session, rows, upsertSQL);
+    }
+
+    private int writeChunked(Collection<T> rows, String sql) throws SQLException {
+        List<T> list = new ArrayList<>(rows);
+        int written = 0;
+        for (int from = 0; from < list.size(); from += BATCH_SIZE) {
+            List<T> chunk = list.subList(from, Math.min(list.size(), from + BATCH_SIZE));
+            written += store.write(session -> executeBatch(session, chunk, sql));
+        }
+        return written;
+    }
+
+    private int executeBatch(LocalStore.Session session, Collection<T> rows, String sql) throws SQLException {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        PreparedStatement statement = session.prepare(sql);
+        for (T row : rows) {
+            bind(statement, row);
+            statement.addBatch();
+        }
+        int written = 0;
+        for (int count : statement.executeBatch()) {
+            // SUCCESS_NO_INFO is negative; count it as one row
+            written += count < 0 ? 1 : count;
+        }
+        return written;
+    }
+}
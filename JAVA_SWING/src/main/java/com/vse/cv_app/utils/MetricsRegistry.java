@@ -0,0 +1,179 @@
+package com.vse.cv_app.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint request metrics for the whole process: a latency histogram, request and
+ * error counts, and bytes sent and received. {@link HttpClientUtil} records every request
+ * it makes here; endpoints are named by method and route, e.g. {@code GET /api/view/{id}}.
+ * Each attempt of a retried request is recorded as a request of its own, and the retries
+ * are counted separately. A hedged request's duplicate is recorded too when it completes;
+ * the attempt cancelled in favour of the other is not.
+ */
+public class MetricsRegistry {
+
+    private static final Map<String, EndpointMetrics> ENDPOINTS = new ConcurrentSkipListMap<>();
+    private static volatile long since = System.currentTimeMillis();
+
+    private static class EndpointMetrics {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder bytesIn = new LongAdder();
+        final LongAdder bytesOut = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder recovered = new LongAdder();
+        final LongAdder hedged = new LongAdder();
+        final LongAdder hedgeWins = new LongAdder();
+        volatile String lastError;
+    }
+
+    public static class EndpointSnapshot {
+        public final String endpoint;
+        public final LatencyHistogram.Snapshot latency;
+        public final long errors;
+        public final long bytesIn;
+        public final long bytesOut;
+        public final long retries;
+        public final long recovered;    // requests that succeeded after at least one retry
+        public final long hedged;
+        public final long hedgeWins;    // hedged requests answered first by the duplicate
+        public final String lastError;
+
+        EndpointSnapshot(String endpoint, EndpointMetrics metrics) {
+            this.endpoint = endpoint;
+            this.latency = metrics.latency.snapshot();
+            this.errors = metrics.errors.sum();
+            this.bytesIn = metrics.bytesIn.sum();
+            this.bytesOut = metrics.bytesOut.sum();
+            this.retries = metrics.retries.sum();
+            this.recovered = metrics.recovered.sum();
+            this.hedged = metrics.hedged.sum();
+            this.hedgeWins = metrics.hedgeWins.sum();
+            this.lastError = metrics.lastError;
+        }
+
+        public long getRequests() {
+            return latency.count;
+        }
+
+        public double getPercentileMillis(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        public double getMeanMillis() {
+            return latency.getMeanMicros() / 1000.0;
+        }
+
+        public double getMaxMillis() {
+            return latency.maxMicros / 1000.0;
+        }
+    }
+
+    // error is null for a successful request
+    public static void record(String endpoint, long elapsedNanos, long bytesIn, long bytesOut, String error) {
+        EndpointMetrics metrics = ENDPOINTS.computeIfAbsent(endpoint, key -> new EndpointMetrics());
+        metrics.latency.record(elapsedNanos / 1000);
+        metrics.bytesIn.add(bytesIn);
+        metrics.bytesOut.add(bytesOut);
+        if (error != null) {
+            metrics.errors.increment();
+            metrics.lastError = error;
+        }
+    }
+
+    public static void recordRetry(String endpoint) {
+        ENDPOINTS.computeIfAbsent(endpoint, key -> new EndpointMetrics()).retries.increment();
+    }
+
+    public static void recordRecovered(String endpoint) {
+        ENDPOINTS.computeIfAbsent(endpoint, key -> new EndpointMetrics()).recovered.increment();
+    }
+
+    public static void recordHedge(String endpoint) {
+        ENDPOINTS.computeIfAbsent(endpoint, key -> new EndpointMetrics()).hedged.increment();
+    }
+
+    public static void recordHedgeWin(String endpoint) {
+        ENDPOINTS.computeIfAbsent(endpoint, key -> new EndpointMetrics()).hedgeWins.increment();
+    }
+
+    public static List<EndpointSnapshot> snapshot() {
+        List<EndpointSnapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<String, EndpointMetrics> entry : ENDPOINTS.entrySet()) {
+            snapshots.add(new EndpointSnapshot(entry.getKey(), entry.getValue()));
+        }
+        return snapshots;
+    }
+
+    public static long getSinceMillis() {
+        return since;
+    }
+
+    public static void reset() {
+        ENDPOINTS.clear();
+        since = System.currentTimeMillis();
+    }
+
+    // Summary plus every non-empty histogram bucket, so the distribution can be re-plotted elsewhere
+    public static JSONObject toJson() {
+        JSONObject root = new JSONObject();
+        root.put("since", Instant.ofEpochMilli(since).toString());
+        root.put("generated_at", Instant.now().toString());
+
+        JSONArray endpoints = new JSONArray();
+        for (EndpointSnapshot snapshot : snapshot()) {
+            JSONObject endpoint = new JSONObject();
+            endpoint.put("endpoint", snapshot.endpoint);
+            endpoint.put("requests", snapshot.getRequests());
+            endpoint.put("errors", snapshot.errors);
+            endpoint.put("bytes_in", snapshot.bytesIn);
+            endpoint.put("bytes_out", snapshot.bytesOut);
+            endpoint.put("retries", snapshot.retries);
+            endpoint.put("recovered", snapshot.recovered);
+            endpoint.put("hedged", snapshot.hedged);
+            endpoint.put("hedge_wins", snapshot.hedgeWins);
+            endpoint.put("mean_ms", snapshot.getMeanMillis());
+            endpoint.put("p50_ms", snapshot.getPercentileMillis(50));
+            endpoint.put("p90_ms", snapshot.getPercentileMillis(90));
+            endpoint.put("p95_ms", snapshot.getPercentileMillis(95));
+            endpoint.put("p99_ms", snapshot.getPercentileMillis(99));
+            endpoint.put("max_ms", snapshot.getMaxMillis());
+            endpoint.putOpt("last_error", snapshot.lastError);
+
+            JSONArray buckets = new JSONArray();
+            for (Map.Entry<Long, Long> bucket : snapshot.latency.getBuckets().entrySet()) {
+                buckets.put(new JSONArray().put(bucket.getKey()).put(bucket.getValue()));
+            }
+            endpoint.put("latency_buckets_us", buckets);
+            endpoints.put(endpoint);
+        }
+        root.put("endpoints", endpoints);
+        return root;
+    }
+
+    public static void dump(File target) throws IOException {
+        Files.writeString(target.toPath(), toJson().toString(2), StandardCharsets.UTF_8);
+    }
+
+    public static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
@@ -0,0 +1,73 @@
+package com.vse.cv_app.utils;
+
+import javax.net.ssl.SSLHandshakeException;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When {@link HttpClientUtil} repeats a failed request. Only requests that are safe to send
+ * twice are retried: GETs always, and PUTs or DELETEs that carry an {@link #IDEMPOTENCY_HEADER}
+ * so the server can recognise the repeat. A request is retried after a connection failure or
+ * a 429/502/503/504 response, waiting a random time up to the capped exponential backoff
+ * ("full jitter"), so clients that failed together do not retry together.
+ */
+public class RetryPolicy {
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+    public static final RetryPolicy DEFAULT = new RetryPolicy(3, 200, 2000);
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0);
+    // A Retry-After longer than this is not waited for; the error is returned instead
+    private static final long MAX_RETRY_AFTER_MS = 10_000;
+
+    public final int maxAttempts;
+    public final long baseDelayMillis;
+    public final long maxDelayMillis;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    // Random wait before retry number `retry` (1 for the first): uniform in [0, min(max, base * 2^(retry-1))]
+    public long backoffMillis(int retry) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(retry - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * The wait before retrying a response with {@code retryAfter} (the header value, may be
+     * null), or -1 when the server asked for longer than is worth blocking the caller.
+     */
+    public long backoffMillis(int retry, String retryAfter) {
+        long backoff = backoffMillis(retry);
+        if (retryAfter == null) {
+            return backoff;
+        }
+        try {
+            long requested = Long.parseLong(retryAfter.trim()) * 1000;
+            return requested > MAX_RETRY_AFTER_MS ? -1 : Math.max(backoff, requested);
+        } catch (NumberFormatException e) {
+            // An HTTP-date; the jittered backoff is a reasonable stand-in
+            return backoff;
+        }
+    }
+
+    public static boolean isRetryableStatus(int statusCode) {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    // Resets, timeouts and refused connections may pass; a bad host name or certificate will not
+    public static boolean isRetryable(IOException e) {
+        return !(e instanceof UnknownHostException
+                || e instanceof SSLHandshakeException
+                || e instanceof SSLPeerUnverifiedException);
+    }
+
+    // A fresh key for one logical write; reuse it for every attempt of that write
+    public static String newRequestId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,375 @@
+package com.vse.cv_app.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Named searches kept in {@code app_data.db} and re-run in the background. Each run pages
+ * through the newest results (up to {@link #MAX_TRACKED_RESULTS}) over the pooled client and
+ * compares their ids with the set stored by the previous run; ids not seen before are
+ * flagged as new until the user opens them with {@link #markSeen}. The first run of a search
+ * only records the baseline, so nothing is reported as new.
+ *
+ * <p>Searches belong to the server they were saved against; each instance lists and runs
+ * only its own server's searches.
+ */
+public class SavedSearches {
+    public static final long DEFAULT_REFRESH_INTERVAL_MINUTES = 30;
+    public static final int MAX_TRACKED_RESULTS = 2000;
+    private static final int PAGE_SIZE = 500;  // server MAX_PAGE_SIZE
+
+    private final LocalStore store = LocalStore.getDefault();
+    private final String serverUrl;
+    private boolean available;
+
+    public static class SavedSearch {
+        public final long id;
+        public final String name;
+        public final HttpClientUtil.SearchParameters params;
+        public final long lastRunAt;     // 0 until the first refresh
+        public final int lastTotal;
+        public final int newCount;       // flagged results the user has not opened yet
+        public final String lastError;
+
+        SavedSearch(long id, String name, HttpClientUtil.SearchParameters params, long lastRunAt, int lastTotal,
+                    int newCount, String lastError) {
+            this.id = id;
+            this.name = name;
+            this.params = params;
+            this.lastRunAt = lastRunAt;
+            this.lastTotal = lastTotal;
+            this.newCount = newCount;
+            this.lastError = lastError;
+        }
+
+        @Override
+        public String toString() {
+            return newCount > 0 ? name + "  (" + newCount + " new)" : name;
+        }
+    }
+
+    public static class RefreshResult {
+        public String name;
+        public int totalResults;
+        public int tracked;
+        public int newResults;
+        public int removed;
+        public boolean baseline;
+        public long elapsedMillis;
+        public String errorMessage;
+    }
+
+    public SavedSearches(String serverUrl) {
+        this.serverUrl = ServerProfiles.normalizeUrl(serverUrl);
+        initializeDatabase();
+    }
+
+    // The saved search tables are created by the store's schema migrations
+    private void initializeDatabase() {
+        available = store.isAvailable();
+        if (!available) {
+            System.err.println("Saved searches unavailable: local store unavailable");
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    // Saving under an existing name replaces its parameters and starts a new baseline
+    public SavedSearch save(String name, HttpClientUtil.SearchParameters params) {
+        if (!available) return null;
+        String json = toJson(params).toString();
+        try {
+            long id = store.write(session -> {
+                PreparedStatement upsert = session.prepare(
+                        "INSERT INTO saved_searches (server, name, params, created_at) VALUES (?, ?, ?, ?) " +
+                                "ON CONFLICT(server, name) DO UPDATE SET params = excluded.params, last_run_at = 0, last_total = 0, last_error = NULL");
+                upsert.setString(1, serverUrl);
+                upsert.setString(2, name);
+                upsert.setString(3, json);
+                upsert.setLong(4, System.currentTimeMillis());
+                upsert.executeUpdate();
+                PreparedStatement select = session.prepare("SELECT id FROM saved_searches WHERE server = ? AND name = ?");
+                select.setString(1, serverUrl);
+                select.setString(2, name);
+                long savedId;
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    savedId = rs.getLong("id");
+                }
+                deleteResults(session, savedId);
+                return savedId;
+            });
+            return new SavedSearch(id, name, fromJson(new JSONObject(json)), 0, 0, 0, null);
+        } catch (SQLException e) {
+            System.err.println("Error saving search: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void delete(long id) {
+        if (!available) return;
+        try {
+            store.write(session -> {
+                deleteResults(session, id);
+                PreparedStatement pstmt = session.prepare("DELETE FROM saved_searches WHERE id = ?");
+                pstmt.setLong(1, id);
+                return pstmt.executeUpdate();
+            });
+        } catch (SQLException e) {
+            System.err.println("Error deleting saved search: " + e.getMessage());
+        }
+    }
+
+    public List<SavedSearch> list() {
+        List<SavedSearch> searches = new ArrayList<>();
+        if (!available) return searches;
+        String sql = """
+            SELECT s.id, s.name, s.params, s.last_run_at, s.last_total, s.last_error,
+                   (SELECT COUNT(*) FROM saved_search_results r WHERE r.search_id = s.id AND r.is_new = 1) AS new_count
+            FROM saved_searches s
+            WHERE s.server = ?
+            ORDER BY s.name COLLATE NOCASE
+        """;
+        try {
+            store.read(session -> {
+                PreparedStatement select = session.prepare(sql);
+                select.setString(1, serverUrl);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        searches.add(new SavedSearch(rs.getLong("id"), rs.getString("name"),
+                                fromJson(new JSONObject(rs.getString("params"))), rs.getLong("last_run_at"),
+                                rs.getInt("last_total"), rs.getInt("new_count"), rs.getString("last_error")));
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error reading saved searches: " + e.getMessage());
+        }
+        return searches;
+    }
+
+    public int getTotalNewCount() {
+        int total = 0;
+        for (SavedSearch search : list()) {
+            total += search.newCount;
+        }
+        return total;
+    }
+
+    /**
+     * Re-runs every saved search, one at a time so a large list does not crowd out
+     * interactive searches on the server's pool.
+     */
+    public List<RefreshResult> refreshAll() {
+        List<RefreshResult> results = new ArrayList<>();
+        for (SavedSearch search : list()) {
+            results.add(refresh(search));
+        }
+        return results;
+    }
+
+    public RefreshResult refresh(SavedSearch search) {
+        RefreshResult result = new RefreshResult();
+        result.name = search.name;
+        long start = System.currentTimeMillis();
+        if (!available) {
+            result.errorMessage = "Saved searches unavailable";
+            return result;
+        }
+
+        // Newest first, so anything uploaded since the last run is inside the tracked window
+        HttpClientUtil.SearchParameters params = new HttpClientUtil.SearchParameters(search.params);
+        params.perPage = PAGE_SIZE;
+        params.sortBy = "upload_date";
+        params.sortOrder = "desc";
+
+        Map<String, JSONObject> fetched = new LinkedHashMap<>();
+        int totalPages = 1;
+        for (int page = 1; page <= totalPages && fetched.size() < MAX_TRACKED_RESULTS; page++) {
+            params.page = page;
+            HttpClientUtil.SearchResult response = HttpClientUtil.searchCVsPooled(serverUrl, params, null);
+            if (response.errorMessage != null) {
+                result.errorMessage = response.errorMessage;
+                break;
+            }
+            JSONObject body = new JSONObject(response.jsonResponse);
+            result.totalResults = body.optInt("total", 0);
+            totalPages = body.optInt("total_pages", 1);
+            JSONArray rows = body.optJSONArray("results");
+            if (rows == null || rows.isEmpty()) {
+                break;
+            }
+            for (int i = 0; i < rows.length() && fetched.size() < MAX_TRACKED_RESULTS; i++) {
+                JSONObject row = rows.getJSONObject(i);
+                fetched.putIfAbsent(row.getString("id"), row);
+            }
+        }
+
+        if (result.errorMessage != null) {
+            recordError(search.id, result.errorMessage);
+        } else {
+            storeRun(search, fetched, result);
+        }
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    // Reads the previous id set and writes the new one in a single write, so runs cannot interleave
+    private void storeRun(SavedSearch search, Map<String, JSONObject> fetched, RefreshResult result) {
+        long now = System.currentTimeMillis();
+        result.baseline = search.lastRunAt == 0;
+        try {
+            int removed = store.write(session -> {
+                Set<String> stored = new HashSet<>();
+                PreparedStatement select = session.prepare("SELECT cv_id FROM saved_search_results WHERE search_id = ?");
+                select.setLong(1, search.id);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        stored.add(rs.getString("cv_id"));
+                    }
+                }
+
+                PreparedStatement insert = session.prepare(
+                        "INSERT INTO saved_search_results (search_id, cv_id, row, first_seen, is_new) VALUES (?, ?, ?, ?, ?)");
+                PreparedStatement update = session.prepare(
+                        "UPDATE saved_search_results SET row = ? WHERE search_id = ? AND cv_id = ?");
+                PreparedStatement remove = session.prepare(
+                        "DELETE FROM saved_search_results WHERE search_id = ? AND cv_id = ?");
+                int newResults = 0;
+                for (Map.Entry<String, JSONObject> entry : fetched.entrySet()) {
+                    if (stored.remove(entry.getKey())) {
+                        update.setString(1, entry.getValue().toString());
+                        update.setLong(2, search.id);
+                        update.setString(3, entry.getKey());
+                        update.addBatch();
+                    } else {
+                        insert.setLong(1, search.id);
+                        insert.setString(2, entry.getKey());
+                        insert.setString(3, entry.getValue().toString());
+                        insert.setLong(4, now);
+                        insert.setInt(5, result.baseline ? 0 : 1);
+                        insert.addBatch();
+                        if (!result.baseline) {
+                            newResults++;
+                        }
+                    }
+                }
+                // Whatever is left no longer matches (or fell out of the tracked window)
+                for (String id : stored) {
+                    remove.setLong(1, search.id);
+                    remove.setString(2, id);
+                    remove.addBatch();
+                }
+                insert.executeBatch();
+                update.executeBatch();
+                remove.executeBatch();
+
+                PreparedStatement pstmt = session.prepare(
+                        "UPDATE saved_searches SET last_run_at = ?, last_total = ?, last_error = NULL WHERE id = ?");
+                pstmt.setLong(1, now);
+                pstmt.setInt(2, result.totalResults);
+                pstmt.setLong(3, search.id);
+                pstmt.executeUpdate();
+                result.newResults = newResults;
+                return stored.size();
+            });
+            result.tracked = fetched.size();
+            result.removed = removed;
+        } catch (SQLException e) {
+            System.err.println("Error storing saved search results: " + e.getMessage());
+            result.errorMessage = "Database Error: " + e.getMessage();
+            result.newResults = 0;
+        }
+    }
+
+    // Results flagged new for the search, newest first, in /api/search row format
+    public List<JSONObject> getNewResults(long searchId) {
+        List<JSONObject> rows = new ArrayList<>();
+        if (!available) return rows;
+        try {
+            store.read(session -> {
+                PreparedStatement pstmt = session.prepare(
+                        "SELECT row FROM saved_search_results WHERE search_id = ? AND is_new = 1 ORDER BY first_seen DESC");
+                pstmt.setLong(1, searchId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(new JSONObject(rs.getString("row")));
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error reading saved search results: " + e.getMessage());
+        }
+        return rows;
+    }
+
+    public void markSeen(long searchId) {
+        if (!available) return;
+        try {
+            store.write(session -> {
+                PreparedStatement pstmt = session.prepare(
+                        "UPDATE saved_search_results SET is_new = 0 WHERE search_id = ? AND is_new = 1");
+                pstmt.setLong(1, searchId);
+                return pstmt.executeUpdate();
+            });
+        } catch (SQLException e) {
+            System.err.println("Error updating saved search results: " + e.getMessage());
+        }
+    }
+
+    private void recordError(long searchId, String errorMessage) {
+        store.submitWrite(session -> {
+            PreparedStatement pstmt = session.prepare("UPDATE saved_searches SET last_error = ? WHERE id = ?");
+            pstmt.setString(1, errorMessage);
+            pstmt.setLong(2, searchId);
+            return pstmt.executeUpdate();
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                System.err.println("Error updating saved search: " + error.getMessage());
+            }
+        });
+    }
+
+    private static void deleteResults(LocalStore.Session session, long searchId) throws SQLException {
+        PreparedStatement pstmt = session.prepare("DELETE FROM saved_search_results WHERE search_id = ?");
+        pstmt.setLong(1, searchId);
+        pstmt.executeUpdate();
+    }
+
+    // Paging is not part of a saved search
+    private static JSONObject toJson(HttpClientUtil.SearchParameters params) {
+        JSONObject json = new JSONObject();
+        json.put("query", params.query == null ? "" : params.query);
+        json.put("per_page", params.perPage);
+        json.putOpt("date_from", params.dateFrom);
+        json.putOpt("date_to", params.dateTo);
+        json.putOpt("sort_by", params.sortBy);
+        json.putOpt("sort_order", params.sortOrder);
+        json.putOpt("logic", params.logic);
+        return json;
+    }
+
+    private static HttpClientUtil.SearchParameters fromJson(JSONObject json) {
+        HttpClientUtil.SearchParameters params = new HttpClientUtil.SearchParameters();
+        params.query = json.optString("query", "");
+        params.perPage = json.optInt("per_page", params.perPage);
+        params.dateFrom = json.optString("date_from", null);
+        params.dateTo = json.optString("date_to", null);
+        params.sortBy = json.optString("sort_by", params.sortBy);
+        params.sortOrder = json.optString("sort_order", params.sortOrder);
+        params.logic = json.optString("logic", params.logic);
+        return params;
+    }
+}
@@ -0,0 +1,272 @@
+package com.vse.cv_app.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Exports every result of a search to CSV or JSON by walking the {@code /api/search} pages
+ * for the given parameters. The next page is fetched while the current one is written, and
+ * at most those two pages are held in memory, so exports of any size run in bounded memory.
+ *
+ * <p>Rows go to a temporary file next to the target, which replaces the target only when
+ * the export finishes; a cancelled or failed export leaves the target untouched.</p>
+ */
+public class SearchExporter {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_JSON = "json";
+
+    // The server's MAX_PAGE_SIZE for /api/search
+    private static final int EXPORT_PAGE_SIZE = 500;
+
+    private static final String[] CSV_HEADER = {"ID", "Name", "Email", "Phone", "Filename", "Upload Date"};
+
+    // Fetches one page of results; the default reads /api/search
+    public interface PageSource {
+        HttpClientUtil.SearchResult fetch(HttpClientUtil.SearchParameters pageParams, HttpClientUtil.RequestHandle handle);
+    }
+
+    // Called on the export thread after each page is written
+    public interface ExportListener {
+        void onProgress(ExportProgress progress);
+    }
+
+    public static class ExportProgress {
+        public final int rowsWritten;
+        public final int totalResults;
+        public final long bytesWritten;
+        public final long elapsedMillis;
+
+        ExportProgress(int rowsWritten, int totalResults, long bytesWritten, long elapsedMillis) {
+            this.rowsWritten = rowsWritten;
+            this.totalResults = totalResults;
+            this.bytesWritten = bytesWritten;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis > 0 ? rowsWritten * 1000.0 / elapsedMillis : 0;
+        }
+
+        public int getPercent() {
+            return totalResults > 0 ? (int) Math.min(100, rowsWritten * 100L / totalResults) : 0;
+        }
+    }
+
+    public static class ExportResult {
+        public final ExportProgress progress;
+        public final boolean cancelled;
+        public final String errorMessage;
+
+        ExportResult(ExportProgress progress, boolean cancelled, String errorMessage) {
+            this.progress = progress;
+            this.cancelled = cancelled;
+            this.errorMessage = errorMessage;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private SearchExporter() {
+    }
+
+    // Blocks until the export finishes; cancel through the handle from another thread
+    public static ExportResult export(String serverUrl, HttpClientUtil.SearchParameters params, String format,
+                                      File target, HttpClientUtil.RequestHandle handle, ExportListener listener) {
+        return export((pageParams, pageHandle) -> HttpClientUtil.searchCVs(serverUrl, pageParams, pageHandle),
+                params, format, target, handle, listener);
+    }
+
+    public static ExportResult export(PageSource source, HttpClientUtil.SearchParameters params, String format,
+                                      File target, HttpClientUtil.RequestHandle handle, ExportListener listener) {
+        long start = System.currentTimeMillis();
+        boolean csv = FORMAT_CSV.equalsIgnoreCase(format);
+        HttpClientUtil.RequestHandle requestHandle = handle != null ? handle : new HttpClientUtil.RequestHandle();
+        ExecutorService fetcher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "search-export-fetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        File temp = null;
+        int rowsWritten = 0;
+        int totalResults = 0;
+        boolean cancelled = false;
+        String errorMessage = null;
+        CountingOutputStream counter = null;
+        try {
+            File directory = target.getAbsoluteFile().getParentFile();
+            temp = File.createTempFile(target.getName(), ".part", directory);
+
+            counter = new CountingOutputStream(Files.newOutputStream(temp.toPath()));
+            // Result pages are sorted server-side, so a row can shift onto the next page if
+            // a CV is uploaded mid-export; ids already written are skipped
+            Set<String> writtenIds = new HashSet<>();
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(counter, StandardCharsets.UTF_8), 64 * 1024)) {
+                writer.write(csv ? csvLine(CSV_HEADER) : "[\n");
+
+                Future<HttpClientUtil.SearchResult> pending = fetcher.submit(() ->
+                        source.fetch(pageParams(params, 1), requestHandle));
+                int page = 1;
+                int totalPages = 1;
+                while (pending != null) {
+                    HttpClientUtil.SearchResult result = pending.get();
+                    if (requestHandle.isCancelled() || result.errorMessage != null) {
+                        cancelled = requestHandle.isCancelled();
+                        errorMessage = cancelled ? null : result.errorMessage;
+                        break;
+                    }
+
+                    JSONObject response = new JSONObject(result.jsonResponse);
+                    totalPages = response.optInt("total_pages", 1);
+                    totalResults = response.optInt("total", totalResults);
+
+                    // Start the next request before writing this page
+                    int nextPage = ++page;
+                    pending = nextPage <= totalPages
+                            ? fetcher.submit(() -> source.fetch(pageParams(params, nextPage), requestHandle))
+                            : null;
+
+                    JSONArray rows = response.optJSONArray("results");
+                    if (rows == null || rows.isEmpty()) {
+                        // A page came back short (e.g. CVs deleted mid-export); nothing left to read
+                        if (pending != null) {
+                            pending.cancel(true);
+                            pending = null;
+                        }
+                        continue;
+                    }
+                    for (int i = 0; i < rows.length(); i++) {
+                        JSONObject row = rows.getJSONObject(i);
+                        if (!writtenIds.add(row.optString("id"))) {
+                            continue;
+                        }
+                        if (csv) {
+                            writer.write(csvLine(new String[]{
+                                    row.optString("id", ""),
+                                    row.optString("name", ""),
+                                    row.optString("email", ""),
+                                    row.optString("phone", ""),
+                                    row.optString("filename", ""),
+                                    row.optString("upload_date", "")
+                            }));
+                        } else {
+                            writer.write(rowsWritten == 0 ? "  " : ",\n  ");
+                            writer.write(row.toString());
+                        }
+                        rowsWritten++;
+                    }
+
+                    writer.flush();
+                    if (listener != null) {
+                        listener.onProgress(new ExportProgress(rowsWritten, totalResults, counter.count,
+                                System.currentTimeMillis() - start));
+                    }
+                }
+
+                if (!csv) {
+                    writer.write(rowsWritten == 0 ? "]\n" : "\n]\n");
+                }
+            }
+
+            boolean complete = !cancelled && errorMessage == null;
+            return finish(temp, complete ? target : null, rowsWritten, totalResults, counter.count, start,
+                    cancelled, errorMessage);
+        } catch (Exception e) {
+            if (requestHandle.isCancelled()) {
+                return finish(temp, null, rowsWritten, totalResults, counter != null ? counter.count : 0, start, true, null);
+            }
+            e.printStackTrace();
+            return finish(temp, null, rowsWritten, totalResults, counter != null ? counter.count : 0, start, false,
+                    "Export Error: " + e.getMessage());
+        } finally {
+            fetcher.shutdownNow();
+        }
+    }
+
+    // Moves the finished file into place, or discards it when target is null
+    private static ExportResult finish(File temp, File target, int rowsWritten, int totalResults, long bytesWritten,
+                                       long start, boolean cancelled, String errorMessage) {
+        ExportProgress progress = new ExportProgress(rowsWritten, totalResults, bytesWritten,
+                System.currentTimeMillis() - start);
+        if (temp == null) {
+            return new ExportResult(progress, cancelled, errorMessage);
+        }
+        try {
+            if (target != null) {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(temp.toPath());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            if (errorMessage == null && !cancelled) {
+                errorMessage = "Export Error: could not write " + target.getName() + ": " + e.getMessage();
+            }
+        }
+        return new ExportResult(progress, cancelled, errorMessage);
+    }
+
+    private static HttpClientUtil.SearchParameters pageParams(HttpClientUtil.SearchParameters params, int page) {
+        HttpClientUtil.SearchParameters pageParams = new HttpClientUtil.SearchParameters(params);
+        pageParams.page = page;
+        pageParams.perPage = EXPORT_PAGE_SIZE;
+        return pageParams;
+    }
+
+    private static String csvLine(String[] values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            String value = values[i];
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.append("\r\n").toString();
+    }
+
+    public static String formatProgress(ExportProgress progress) {
+        String total = progress.totalResults > 0 ? " of " + progress.totalResults : "";
+        return String.format("%d%s rows, %.1f KB, %.0f rows/s", progress.rowsWritten, total,
+                progress.bytesWritten / 1024.0, progress.getRowsPerSecond());
+    }
+}
@@ -0,0 +1,80 @@
+package com.vse.cv_app.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.List;
+
+/**
+ * One page of search results flattened into a single row-major {@code String[]}
+ * (six cells per row) instead of an object per row, so large pages cost one array
+ * and the strings themselves. Table models read cells straight from it and only
+ * build per-row objects for rows that are actually used.
+ */
+public class SearchResultRows {
+
+    public static final String[] FIELDS = {"id", "name", "email", "phone", "filename", "upload_date"};
+    public static final int ID = 0, NAME = 1, EMAIL = 2, PHONE = 3, FILENAME = 4, UPLOAD_DATE = 5;
+
+    private static final SearchResultRows EMPTY = new SearchResultRows(new String[0], 0);
+
+    private final String[] cells;
+    private final int rowCount;
+
+    private SearchResultRows(String[] cells, int rowCount) {
+        this.cells = cells;
+        this.rowCount = rowCount;
+    }
+
+    public static SearchResultRows empty() {
+        return EMPTY;
+    }
+
+    public static SearchResultRows fromResults(JSONArray results) {
+        if (results == null || results.length() == 0) {
+            return EMPTY;
+        }
+        int rows = results.length();
+        String[] cells = new String[rows * FIELDS.length];
+        for (int row = 0; row < rows; row++) {
+            fill(cells, row, results.getJSONObject(row));
+        }
+        return new SearchResultRows(cells, rows);
+    }
+
+    public static SearchResultRows fromObjects(List<JSONObject> results) {
+        if (results == null || results.isEmpty()) {
+            return EMPTY;
+        }
+        String[] cells = new String[results.size() * FIELDS.length];
+        for (int row = 0; row < results.size(); row++) {
+            fill(cells, row, results.get(row));
+        }
+        return new SearchResultRows(cells, results.size());
+    }
+
+    // Wraps cells already laid out row-major, FIELDS.length per row
+    static SearchResultRows of(String[] cells, int rowCount) {
+        return rowCount == 0 ? EMPTY : new SearchResultRows(cells, rowCount);
+    }
+
+    private static void fill(String[] cells, int row, JSONObject item) {
+        int base = row * FIELDS.length;
+        cells[base + ID] = item.getString("id");
+        for (int column = 1; column < FIELDS.length; column++) {
+            cells[base + column] = item.optString(FIELDS[column], "N/A");
+        }
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    public String get(int row, int column) {
+        return cells[row * FIELDS.length + column];
+    }
+
+    public String getId(int row) {
+        return get(row, ID);
+    }
+}
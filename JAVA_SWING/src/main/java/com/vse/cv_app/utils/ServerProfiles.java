@@ -0,0 +1,179 @@
+package com.vse.cv_app.utils;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Named servers the client can talk to (e.g. staging and production), kept in
+ * {@code app_data.db}. One profile is active at a time. Everything else that is per server is
+ * keyed by the profile's URL: the pooled HTTP client, the stored token
+ * ({@link JWTTokenManager#serverTokenType}) and the local mirror and saved-search tables, so
+ * switching profiles leaves the other server's state where it was.
+ *
+ * <p>A profile may list read replicas of its server; see {@link ReplicaRouter}.
+ */
+public class ServerProfiles {
+    public static final String DEFAULT_PROFILE_NAME = "Production";
+    // The server the client was hard-wired to before profiles existed
+    public static final String DEFAULT_SERVER_URL = "http://13.250.35.49:8000";
+
+    private final LocalStore store = LocalStore.getDefault();
+
+    public static class Profile {
+        public final String name;
+        public final String url;
+        public final List<String> replicas;
+        public final boolean active;
+
+        Profile(String name, String url, List<String> replicas, boolean active) {
+            this.name = name;
+            this.url = url;
+            this.replicas = replicas;
+            this.active = active;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + url + ")";
+        }
+    }
+
+    public boolean isAvailable() {
+        return store.isAvailable();
+    }
+
+    // Without a database there is just the default profile, kept in memory
+    public List<Profile> list() {
+        List<Profile> profiles = new ArrayList<>();
+        if (store.isAvailable()) {
+            try {
+                store.read(session -> {
+                    try (ResultSet rs = session.prepare(
+                            "SELECT name, url, replicas, is_active FROM server_profiles ORDER BY name COLLATE NOCASE").executeQuery()) {
+                        while (rs.next()) {
+                            profiles.add(new Profile(rs.getString("name"), rs.getString("url"),
+                                    parseReplicas(rs.getString("replicas")), rs.getInt("is_active") == 1));
+                        }
+                    }
+                    return null;
+                });
+            } catch (SQLException e) {
+                System.err.println("Error reading server profiles: " + e.getMessage());
+            }
+        }
+        if (profiles.isEmpty()) {
+            profiles.add(new Profile(DEFAULT_PROFILE_NAME, DEFAULT_SERVER_URL, List.of(), true));
+        }
+        return profiles;
+    }
+
+    public Profile getActive() {
+        List<Profile> profiles = list();
+        for (Profile profile : profiles) {
+            if (profile.active) {
+                return profile;
+            }
+        }
+        return profiles.get(0);
+    }
+
+    public Profile find(String name) {
+        for (Profile profile : list()) {
+            if (profile.name.equals(name)) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    public Profile save(String name, String url) {
+        return save(name, url, List.of());
+    }
+
+    // Adds a profile or changes an existing one; returns null if a URL is not http(s)
+    public Profile save(String name, String url, List<String> replicas) {
+        String normalized = normalizeUrl(url);
+        List<String> replicaUrls = new ArrayList<>();
+        for (String replica : replicas) {
+            String replicaUrl = normalizeUrl(replica);
+            if (!replicaUrl.isEmpty() && !replicaUrl.equals(normalized)) {
+                replicaUrls.add(replicaUrl);
+            }
+        }
+        if (name == null || name.isBlank() || !isHttpUrl(normalized) || !replicaUrls.stream().allMatch(ServerProfiles::isHttpUrl)) {
+            return null;
+        }
+        try {
+            store.write(session -> {
+                PreparedStatement upsert = session.prepare(
+                        "INSERT INTO server_profiles (name, url, replicas, is_active, created_at) VALUES (?, ?, ?, 0, ?) " +
+                                "ON CONFLICT(name) DO UPDATE SET url = excluded.url, replicas = excluded.replicas");
+                upsert.setString(1, name.trim());
+                upsert.setString(2, normalized);
+                upsert.setString(3, String.join(",", replicaUrls));
+                upsert.setLong(4, System.currentTimeMillis());
+                return upsert.executeUpdate();
+            });
+            return find(name.trim());
+        } catch (SQLException e) {
+            System.err.println("Error saving server profile: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // The active profile cannot be deleted; the server's token and caches stay until it is re-added
+    public boolean delete(String name) {
+        try {
+            return store.write(session -> {
+                PreparedStatement delete = session.prepare("DELETE FROM server_profiles WHERE name = ? AND is_active = 0");
+                delete.setString(1, name);
+                return delete.executeUpdate() > 0;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error deleting server profile: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void setActive(String name) {
+        try {
+            store.write(session -> {
+                PreparedStatement update = session.prepare("UPDATE server_profiles SET is_active = (name = ?)");
+                update.setString(1, name);
+                return update.executeUpdate();
+            });
+        } catch (SQLException e) {
+            System.err.println("Error switching server profile: " + e.getMessage());
+        }
+    }
+
+    // Splits a comma-separated list of URLs, e.g. as typed by the user
+    public static List<String> parseReplicas(String text) {
+        List<String> replicas = new ArrayList<>();
+        if (text != null) {
+            for (String part : text.split(",")) {
+                String url = normalizeUrl(part);
+                if (!url.isEmpty()) {
+                    replicas.add(url);
+                }
+            }
+        }
+        return replicas;
+    }
+
+    private static boolean isHttpUrl(String url) {
+        return url.startsWith("http://") || url.startsWith("https://");
+    }
+
+    // Trimmed and without a trailing slash, so the same server always gives the same key
+    public static String normalizeUrl(String url) {
+        String normalized = url == null ? "" : url.trim();
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,374 @@
+package com.vse.cv_app.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A boolean query over the server's search index: terms, optionally scoped to an index
+ * field ({@code skill:java}), combined with nested AND/OR groups. Build one in code:
+ *
+ * <pre>
+ * StructuredQuery.and()
+ *         .field("skill", "java")
+ *         .group(StructuredQuery.or().field("position", "engineer").field("position", "developer"))
+ *         .experienceRange(3, 6)
+ * </pre>
+ *
+ * or parse the same thing from text with {@link #parse}:
+ * {@code skill:java AND (position:engineer OR position:developer) AND experience:3-6}.
+ *
+ * <p>Terms are matched the way {@code /api/search} matches them, as substrings of the
+ * index keys, so {@code experience_years:1} also matches 10-19 years.</p>
+ */
+public class StructuredQuery {
+
+    public static final String AND = "and";
+    public static final String OR = "or";
+
+    // Index fields the server writes (index:<field>:<value>) plus the aliases accepted when parsing
+    private static final Set<String> FIELDS = Set.of("name", "email", "gender", "type", "skill", "skill_type",
+            "education", "institution", "experience_years", "position", "filename");
+    private static final String EXPERIENCE_FIELD = "experience_years";
+
+    private final String operator;
+    private final String term;                  // set for leaves
+    private final List<StructuredQuery> children;
+
+    private StructuredQuery(String operator, String term, List<StructuredQuery> children) {
+        this.operator = operator;
+        this.term = term;
+        this.children = children;
+    }
+
+    public static StructuredQuery and() {
+        return new StructuredQuery(AND, null, new ArrayList<>());
+    }
+
+    public static StructuredQuery or() {
+        return new StructuredQuery(OR, null, new ArrayList<>());
+    }
+
+    public static StructuredQuery term(String text) {
+        return new StructuredQuery(null, text.trim().toLowerCase(Locale.ROOT), Collections.emptyList());
+    }
+
+    // Adds an unscoped term, matched against every index field
+    public StructuredQuery text(String text) {
+        return add(term(text));
+    }
+
+    public StructuredQuery field(String field, String value) {
+        String normalized = normalizeField(field);
+        if (normalized == null) {
+            throw new IllegalArgumentException("Unknown search field: " + field);
+        }
+        return add(term(normalized + ":" + value.trim()));
+    }
+
+    public StructuredQuery group(StructuredQuery group) {
+        return add(group);
+    }
+
+    // Any experience between min and max years, inclusive
+    public StructuredQuery experienceRange(int min, int max) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Invalid experience range: " + min + "-" + max);
+        }
+        if (min == max) {
+            return add(term(EXPERIENCE_FIELD + ":" + min));
+        }
+        StructuredQuery range = or();
+        for (int years = min; years <= max; years++) {
+            range.add(term(EXPERIENCE_FIELD + ":" + years));
+        }
+        return add(range);
+    }
+
+    private StructuredQuery add(StructuredQuery child) {
+        if (isTerm()) {
+            throw new IllegalStateException("Cannot add to a single term");
+        }
+        if (!child.isTerm() && child.children.isEmpty()) {
+            return this;
+        }
+        if (!child.isTerm() && (child.operator.equals(operator) || child.children.size() == 1)) {
+            // (a AND (b AND c)) is (a AND b AND c); a one-child group is just the child
+            for (StructuredQuery grandchild : child.children) {
+                add(grandchild);
+            }
+            return this;
+        }
+        if (child.isTerm() && child.term.isEmpty()) {
+            return this;
+        }
+        children.add(child);
+        return this;
+    }
+
+    public boolean isTerm() {
+        return term != null;
+    }
+
+    public boolean isEmpty() {
+        return !isTerm() && children.isEmpty();
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public List<StructuredQuery> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Expands the query into OR-of-ANDs form: each inner list is one set of terms that must
+     * all match. Duplicate and redundant conjunctions are dropped, since (a) OR (a AND b) is (a).
+     */
+    public List<List<String>> toDisjunctiveForm(int maxConjunctions) {
+        List<Set<String>> expanded = expand(maxConjunctions);
+
+        List<Set<String>> minimal = new ArrayList<>();
+        expanded.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        for (Set<String> conjunction : expanded) {
+            boolean redundant = false;
+            for (Set<String> kept : minimal) {
+                if (conjunction.containsAll(kept)) {
+                    redundant = true;
+                    break;
+                }
+            }
+            if (!redundant) {
+                minimal.add(conjunction);
+            }
+        }
+
+        List<List<String>> result = new ArrayList<>();
+        for (Set<String> conjunction : minimal) {
+            List<String> terms = new ArrayList<>(conjunction);
+            Collections.sort(terms);
+            result.add(terms);
+        }
+        return result;
+    }
+
+    private List<Set<String>> expand(int maxConjunctions) {
+        List<Set<String>> result = new ArrayList<>();
+        if (isTerm()) {
+            result.add(new LinkedHashSet<>(Collections.singleton(term)));
+            return result;
+        }
+        if (children.isEmpty()) {
+            result.add(new LinkedHashSet<>());
+            return result;
+        }
+
+        if (operator.equals(OR)) {
+            for (StructuredQuery child : children) {
+                result.addAll(child.expand(maxConjunctions));
+                checkSize(result.size(), maxConjunctions);
+            }
+            return result;
+        }
+
+        result.add(new LinkedHashSet<>());
+        for (StructuredQuery child : children) {
+            List<Set<String>> childForm = child.expand(maxConjunctions);
+            checkSize((long) result.size() * childForm.size(), maxConjunctions);
+            List<Set<String>> product = new ArrayList<>();
+            for (Set<String> left : result) {
+                for (Set<String> right : childForm) {
+                    Set<String> combined = new LinkedHashSet<>(left);
+                    combined.addAll(right);
+                    product.add(combined);
+                }
+            }
+            result = product;
+        }
+        return result;
+    }
+
+    private static void checkSize(long size, int maxConjunctions) {
+        if (size > maxConjunctions) {
+            throw new IllegalArgumentException("Query expands to more than " + maxConjunctions
+                    + " combinations; narrow the OR groups or ranges");
+        }
+    }
+
+    // Same string for queries that differ only in term or group order; used as a cache key
+    public String toCanonicalString() {
+        if (isTerm()) {
+            return quoteIfNeeded(term);
+        }
+        List<String> parts = new ArrayList<>();
+        for (StructuredQuery child : children) {
+            String part = child.toCanonicalString();
+            parts.add(child.isTerm() || child.children.size() < 2 ? part : "(" + part + ")");
+        }
+        Collections.sort(parts);
+        return String.join(" " + operator.toUpperCase(Locale.ROOT) + " ", parts);
+    }
+
+    @Override
+    public String toString() {
+        return toCanonicalString();
+    }
+
+    /**
+     * Parses text such as {@code skill:java AND (position:engineer OR developer) experience:3-6}.
+     * Terms next to each other, or separated by commas, are ANDed; OR binds looser than AND.
+     * Values with spaces go in double quotes. Throws IllegalArgumentException on bad input.
+     */
+    public static StructuredQuery parse(String text) {
+        Parser parser = new Parser(tokenize(text == null ? "" : text));
+        StructuredQuery query = parser.parseOr();
+        if (parser.position < parser.tokens.size()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.tokens.get(parser.position) + "'");
+        }
+        return query;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || c == ',') {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                // A word runs to whitespace, a comma or a parenthesis, except inside quotes
+                StringBuilder word = new StringBuilder();
+                boolean quoted = false;
+                while (i < text.length()) {
+                    c = text.charAt(i);
+                    if (c == '"') {
+                        quoted = !quoted;
+                    } else if (!quoted && (Character.isWhitespace(c) || c == ',' || c == '(' || c == ')')) {
+                        break;
+                    } else {
+                        word.append(c);
+                    }
+                    i++;
+                }
+                if (quoted) {
+                    throw new IllegalArgumentException("Unclosed quote");
+                }
+                tokens.add(word.toString());
+            }
+        }
+        return tokens;
+    }
+
+    private static class Parser {
+        final List<String> tokens;
+        int position;
+
+        Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        StructuredQuery parseOr() {
+            StructuredQuery first = parseAnd();
+            if (!peekKeyword(OR)) {
+                return first;
+            }
+            StructuredQuery group = or().group(first);
+            while (peekKeyword(OR)) {
+                position++;
+                group.group(parseAnd());
+            }
+            return group;
+        }
+
+        StructuredQuery parseAnd() {
+            StructuredQuery group = and();
+            while (position < tokens.size() && !tokens.get(position).equals(")") && !peekKeyword(OR)) {
+                if (peekKeyword(AND)) {
+                    position++;
+                    continue;
+                }
+                group.group(parseUnary());
+            }
+            return group;
+        }
+
+        StructuredQuery parseUnary() {
+            String token = tokens.get(position++);
+            if (token.equals("(")) {
+                StructuredQuery inner = parseOr();
+                if (position >= tokens.size() || !tokens.get(position).equals(")")) {
+                    throw new IllegalArgumentException("Missing ')'");
+                }
+                position++;
+                return inner;
+            }
+            return parseTerm(token);
+        }
+
+        boolean peekKeyword(String keyword) {
+            return position < tokens.size() && tokens.get(position).equalsIgnoreCase(keyword);
+        }
+    }
+
+    private static StructuredQuery parseTerm(String token) {
+        int colon = token.indexOf(':');
+        if (colon <= 0) {
+            return term(token);
+        }
+
+        String field = normalizeField(token.substring(0, colon));
+        String value = token.substring(colon + 1).trim();
+        if (field == null) {
+            // Not a known field, e.g. a time such as 10:30; search it as plain text
+            return term(token);
+        }
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Missing value for " + field);
+        }
+        if (field.equals(EXPERIENCE_FIELD) && value.matches("\\d+\\s*-\\s*\\d+")) {
+            String[] bounds = value.split("-");
+            return and().experienceRange(Integer.parseInt(bounds[0].trim()), Integer.parseInt(bounds[1].trim()));
+        }
+        return term(field + ":" + value);
+    }
+
+    private static String normalizeField(String field) {
+        String normalized = field.trim().toLowerCase(Locale.ROOT);
+        switch (normalized) {
+            case "skills":
+                return "skill";
+            case "experience":
+            case "exp":
+            case "years":
+                return EXPERIENCE_FIELD;
+            case "positions":
+            case "title":
+                return "position";
+            case "file":
+                return "filename";
+            default:
+                return FIELDS.contains(normalized) ? normalized : null;
+        }
+    }
+
+    private static String quoteIfNeeded(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isWhitespace(c) || c == ',' || c == '(' || c == ')') {
+                return "\"" + value + "\"";
+            }
+        }
+        return value;
+    }
+}
@@ -62,14 +62,7 @@ class AuthManager:
                 stored_hash_bytes = stored_hash
 
             if bcrypt.checkpw(password.encode('utf-8'), stored_hash_bytes):
-                token = jwt.encode({
-                    'username': username,
-                    'exp': datetime.datetime.utcnow() + datetime.timedelta(hours=self.config.JWT_EXPIRATION_HOURS)
-                }, self.config.SECRET_KEY, algorithm="HS256")
-
-                # Handle token encoding for different PyJWT versions
-                token_str = token.decode('utf-8') if isinstance(token, bytes) else token
-                return {'success': True, 'token': token_str}
+                return {'success': True, 'token': self.issue_token(username)}
             else:
                 return {'success': False, 'message': 'Invalid credentials'}
 
@@ -80,6 +73,18 @@ class AuthManager:
             print(f"Error during login for {username}: {e}")
             return {'success': False, 'message': 'Internal server error'}
 
+    def issue_token(self, username: str) -> str:
+        """Create a signed JWT for the user, valid for JWT_EXPIRATION_HOURS."""
+        now = datetime.datetime.utcnow()
+        token = jwt.encode({
+            'username': username,
+            'iat': now,
+            'exp': now + datetime.timedelta(hours=self.config.JWT_EXPIRATION_HOURS)
+        }, self.config.SECRET_KEY, algorithm="HS256")
+
+        # Handle token encoding for different PyJWT versions
+        return token.decode('utf-8') if isinstance(token, bytes) else token
+
     def verify_token(self, token: str) -> Dict[str, Any]:
         """Verify JWT token and return user info."""
         try:
@@ -60,6 +60,24 @@ def login():
         return jsonify({'message': 'Internal server error'}), 500
 
 
+@auth_bp.route('/refresh', methods=['POST'])
+def refresh_token():
+    """Exchange a valid JWT for a new one with a fresh expiry (requires authentication)."""
+    from routes.cv_routes import token_required
+
+    @token_required
+    def _refresh(current_user_username):
+        try:
+            auth_manager = get_auth_manager()
+            return jsonify({'token': auth_manager.issue_token(current_user_username)}), 200
+
+        except Exception as e:
+            print(f"Error refreshing token for {current_user_username}: {e}")
+            return jsonify({'message': 'Internal server error'}), 500
+
+    return _refresh()
+
+
 @auth_bp.route('/profile', methods=['GET'])
 def get_profile():
     """Get current user profile (requires authentication)."""
@@ -451,13 +451,24 @@ def cancel_upload_batch(current_user_username, batch_id):
 # Keep existing endpoints unchanged...
 @cv_bp.route('/api/view/<cv_id>', methods=['GET'])
 def api_view_cv(cv_id):
-    """Get detailed CV information."""
+    """Get detailed CV information.
+
+    ``?fields=personal_info,skills`` returns only those top-level fields (fields the CV does
+    not have are left out), so a client that shows part of a CV need not download raw_text.
+    """
     try:
         redis_conn, cv_processor, _, _ = get_components()
-        cv_data_bytes = redis_conn.client.hgetall(cv_id)
-
-        if not cv_data_bytes:
-            return jsonify({'error': 'CV not found'}), 404
+        fields = [field.strip() for field in request.args.get('fields', '').split(',') if field.strip()]
+
+        if fields:
+            values = redis_conn.client.hmget(cv_id, fields)
+            if all(value is None for value in values) and not redis_conn.client.exists(cv_id):
+                return jsonify({'error': 'CV not found'}), 404
+            cv_data_bytes = {field: value for field, value in zip(fields, values) if value is not None}
+        else:
+            cv_data_bytes = redis_conn.client.hgetall(cv_id)
+            if not cv_data_bytes:
+                return jsonify({'error': 'CV not found'}), 404
 
         processed_data = {}
         for key_bytes, value_bytes in cv_data_bytes.items():
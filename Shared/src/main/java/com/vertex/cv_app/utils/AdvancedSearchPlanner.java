@@ -0,0 +1,260 @@
+package com.vertex.cv_app.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs {@link StructuredQuery} searches against {@code POST /api/advanced_search}.
+ *
+ * <p>The endpoint takes one flat list of terms joined by a single AND or OR, so each query
+ * is first planned: a pure AND or a pure OR of terms becomes one request, and anything
+ * else is expanded to OR-of-ANDs, one request per AND group, with the results merged,
+ * de-duplicated and sorted here. Plans are cached by the query's canonical form plus the
+ * date and sort settings, holding the serialized request bodies so paging or re-running
+ * a query does no planning or JSON building; merged results are also kept briefly so
+ * paging through them does not refetch.</p>
+ */
+public class AdvancedSearchPlanner {
+
+    private static final int MAX_CONJUNCTIONS = 32;
+    private static final int PLAN_CACHE_SIZE = 64;
+    private static final int MERGE_PAGE_SIZE = 500;  // the server's MAX_PAGE_SIZE
+    private static final long MERGED_RESULTS_TTL_MS = 60_000;
+
+    private final Map<String, QueryPlan> plans = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, QueryPlan> eldest) {
+            return size() > PLAN_CACHE_SIZE;
+        }
+    };
+    private int cacheHits;
+    private int cacheMisses;
+
+    public static class QueryPlan {
+        public final String key;
+        public final List<List<String>> conjunctions;
+        public final boolean merged;        // true when the results are combined client-side
+        private final String[] bodyPrefixes; // JSON bodies without page, per_page and the closing brace
+        private final String sortBy;
+        private final boolean descending;
+
+        private List<JSONObject> mergedRows;
+        private long mergedAt;
+
+        QueryPlan(String key, List<List<String>> conjunctions, boolean merged, String[] bodyPrefixes,
+                  String sortBy, boolean descending) {
+            this.key = key;
+            this.conjunctions = conjunctions;
+            this.merged = merged;
+            this.bodyPrefixes = bodyPrefixes;
+            this.sortBy = sortBy;
+            this.descending = descending;
+        }
+
+        public int getRequestCount() {
+            return bodyPrefixes.length;
+        }
+
+        String body(int index, int page, int perPage) {
+            return bodyPrefixes[index] + ",\"page\":" + page + ",\"per_page\":" + perPage + "}";
+        }
+
+        public String describe() {
+            if (!merged) {
+                return "1 request";
+            }
+            return bodyPrefixes.length + " requests merged locally";
+        }
+    }
+
+    // Throws IllegalArgumentException when the query expands to too many requests
+    public QueryPlan plan(StructuredQuery query, HttpClientUtil.SearchParameters params) {
+        String key = query.toCanonicalString() + "|" + params.dateFrom + "|" + params.dateTo
+                + "|" + params.sortBy + "|" + params.sortOrder;
+        synchronized (plans) {
+            QueryPlan cached = plans.get(key);
+            if (cached != null) {
+                cacheHits++;
+                return cached;
+            }
+            cacheMisses++;
+        }
+
+        List<List<String>> conjunctions = query.toDisjunctiveForm(MAX_CONJUNCTIONS);
+        boolean allSingleTerms = conjunctions.stream().allMatch(c -> c.size() == 1);
+
+        List<String> bodies = new ArrayList<>();
+        boolean merged = false;
+        if (conjunctions.size() == 1) {
+            bodies.add(bodyPrefix(conjunctions.get(0), StructuredQuery.AND, params));
+        } else if (allSingleTerms) {
+            List<String> terms = new ArrayList<>();
+            for (List<String> conjunction : conjunctions) {
+                terms.add(conjunction.get(0));
+            }
+            bodies.add(bodyPrefix(terms, StructuredQuery.OR, params));
+        } else {
+            for (List<String> conjunction : conjunctions) {
+                bodies.add(bodyPrefix(conjunction, StructuredQuery.AND, params));
+            }
+            merged = true;
+        }
+
+        String sortBy = params.sortBy != null ? params.sortBy : "upload_date";
+        boolean descending = !"asc".equalsIgnoreCase(params.sortOrder);
+        QueryPlan plan = new QueryPlan(key, conjunctions, merged, bodies.toArray(new String[0]), sortBy, descending);
+        synchronized (plans) {
+            plans.put(key, plan);
+        }
+        return plan;
+    }
+
+    // Same response shape as /api/search; params supplies dates, sorting and the page
+    public HttpClientUtil.SearchResult search(String serverUrl, StructuredQuery query,
+                                              HttpClientUtil.SearchParameters params,
+                                              HttpClientUtil.RequestHandle handle) {
+        QueryPlan plan;
+        try {
+            plan = plan(query, params);
+        } catch (IllegalArgumentException e) {
+            return new HttpClientUtil.SearchResult(null, "Query Error: " + e.getMessage());
+        }
+
+        if (!plan.merged) {
+            return HttpClientUtil.advancedSearch(serverUrl, plan.body(0, params.page, params.perPage), handle);
+        }
+
+        List<JSONObject> rows;
+        synchronized (plan) {
+            rows = plan.mergedRows != null && System.currentTimeMillis() - plan.mergedAt < MERGED_RESULTS_TTL_MS
+                    ? plan.mergedRows : null;
+        }
+        if (rows == null) {
+            HttpClientUtil.SearchResult failure = fetchMerged(serverUrl, plan, handle);
+            if (failure != null) {
+                return failure;
+            }
+            synchronized (plan) {
+                rows = plan.mergedRows;
+            }
+        }
+        return new HttpClientUtil.SearchResult(pageOf(rows, params.page, params.perPage, plan).toString(), null);
+    }
+
+    // Fetches every page of every AND group; returns a result only on failure
+    private HttpClientUtil.SearchResult fetchMerged(String serverUrl, QueryPlan plan, HttpClientUtil.RequestHandle handle) {
+        Map<String, JSONObject> byId = new LinkedHashMap<>();
+        for (int request = 0; request < plan.getRequestCount(); request++) {
+            int page = 1;
+            int totalPages = 1;
+            while (page <= totalPages) {
+                if (handle != null && handle.isCancelled()) {
+                    return new HttpClientUtil.SearchResult(null, "Search cancelled");
+                }
+                HttpClientUtil.SearchResult result = HttpClientUtil.advancedSearch(serverUrl,
+                        plan.body(request, page, MERGE_PAGE_SIZE), handle);
+                if (result.errorMessage != null) {
+                    return result;
+                }
+                JSONObject response = new JSONObject(result.jsonResponse);
+                totalPages = response.optInt("total_pages", 1);
+                JSONArray results = response.optJSONArray("results");
+                if (results == null || results.isEmpty()) {
+                    break;
+                }
+                for (int i = 0; i < results.length(); i++) {
+                    JSONObject row = results.getJSONObject(i);
+                    byId.putIfAbsent(row.optString("id"), row);
+                }
+                page++;
+            }
+        }
+
+        List<JSONObject> rows = new ArrayList<>(byId.values());
+        Comparator<JSONObject> order = Comparator.comparing(row -> sortKey(row, plan.sortBy));
+        rows.sort(plan.descending ? order.reversed() : order);
+        synchronized (plan) {
+            plan.mergedRows = rows;
+            plan.mergedAt = System.currentTimeMillis();
+        }
+        return null;
+    }
+
+    private static JSONObject pageOf(List<JSONObject> rows, int page, int perPage, QueryPlan plan) {
+        int size = Math.max(1, perPage);
+        int totalPages = Math.max(1, (rows.size() + size - 1) / size);
+        int from = Math.min(rows.size(), Math.max(0, (page - 1) * size));
+        int to = Math.min(rows.size(), from + size);
+
+        JSONObject response = new JSONObject();
+        response.put("results", new JSONArray(rows.subList(from, to)));
+        response.put("page", page);
+        response.put("per_page", size);
+        response.put("total", rows.size());
+        response.put("total_pages", totalPages);
+        response.put("merged_requests", plan.getRequestCount());
+        return response;
+    }
+
+    // Mirrors the server's ordering: dates as ISO strings, text fields case-insensitively
+    private static String sortKey(JSONObject row, String sortBy) {
+        String value = row.optString(sortBy, "");
+        return sortBy.equals("upload_date") ? value : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String bodyPrefix(List<String> terms, String logic, HttpClientUtil.SearchParameters params) {
+        JSONObject body = new JSONObject();
+        body.put("queries", new JSONArray(terms));
+        body.put("logic", logic);
+        if (params.dateFrom != null && !params.dateFrom.isBlank()) {
+            body.put("date_from", params.dateFrom);
+        }
+        if (params.dateTo != null && !params.dateTo.isBlank()) {
+            body.put("date_to", params.dateTo);
+        }
+        if (params.sortBy != null) {
+            body.put("sort_by", params.sortBy);
+        }
+        if (params.sortOrder != null) {
+            body.put("sort_order", params.sortOrder);
+        }
+        String json = body.toString();
+        return json.substring(0, json.length() - 1);
+    }
+
+    public int getCacheHits() {
+        synchronized (plans) {
+            return cacheHits;
+        }
+    }
+
+    public int getCacheMisses() {
+        synchronized (plans) {
+            return cacheMisses;
+        }
+    }
+
+    // Forces merged queries to refetch on their next search, e.g. when the user refreshes
+    public void clearMergedResults() {
+        synchronized (plans) {
+            for (QueryPlan plan : plans.values()) {
+                synchronized (plan) {
+                    plan.mergedRows = null;
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (plans) {
+            plans.clear();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.vertex.cv_app.utils;
+
+import org.json.JSONObject;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Per-user, per-action and per-hour activity histograms over the audit logs the
+ * client has already downloaded. Logs are dictionary-encoded into primitive arrays
+ * and counted with fork-join; each call to {@link #addLogs} only processes logs not
+ * seen before and folds the result into the running totals.
+ */
+public class AuditAnalytics {
+
+    private static final int SEQUENTIAL_THRESHOLD = 8192;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final Map<String, Integer> userCodes = new HashMap<>();
+    private final List<String> users = new ArrayList<>();
+    private final Map<String, Integer> actionCodes = new HashMap<>();
+    private final List<String> actions = new ArrayList<>();
+    private final Set<String> seenLogKeys = new HashSet<>();
+
+    private long[] userCounts = new long[16];
+    private long[] actionCounts = new long[16];
+    private final long[] hourOfDayCounts = new long[24];
+    private final TreeMap<Long, Long> hourlyTimeline = new TreeMap<>();
+    private long totalLogs = 0;
+
+    public static class Snapshot {
+        public final long totalLogs;
+        public final Map<String, Long> perUser;      // sorted by count, descending
+        public final Map<String, Long> perAction;    // sorted by count, descending
+        public final long[] perHourOfDay;            // UTC hour 0-23
+        public final SortedMap<Long, Long> timeline; // epoch hour -> count
+
+        Snapshot(long totalLogs, Map<String, Long> perUser, Map<String, Long> perAction,
+                 long[] perHourOfDay, SortedMap<Long, Long> timeline) {
+            this.totalLogs = totalLogs;
+            this.perUser = perUser;
+            this.perAction = perAction;
+            this.perHourOfDay = perHourOfDay;
+            this.timeline = timeline;
+        }
+    }
+
+    // Counts occurrences of each code in codes[from, to) into a histogram of the given width
+    private static class HistogramTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+        private final int[] codes;
+        private final int from;
+        private final int to;
+        private final int bins;
+
+        HistogramTask(int[] codes, int from, int to, int bins) {
+            this.codes = codes;
+            this.from = from;
+            this.to = to;
+            this.bins = bins;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                long[] histogram = new long[bins];
+                for (int i = from; i < to; i++) {
+                    if (codes[i] >= 0) {
+                        histogram[codes[i]]++;
+                    }
+                }
+                return histogram;
+            }
+
+            int mid = (from + to) >>> 1;
+            HistogramTask left = new HistogramTask(codes, from, mid, bins);
+            left.fork();
+            long[] right = new HistogramTask(codes, mid, to, bins).compute();
+            long[] merged = left.join();
+            for (int i = 0; i < bins; i++) {
+                merged[i] += right[i];
+            }
+            return merged;
+        }
+    }
+
+    // Returns how many of the given logs were new and therefore counted
+    public synchronized int addLogs(List<JSONObject> logs) {
+        if (logs == null || logs.isEmpty()) {
+            return 0;
+        }
+
+        int[] userIdx = new int[logs.size()];
+        int[] actionIdx = new int[logs.size()];
+        int[] hourIdx = new int[logs.size()];
+        long[] epochHours = new long[logs.size()];
+        int count = 0;
+
+        for (JSONObject log : logs) {
+            if (!seenLogKeys.add(logKey(log))) {
+                continue;
+            }
+            userIdx[count] = encode(log.optString("user", "N/A"), userCodes, users);
+            actionIdx[count] = encode(log.optString("action", "N/A"), actionCodes, actions);
+
+            long epochSecond = parseEpochSecond(log.optString("timestamp", null));
+            if (epochSecond == NO_TIMESTAMP) {
+                hourIdx[count] = -1;
+                epochHours[count] = NO_TIMESTAMP;
+            } else {
+                long epochHour = Math.floorDiv(epochSecond, 3600);
+                hourIdx[count] = Math.floorMod(epochHour, 24);
+                epochHours[count] = epochHour;
+            }
+            count++;
+        }
+
+        if (count == 0) {
+            return 0;
+        }
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        userCounts = accumulate(userCounts, pool.invoke(new HistogramTask(userIdx, 0, count, users.size())));
+        actionCounts = accumulate(actionCounts, pool.invoke(new HistogramTask(actionIdx, 0, count, actions.size())));
+        accumulate(hourOfDayCounts, pool.invoke(new HistogramTask(hourIdx, 0, count, 24)));
+        accumulateTimeline(Arrays.copyOf(epochHours, count));
+
+        totalLogs += count;
+        return count;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(
+                totalLogs,
+                sortedByCount(users, userCounts),
+                sortedByCount(actions, actionCounts),
+                hourOfDayCounts.clone(),
+                Collections.unmodifiableSortedMap(new TreeMap<>(hourlyTimeline))
+        );
+    }
+
+    public synchronized long getTotalLogs() {
+        return totalLogs;
+    }
+
+    public synchronized void clear() {
+        userCodes.clear();
+        users.clear();
+        actionCodes.clear();
+        actions.clear();
+        seenLogKeys.clear();
+        userCounts = new long[16];
+        actionCounts = new long[16];
+        Arrays.fill(hourOfDayCounts, 0);
+        hourlyTimeline.clear();
+        totalLogs = 0;
+    }
+
+    private static String logKey(JSONObject log) {
+        String id = log.optString("id", null);
+        if (id != null) {
+            return id;
+        }
+        return log.optString("timestamp", "") + "|" + log.optString("user", "") + "|"
+                + log.optString("action", "") + "|" + log.optString("cv_id", "");
+    }
+
+    private static int encode(String value, Map<String, Integer> codes, List<String> values) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    private static long[] accumulate(long[] totals, long[] batch) {
+        if (totals.length < batch.length) {
+            totals = Arrays.copyOf(totals, Math.max(batch.length, totals.length * 2));
+        }
+        for (int i = 0; i < batch.length; i++) {
+            totals[i] += batch[i];
+        }
+        return totals;
+    }
+
+    // Sorting the batch groups equal hours together so they can be counted in one pass
+    private void accumulateTimeline(long[] epochHours) {
+        Arrays.parallelSort(epochHours);
+        int i = 0;
+        while (i < epochHours.length) {
+            long hour = epochHours[i];
+            int j = i;
+            while (j < epochHours.length && epochHours[j] == hour) {
+                j++;
+            }
+            if (hour != NO_TIMESTAMP) {
+                hourlyTimeline.merge(hour, (long) (j - i), Long::sum);
+            }
+            i = j;
+        }
+    }
+
+    private static Map<String, Long> sortedByCount(List<String> labels, long[] counts) {
+        Integer[] order = new Integer[labels.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(counts[b], counts[a]));
+
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        for (int index : order) {
+            sorted.put(labels.get(index), counts[index]);
+        }
+        return sorted;
+    }
+
+    private static long parseEpochSecond(String timestamp) {
+        if (timestamp == null || timestamp.isEmpty() || timestamp.equals("N/A")) {
+            return NO_TIMESTAMP;
+        }
+        try {
+            return Instant.parse(timestamp).getEpochSecond();
+        } catch (DateTimeParseException e) {
+            // Fall through to the offset and local formats
+        }
+        try {
+            return OffsetDateTime.parse(timestamp).toEpochSecond();
+        } catch (DateTimeParseException e) {
+            // Fall through to the local format
+        }
+        try {
+            return LocalDateTime.parse(timestamp).toEpochSecond(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            return NO_TIMESTAMP;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.vertex.cv_app.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable prefix index over the values returned by {@code /api/indexes}. Values are
+ * lower-cased into one sorted array with a parallel category array, so a lookup is a
+ * binary search for the first key with the prefix followed by a scan of the matching run.
+ * Rebuild with {@link #build} when new index data arrives and swap the reference.
+ */
+public class AutocompleteIndex {
+
+    private static final AutocompleteIndex EMPTY = new AutocompleteIndex(new String[0], new String[0], new String[0]);
+
+    private final String[] keys;        // lower-cased, sorted
+    private final String[] values;      // original spelling, parallel to keys
+    private final String[] categories;  // parallel to keys
+
+    public static class Suggestion {
+        public final String value;
+        public final String category;
+
+        Suggestion(String value, String category) {
+            this.value = value;
+            this.category = category;
+        }
+
+        @Override
+        public String toString() {
+            return value + "  (" + category.replace("_", " ") + ")";
+        }
+    }
+
+    private AutocompleteIndex(String[] keys, String[] values, String[] categories) {
+        this.keys = keys;
+        this.values = values;
+        this.categories = categories;
+    }
+
+    public static AutocompleteIndex empty() {
+        return EMPTY;
+    }
+
+    public static AutocompleteIndex build(Map<String, List<String>> indexes) {
+        if (indexes == null || indexes.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<String[]> entries = new ArrayList<>();
+        for (Map.Entry<String, List<String>> category : indexes.entrySet()) {
+            if (category.getValue() == null) {
+                continue;
+            }
+            for (String value : category.getValue()) {
+                if (value != null && !value.isBlank()) {
+                    entries.add(new String[]{value.trim().toLowerCase(Locale.ROOT), value.trim(), category.getKey()});
+                }
+            }
+        }
+
+        String[][] sorted = entries.toArray(new String[0][]);
+        Arrays.sort(sorted, (a, b) -> {
+            int byKey = a[0].compareTo(b[0]);
+            return byKey != 0 ? byKey : a[2].compareTo(b[2]);
+        });
+
+        String[] keys = new String[sorted.length];
+        String[] values = new String[sorted.length];
+        String[] categories = new String[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = sorted[i][0];
+            values[i] = sorted[i][1];
+            categories[i] = sorted[i][2];
+        }
+        return new AutocompleteIndex(keys, values, categories);
+    }
+
+    // Suggestions for values starting with the prefix, in sorted order; one entry per distinct value
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit <= 0 || keys.length == 0) {
+            return Collections.emptyList();
+        }
+
+        String key = prefix.trim().toLowerCase(Locale.ROOT);
+        List<Suggestion> suggestions = new ArrayList<>();
+        String previous = null;
+        for (int i = lowerBound(key); i < keys.length && keys[i].startsWith(key); i++) {
+            if (keys[i].equals(previous)) {
+                continue;
+            }
+            suggestions.add(new Suggestion(values[i], categories[i]));
+            previous = keys[i];
+            if (suggestions.size() >= limit) {
+                break;
+            }
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    // The term being typed is whatever follows the last comma, matching how the server splits q
+    public static String currentTerm(String query) {
+        if (query == null) {
+            return "";
+        }
+        return query.substring(query.lastIndexOf(',') + 1).trim();
+    }
+
+    // Replaces the term being typed with the chosen suggestion, keeping earlier terms
+    public static String completeQuery(String query, String value) {
+        int comma = query == null ? -1 : query.lastIndexOf(',');
+        return comma < 0 ? value : query.substring(0, comma + 1) + " " + value;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,211 @@
+package com.vertex.cv_app.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Persists the rarely-changing filter option responses ({@code /api/audit_logs/actions} and
+ * the {@code /api/indexes} autocomplete vocabulary) in the local SQLite database. Callers get
+ * the stored copy immediately and a background revalidation (If-None-Match when the server
+ * sends an ETag, otherwise a SHA-256 comparison of the body) only calls back when the data
+ * changed.
+ */
+public class FilterOptionsCache {
+    public static final String AUDIT_ACTIONS_PATH = "/api/audit_logs/actions";
+    public static final String INDEXES_PATH = "/api/indexes";
+
+    private final LocalStore store = LocalStore.getDefault();
+    private boolean available;
+    private final ExecutorService revalidationExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "filter-options-revalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static class CachedResponse {
+        final String body;
+        final String etag;
+        final String contentHash;
+
+        CachedResponse(String body, String etag, String contentHash) {
+            this.body = body;
+            this.etag = etag;
+            this.contentHash = contentHash;
+        }
+    }
+
+    public FilterOptionsCache() {
+        initializeDatabase();
+    }
+
+    // The http_cache table is created by the store's schema migrations
+    private void initializeDatabase() {
+        available = store.isAvailable();
+        if (!available) {
+            System.err.println("Filter options cache unavailable: local store unavailable");
+        }
+    }
+
+    // Serves the cached audit filter options right away, then revalidates in the background.
+    // The consumer runs on the caller's thread for the cached copy and on a background
+    // thread for a changed (or first) network copy.
+    public void loadAuditFilterOptions(String serverUrl, Consumer<HttpClientUtil.FilterOptionsResult> consumer) {
+        load(serverUrl + AUDIT_ACTIONS_PATH, body -> consumer.accept(parseQuietly(body)), error ->
+                consumer.accept(new HttpClientUtil.FilterOptionsResult(null, null, error)));
+    }
+
+    public void loadIndexes(String serverUrl, Consumer<HttpClientUtil.IndexesResult> consumer) {
+        load(serverUrl + INDEXES_PATH, body -> {
+            try {
+                consumer.accept(HttpClientUtil.parseIndexes(body));
+            } catch (Exception e) {
+                consumer.accept(new HttpClientUtil.IndexesResult(null, "Invalid indexes: " + e.getMessage()));
+            }
+        }, error -> consumer.accept(new HttpClientUtil.IndexesResult(null, error)));
+    }
+
+    // Cached copy if there is one, otherwise a blocking network fetch that is then stored
+    public HttpClientUtil.FilterOptionsResult getAuditFilterOptions(String serverUrl) {
+        String url = serverUrl + AUDIT_ACTIONS_PATH;
+        CachedResponse cached = lookup(url);
+        if (cached != null) {
+            return parseQuietly(cached.body);
+        }
+        HttpClientUtil.ConditionalResult result = HttpClientUtil.fetchConditional(url, null);
+        if (result.errorMessage != null) {
+            return new HttpClientUtil.FilterOptionsResult(null, null, result.errorMessage);
+        }
+        store(url, result.body, result.etag, hash(result.body));
+        return parseQuietly(result.body);
+    }
+
+    private void load(String url, Consumer<String> onBody, Consumer<String> onError) {
+        CachedResponse cached = lookup(url);
+        if (cached != null) {
+            onBody.accept(cached.body);
+        }
+
+        revalidationExecutor.submit(() -> {
+            String changedBody = revalidate(url, cached);
+            if (changedBody != null) {
+                onBody.accept(changedBody);
+            } else if (cached == null) {
+                onError.accept("Filter options unavailable (no cached copy and the server could not be reached)");
+            }
+        });
+    }
+
+    // Returns the new body if it differs from the cached one, otherwise null
+    private String revalidate(String url, CachedResponse cached) {
+        HttpClientUtil.ConditionalResult result = HttpClientUtil.fetchConditional(url, cached != null ? cached.etag : null);
+        if (result.errorMessage != null) {
+            return null;
+        }
+        if (result.isNotModified() && cached != null) {
+            touch(url);
+            return null;
+        }
+
+        String contentHash = hash(result.body);
+        if (cached != null && contentHash.equals(cached.contentHash)) {
+            touch(url);
+            return null;
+        }
+        store(url, result.body, result.etag, contentHash);
+        return result.body;
+    }
+
+    private CachedResponse lookup(String url) {
+        if (!available) return null;
+        String selectSQL = "SELECT body, etag, content_hash FROM http_cache WHERE cache_key = ?";
+
+        try {
+            return store.read(session -> {
+                PreparedStatement pstmt = session.prepare(selectSQL);
+                pstmt.setString(1, url);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return new CachedResponse(rs.getString("body"), rs.getString("etag"), rs.getString("content_hash"));
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error reading filter options cache: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // Cache writes are queued; nothing waits for them
+    private void store(String url, String body, String etag, String contentHash) {
+        if (!available) return;
+        String upsertSQL = """
+            INSERT INTO http_cache (cache_key, etag, content_hash, body, fetched_at)
+            VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT(cache_key) DO UPDATE SET
+                etag = excluded.etag,
+                content_hash = excluded.content_hash,
+                body = excluded.body,
+                fetched_at = excluded.fetched_at
+        """;
+
+        store.submitWrite(session -> {
+            PreparedStatement pstmt = session.prepare(upsertSQL);
+            pstmt.setString(1, url);
+            pstmt.setString(2, etag);
+            pstmt.setString(3, contentHash);
+            pstmt.setString(4, body);
+            return pstmt.executeUpdate();
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                System.err.println("Error writing filter options cache: " + error.getMessage());
+            }
+        });
+    }
+
+    private void touch(String url) {
+        if (!available) return;
+        store.submitWrite(session -> {
+            PreparedStatement pstmt = session.prepare("UPDATE http_cache SET fetched_at = CURRENT_TIMESTAMP WHERE cache_key = ?");
+            pstmt.setString(1, url);
+            return pstmt.executeUpdate();
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                System.err.println("Error updating filter options cache: " + error.getMessage());
+            }
+        });
+    }
+
+    private static HttpClientUtil.FilterOptionsResult parseQuietly(String body) {
+        try {
+            return HttpClientUtil.parseFilterOptions(body);
+        } catch (Exception e) {
+            return new HttpClientUtil.FilterOptionsResult(null, null, "Invalid filter options: " + e.getMessage());
+        }
+    }
+
+    static String hash(String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hashBytes = digest.digest(body.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hashBytes.length * 2);
+            for (byte b : hashBytes) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is guaranteed to be available on every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The connections belong to the shared store; pending cache writes are still committed
+    public void close() {
+        revalidationExecutor.shutdownNow();
+    }
+}
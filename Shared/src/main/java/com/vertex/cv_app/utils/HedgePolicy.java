@@ -0,0 +1,129 @@
+package com.vertex.cv_app.utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When {@link HttpClientUtil} hedges a slow read. If a GET to one of the policy's endpoints has
+ * not answered by that endpoint's recent p95 latency, a duplicate is sent (to another replica
+ * when the server has one), the first answer is used and the other request is cancelled. So
+ * only the slowest few percent of requests are duplicated, and a budget that refills by
+ * {@link #budgetRatio} per request caps the extra load at that fraction, plus a small burst.
+ *
+ * <p>The threshold comes from a rolling window of each endpoint's last {@link #WINDOW_SIZE}
+ * attempt latencies; a cancelled loser counts with the time it had taken so far, so the tail
+ * does not shrink just because it was hedged. Until an endpoint has {@link #MIN_SAMPLES}
+ * samples nothing is hedged.
+ */
+public class HedgePolicy {
+    public static final Set<String> READ_ENDPOINTS = Set.of("GET /api/search", "GET /api/view/{id}");
+    public static final HedgePolicy NONE = new HedgePolicy(Set.of(), 95, 0, 0);
+    public static final int WINDOW_SIZE = 100;
+    public static final int MIN_SAMPLES = 20;
+    // Hedges that can be spent at once after a quiet spell, however much budget has built up
+    private static final double MAX_BUDGET = 5;
+
+    public final Set<String> endpoints;
+    public final double percentile;
+    public final double budgetRatio;
+    public final long minDelayMillis;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private double budget;
+    private long hedges;
+    private long skippedForBudget;
+
+    // Latencies of the last WINDOW_SIZE attempts at one endpoint
+    private static class Window {
+        private final long[] nanos = new long[WINDOW_SIZE];
+        private int next;
+        private int size;
+
+        synchronized void record(long elapsedNanos) {
+            nanos[next] = elapsedNanos;
+            next = (next + 1) % WINDOW_SIZE;
+            size = Math.min(size + 1, WINDOW_SIZE);
+        }
+
+        synchronized long percentileNanos(double percentile) {
+            if (size < MIN_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return sorted[Math.min(size - 1, (int) Math.ceil(percentile / 100.0 * size) - 1)];
+        }
+    }
+
+    public HedgePolicy(Set<String> endpoints, double percentile, double budgetRatio, long minDelayMillis) {
+        this.endpoints = endpoints;
+        this.percentile = percentile;
+        this.budgetRatio = budgetRatio;
+        this.minDelayMillis = minDelayMillis;
+    }
+
+    // Search and CV views hedged at their p95, never sooner than 20 ms. Hedging at p95 costs about
+    // 5% extra requests; the cap is twice that so jitter in the fast responses does not use it all up
+    public static HedgePolicy forReads() {
+        return new HedgePolicy(READ_ENDPOINTS, 95, 0.1, 20);
+    }
+
+    public boolean isEnabled() {
+        return !endpoints.isEmpty() && budgetRatio > 0;
+    }
+
+    public boolean appliesTo(String endpoint) {
+        return endpoints.contains(endpoint);
+    }
+
+    /**
+     * Called once per request to a hedged endpoint: adds its share to the budget and returns how
+     * long to wait for an answer before hedging, or -1 when the endpoint has too few samples.
+     */
+    public long onRequest(String endpoint) {
+        synchronized (this) {
+            budget = Math.min(MAX_BUDGET, budget + budgetRatio);
+        }
+        long threshold = windows.computeIfAbsent(endpoint, key -> new Window()).percentileNanos(percentile);
+        return threshold < 0 ? -1 : Math.max(minDelayMillis, TimeUnit.NANOSECONDS.toMillis(threshold));
+    }
+
+    // Spends one hedge from the budget; false means the request has to wait it out alone
+    public synchronized boolean tryAcquire() {
+        if (budget < 1) {
+            skippedForBudget++;
+            return false;
+        }
+        budget--;
+        hedges++;
+        return true;
+    }
+
+    // Returns a hedge acquired but not sent, because the request had already failed
+    public synchronized void release() {
+        budget = Math.min(MAX_BUDGET, budget + 1);
+        hedges--;
+    }
+
+    public void recordLatency(String endpoint, long elapsedNanos) {
+        windows.computeIfAbsent(endpoint, key -> new Window()).record(elapsedNanos);
+    }
+
+    // Current threshold in milliseconds, or -1 while the endpoint is still collecting samples
+    public double getDelayMillis(String endpoint) {
+        Window window = windows.get(endpoint);
+        long threshold = window == null ? -1 : window.percentileNanos(percentile);
+        return threshold < 0 ? -1 : Math.max(minDelayMillis, threshold / 1_000_000.0);
+    }
+
+    public synchronized long getHedges() {
+        return hedges;
+    }
+
+    public synchronized long getSkippedForBudget() {
+        return skippedForBudget;
+    }
+}
@@ -0,0 +1,523 @@
+package com.vertex.cv_app.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local mirror of CV summary records in {@code app_data.db} with an FTS5 index, so
+ * searches can be answered without the server. {@link #sync} pages through
+ * {@code /api/search} newest-first and stops once it reaches records older than the
+ * previous sync; skills are filled in afterwards from {@code /api/view} for a
+ * bounded number of records per run. {@link #search} returns the same JSON shape as
+ * {@code /api/search} so callers can display it unchanged.
+ *
+ * <p>Each index mirrors one server: rows and sync state are keyed by its URL, so the
+ * mirrors of several server profiles live side by side in the same tables.
+ */
+public class LocalCVIndex {
+    private static final int SYNC_PAGE_SIZE = 500;  // server MAX_PAGE_SIZE
+    private static final int DEFAULT_MAX_DETAIL_FETCHES = 200;
+    private static final int DETAIL_FETCH_CONCURRENCY = 4;
+    private static final String WATERMARK_KEY = "cv_mirror.newest_upload_date";
+    private static final String LAST_SYNC_KEY = "cv_mirror.last_sync";
+
+    private final LocalStore store = LocalStore.getDefault();
+    private final MirrorDao mirrorDao = new MirrorDao(store);
+    private final String serverUrl;
+    private boolean available;
+
+    private static class MirrorRow {
+        final String server;
+        final JSONObject summary;
+        final long syncStamp;
+
+        MirrorRow(String server, JSONObject summary, long syncStamp) {
+            this.server = server;
+            this.summary = summary;
+            this.syncStamp = syncStamp;
+        }
+    }
+
+    // Skills are filled in separately, so an upsert leaves them as they were
+    private static class MirrorDao extends LocalDao<MirrorRow> {
+        MirrorDao(LocalStore store) {
+            super(store, "cv_mirror", List.of("server", "id"),
+                    List.of("server", "id", "name", "email", "phone", "filename", "upload_date", "gender", "type", "synced_at"));
+        }
+
+        @Override
+        protected void bind(PreparedStatement statement, MirrorRow row) throws SQLException {
+            statement.setString(1, row.server);
+            statement.setString(2, row.summary.getString("id"));
+            statement.setString(3, row.summary.optString("name", ""));
+            statement.setString(4, row.summary.optString("email", ""));
+            statement.setString(5, row.summary.optString("phone", ""));
+            statement.setString(6, row.summary.optString("filename", ""));
+            statement.setString(7, row.summary.optString("upload_date", ""));
+            statement.setString(8, row.summary.optString("gender", ""));
+            statement.setString(9, row.summary.optString("type", ""));
+            statement.setLong(10, row.syncStamp);
+        }
+    }
+
+    public static class SyncResult {
+        public int pagesFetched;
+        public int recordsUpserted;
+        public int skillsFetched;
+        public int recordsRemoved;
+        public long elapsedMillis;
+        public String errorMessage;
+    }
+
+    public interface SyncListener {
+        void onProgress(String message);
+    }
+
+    public LocalCVIndex(String serverUrl) {
+        this.serverUrl = ServerProfiles.normalizeUrl(serverUrl);
+        initializeDatabase();
+    }
+
+    // The cv_mirror tables are created by the store's schema migrations
+    private void initializeDatabase() {
+        available = store.isAvailable();
+        if (!available) {
+            System.err.println("Local CV index unavailable: local store unavailable");
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    // Incremental sync; fullResync pages through everything and drops records the server no longer has
+    public SyncResult sync(boolean fullResync, SyncListener listener) {
+        SyncResult result = new SyncResult();
+        long start = System.currentTimeMillis();
+        if (!available) {
+            result.errorMessage = "Local CV index unavailable";
+            return result;
+        }
+
+        String watermark = fullResync ? null : getState(WATERMARK_KEY);
+        String newestSeen = watermark;
+        long syncStamp = start;
+
+        HttpClientUtil.SearchParameters params = new HttpClientUtil.SearchParameters();
+        params.perPage = SYNC_PAGE_SIZE;
+        params.sortBy = "upload_date";
+        params.sortOrder = "desc";
+
+        int totalPages = 1;
+        for (int page = 1; page <= totalPages; page++) {
+            params.page = page;
+            HttpClientUtil.SearchResult response = HttpClientUtil.searchCVs(serverUrl, params);
+            if (response.errorMessage != null) {
+                result.errorMessage = response.errorMessage;
+                break;
+            }
+
+            JSONObject body = new JSONObject(response.jsonResponse);
+            JSONArray rows = body.optJSONArray("results");
+            totalPages = body.optInt("total_pages", 1);
+            result.pagesFetched++;
+            if (rows == null || rows.length() == 0) {
+                break;
+            }
+
+            boolean reachedWatermark = false;
+            List<JSONObject> batch = new ArrayList<>();
+            for (int i = 0; i < rows.length(); i++) {
+                JSONObject row = rows.getJSONObject(i);
+                String uploadDate = row.optString("upload_date", "");
+                if (newestSeen == null || uploadDate.compareTo(newestSeen) > 0) {
+                    newestSeen = uploadDate;
+                }
+                if (watermark != null && uploadDate.compareTo(watermark) < 0) {
+                    reachedWatermark = true;
+                }
+                batch.add(row);
+            }
+            result.recordsUpserted += upsertSummaries(batch, syncStamp);
+
+            if (listener != null) {
+                listener.onProgress(String.format("Syncing local CV index... page %d of %d", page, totalPages));
+            }
+            if (reachedWatermark) {
+                break;
+            }
+        }
+
+        if (result.errorMessage == null) {
+            if (newestSeen != null) {
+                setState(WATERMARK_KEY, newestSeen);
+            }
+            if (fullResync) {
+                result.recordsRemoved = removeNotSyncedSince(syncStamp);
+            }
+            result.skillsFetched = fetchMissingSkills(DEFAULT_MAX_DETAIL_FETCHES, listener);
+            setState(LAST_SYNC_KEY, String.valueOf(System.currentTimeMillis()));
+        }
+
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    // Skills are only in the full record, so fetch it for a bounded number of CVs per run
+    private int fetchMissingSkills(int limit, SyncListener listener) {
+        List<String> ids = new ArrayList<>();
+        try {
+            store.read(session -> {
+                PreparedStatement pstmt = session.prepare(
+                        "SELECT id FROM cv_mirror WHERE server = ? AND skills IS NULL ORDER BY upload_date DESC LIMIT ?");
+                pstmt.setString(1, serverUrl);
+                pstmt.setInt(2, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getString("id"));
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error reading local CV index: " + e.getMessage());
+            return 0;
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        AtomicInteger fetched = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(DETAIL_FETCH_CONCURRENCY, r -> {
+            Thread thread = new Thread(r, "cv-mirror-skills");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String id : ids) {
+                futures.add(executor.submit(() -> {
+                    HttpClientUtil.CVDetailsResult details = HttpClientUtil.getCVDetails(serverUrl, id, List.of("skills"));
+                    if (details.errorMessage == null) {
+                        updateSkills(id, extractSkills(new JSONObject(details.jsonResponse)));
+                        int done = fetched.incrementAndGet();
+                        if (listener != null && done % 25 == 0) {
+                            listener.onProgress(String.format("Indexing skills... %d of %d", done, ids.size()));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    // One bad record should not stop the rest
+                    System.err.println("Error fetching CV skills: " + e.getMessage());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // The skill updates were queued without waiting; make them visible before returning
+        store.flush();
+        return fetched.get();
+    }
+
+    private static String extractSkills(JSONObject cv) {
+        Object skills = cv.opt("skills");
+        List<String> values = new ArrayList<>();
+        if (skills instanceof JSONObject) {
+            JSONObject byType = (JSONObject) skills;
+            for (String type : byType.keySet()) {
+                JSONArray typeSkills = byType.optJSONArray(type);
+                if (typeSkills != null) {
+                    for (int i = 0; i < typeSkills.length(); i++) {
+                        values.add(typeSkills.optString(i));
+                    }
+                }
+            }
+        } else if (skills instanceof JSONArray) {
+            JSONArray list = (JSONArray) skills;
+            for (int i = 0; i < list.length(); i++) {
+                values.add(list.optString(i));
+            }
+        } else if (skills != null && skills != JSONObject.NULL) {
+            values.add(skills.toString());
+        }
+        return String.join(", ", values);
+    }
+
+    // One page per transaction; waits for the commit so the watermark is never ahead of the data
+    private int upsertSummaries(List<JSONObject> rows, long syncStamp) {
+        List<MirrorRow> mirrorRows = new ArrayList<>();
+        for (JSONObject row : rows) {
+            mirrorRows.add(new MirrorRow(serverUrl, row, syncStamp));
+        }
+
+        try {
+            return store.write(session -> {
+                // The FTS rows are rebuilt around the upsert: drop the old text, upsert, index the new text
+                PreparedStatement deleteFts = session.prepare(
+                        "DELETE FROM cv_mirror_fts WHERE rowid = (SELECT rowid FROM cv_mirror WHERE server = ? AND id = ?)");
+                for (JSONObject row : rows) {
+                    deleteFts.setString(1, serverUrl);
+                    deleteFts.setString(2, row.getString("id"));
+                    deleteFts.addBatch();
+                }
+                deleteFts.executeBatch();
+
+                int upserted = mirrorDao.upsertAll(session, mirrorRows);
+
+                PreparedStatement insertFts = session.prepare(
+                        "INSERT INTO cv_mirror_fts (rowid, name, email, phone, filename, skills) " +
+                                "SELECT rowid, name, email, phone, filename, skills FROM cv_mirror WHERE server = ? AND id = ?");
+                for (JSONObject row : rows) {
+                    insertFts.setString(1, serverUrl);
+                    insertFts.setString(2, row.getString("id"));
+                    insertFts.addBatch();
+                }
+                insertFts.executeBatch();
+                return upserted;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error writing local CV index: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    // Called from several fetch threads at once; the store commits whatever has queued up together
+    private void updateSkills(String id, String skills) {
+        store.submitWrite(session -> {
+            PreparedStatement update = session.prepare("UPDATE cv_mirror SET skills = ? WHERE server = ? AND id = ?");
+            PreparedStatement updateFts = session.prepare(
+                    "UPDATE cv_mirror_fts SET skills = ? WHERE rowid = (SELECT rowid FROM cv_mirror WHERE server = ? AND id = ?)");
+            update.setString(1, skills);
+            update.setString(2, serverUrl);
+            update.setString(3, id);
+            update.executeUpdate();
+            updateFts.setString(1, skills);
+            updateFts.setString(2, serverUrl);
+            updateFts.setString(3, id);
+            return updateFts.executeUpdate();
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                System.err.println("Error writing local CV index: " + error.getMessage());
+            }
+        });
+    }
+
+    private int removeNotSyncedSince(long syncStamp) {
+        try {
+            return store.write(session -> {
+                PreparedStatement deleteFts = session.prepare(
+                        "DELETE FROM cv_mirror_fts WHERE rowid IN (SELECT rowid FROM cv_mirror WHERE server = ? AND synced_at < ?)");
+                PreparedStatement delete = session.prepare("DELETE FROM cv_mirror WHERE server = ? AND synced_at < ?");
+                deleteFts.setString(1, serverUrl);
+                deleteFts.setLong(2, syncStamp);
+                deleteFts.executeUpdate();
+                delete.setString(1, serverUrl);
+                delete.setLong(2, syncStamp);
+                return delete.executeUpdate();
+            });
+        } catch (SQLException e) {
+            System.err.println("Error pruning local CV index: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    // Answers a search from the mirror, mirroring the server's comma-separated terms and and/or logic
+    public HttpClientUtil.SearchResult search(HttpClientUtil.SearchParameters params) {
+        if (!available) {
+            return new HttpClientUtil.SearchResult(null, "Local CV index unavailable");
+        }
+
+        List<String> terms = SearchRefinement.queryTerms(params.query);
+        boolean orLogic = "or".equalsIgnoreCase(params.logic);
+
+        StringBuilder from = new StringBuilder(" FROM cv_mirror m");
+        StringBuilder where = new StringBuilder(" WHERE m.server = ?");
+        List<String> args = new ArrayList<>();
+        args.add(serverUrl);
+        if (!terms.isEmpty()) {
+            from.append(" JOIN cv_mirror_fts f ON f.rowid = m.rowid");
+            where.append(" AND cv_mirror_fts MATCH ?");
+            args.add(toFtsQuery(terms, orLogic));
+        }
+        if (params.dateFrom != null && !params.dateFrom.isEmpty()) {
+            where.append(" AND m.upload_date >= ?");
+            args.add(params.dateFrom);
+        }
+        if (params.dateTo != null && !params.dateTo.isEmpty()) {
+            // Date-only bounds include the whole day, as on the server
+            where.append(" AND m.upload_date <= ?");
+            args.add(params.dateTo.length() == 10 ? params.dateTo + "T23:59:59.999999" : params.dateTo);
+        }
+
+        String sortColumn = switch (params.sortBy == null ? "" : params.sortBy) {
+            case "name" -> "m.name COLLATE NOCASE";
+            case "filename" -> "m.filename COLLATE NOCASE";
+            default -> "m.upload_date";
+        };
+        String sortOrder = "asc".equalsIgnoreCase(params.sortOrder) ? "ASC" : "DESC";
+        int perPage = Math.max(1, params.perPage);
+        int page = Math.max(1, params.page);
+
+        try {
+            return store.read(session -> searchOn(session, from.toString(), where.toString(), args,
+                    sortColumn + " " + sortOrder, page, perPage));
+        } catch (SQLException e) {
+            System.err.println("Error searching local CV index: " + e.getMessage());
+            return new HttpClientUtil.SearchResult(null, "Local Search Error: " + e.getMessage());
+        }
+    }
+
+    private static HttpClientUtil.SearchResult searchOn(LocalStore.Session session, String from, String where,
+                                                        List<String> args, String orderBy, int page, int perPage) throws SQLException {
+        int total;
+        PreparedStatement count = session.prepare("SELECT COUNT(*)" + from + where);
+        bind(count, args);
+        try (ResultSet rs = count.executeQuery()) {
+            total = rs.next() ? rs.getInt(1) : 0;
+        }
+
+        JSONArray results = new JSONArray();
+        PreparedStatement select = session.prepare(
+                "SELECT m.id, m.name, m.email, m.phone, m.filename, m.upload_date, m.gender, m.type" + from
+                        + where + " ORDER BY " + orderBy + " LIMIT ? OFFSET ?");
+        bind(select, args);
+        select.setInt(args.size() + 1, perPage);
+        select.setInt(args.size() + 2, (page - 1) * perPage);
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                JSONObject row = new JSONObject();
+                row.put("id", rs.getString("id"));
+                row.put("name", rs.getString("name"));
+                row.put("email", rs.getString("email"));
+                row.put("phone", rs.getString("phone"));
+                row.put("filename", rs.getString("filename"));
+                row.put("upload_date", rs.getString("upload_date"));
+                row.put("gender", rs.getString("gender"));
+                row.put("type", rs.getString("type"));
+                results.put(row);
+            }
+        }
+
+        JSONObject response = new JSONObject();
+        response.put("results", results);
+        response.put("total", total);
+        response.put("page", page);
+        response.put("per_page", perPage);
+        response.put("total_pages", Math.max(1, (total + perPage - 1) / perPage));
+        response.put("source", "local");
+        return new HttpClientUtil.SearchResult(response.toString(), null);
+    }
+
+    // "skill:java" searches the skills column; other category prefixes search every column
+    static String toFtsQuery(List<String> terms, boolean orLogic) {
+        List<String> clauses = new ArrayList<>();
+        for (String term : terms) {
+            String column = null;
+            int colon = term.indexOf(':');
+            if (colon > 0) {
+                String category = term.substring(0, colon);
+                term = term.substring(colon + 1);
+                column = switch (category) {
+                    case "skill", "skill_type" -> "skills";
+                    case "name", "email", "phone", "filename" -> category;
+                    default -> null;
+                };
+            }
+            if (term.isBlank()) {
+                continue;
+            }
+            String phrase = "\"" + term.replace("\"", "\"\"") + "\"*";
+            clauses.add(column != null ? column + " : " + phrase : phrase);
+        }
+        if (clauses.isEmpty()) {
+            return "\"\"";
+        }
+        return String.join(orLogic ? " OR " : " AND ", clauses);
+    }
+
+    public int size() {
+        if (!available) return 0;
+        try {
+            return store.read(session -> {
+                PreparedStatement count = session.prepare("SELECT COUNT(*) FROM cv_mirror WHERE server = ?");
+                count.setString(1, serverUrl);
+                try (ResultSet rs = count.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            });
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+
+    // Epoch millis of the last successful sync, or 0 if never synced
+    public long getLastSyncMillis() {
+        String value = getState(LAST_SYNC_KEY);
+        try {
+            return value == null ? 0 : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private String getState(String key) {
+        if (!available) return null;
+        try {
+            return store.read(session -> {
+                PreparedStatement pstmt = session.prepare("SELECT value FROM sync_state WHERE key = ?");
+                pstmt.setString(1, stateKey(key));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getString("value") : null;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Error reading sync state: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void setState(String key, String value) {
+        if (!available) return;
+        try {
+            store.write(session -> {
+                PreparedStatement pstmt = session.prepare(
+                        "INSERT INTO sync_state (key, value) VALUES (?, ?) ON CONFLICT(key) DO UPDATE SET value = excluded.value");
+                pstmt.setString(1, stateKey(key));
+                pstmt.setString(2, value);
+                return pstmt.executeUpdate();
+            });
+        } catch (SQLException e) {
+            System.err.println("Error writing sync state: " + e.getMessage());
+        }
+    }
+
+    // e.g. cv_mirror.last_sync@http://host:8000
+    private String stateKey(String key) {
+        return key + "@" + serverUrl;
+    }
+
+    private static void bind(PreparedStatement pstmt, List<String> args) throws SQLException {
+        Iterator<String> it = args.iterator();
+        for (int i = 1; it.hasNext(); i++) {
+            pstmt.setString(i, it.next());
+        }
+    }
+
+    // The connections belong to the shared store, so this only waits for pending writes
+    public void close() {
+        store.flush();
+    }
+}
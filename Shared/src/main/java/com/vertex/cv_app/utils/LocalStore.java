@@ -0,0 +1,455 @@
+package com.vertex.cv_app.utils;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared, thread-safe access to a local SQLite file such as {@code app_data.db}. Every write
+ * runs on one connection owned by one writer thread, in the order it was queued; whatever is
+ * waiting when the writer wakes up is committed as a single transaction, each write inside
+ * its own savepoint so a failing one only undoes itself. Reads borrow one of a small pool of
+ * read-only connections and, with the file in WAL mode, run alongside the writer and each
+ * other. Prepared statements are cached per connection.
+ *
+ * <p>There is one store per database URL for the whole process; the token manager, the
+ * caches and the local mirror share it instead of opening connections of their own. Opening
+ * a store brings its schema up to date with {@link SchemaMigrations}.
+ */
+public class LocalStore {
+    public static final String DEFAULT_DB_URL = "jdbc:sqlite:app_data.db";
+    private static final int READ_POOL_SIZE = 4;
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final int STATEMENT_CACHE_SIZE = 32;
+    private static final long WAIT_TIMEOUT_SECONDS = 30;
+
+    private static final Map<String, LocalStore> STORES = new ConcurrentHashMap<>();
+
+    private final String dbUrl;
+    private PooledConnection writeConnection;
+    private final BlockingQueue<PooledConnection> readPool = new ArrayBlockingQueue<>(READ_POOL_SIZE);
+    private final BlockingQueue<WriteTask<?>> writeQueue = new LinkedBlockingQueue<>();
+    private final WriteTask<Void> shutdownMarker = new WriteTask<>(null);
+    private Thread writerThread;
+    private volatile boolean closed;
+    private SchemaMigrations.MigrationResult migrationResult;
+
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong largestBatch = new AtomicLong();
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(Session session) throws SQLException;
+    }
+
+    /**
+     * The connection a piece of work runs on. Statements from {@link #prepare} are cached and
+     * must not be closed by the caller; transactions are managed by the store.
+     */
+    public static class Session {
+        private final PooledConnection pooled;
+
+        Session(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        public PreparedStatement prepare(String sql) throws SQLException {
+            return pooled.prepare(sql);
+        }
+
+        public Statement createStatement() throws SQLException {
+            return pooled.connection.createStatement();
+        }
+
+        public Connection getConnection() {
+            return pooled.connection;
+        }
+    }
+
+    public static class Stats {
+        public final long writes;
+        public final long failedWrites;
+        public final long transactions;
+        public final long largestBatch;
+        public final long reads;
+        public final long statementCacheHits;
+        public final long statementCacheMisses;
+        public final int queuedWrites;
+
+        Stats(LocalStore store) {
+            this.writes = store.writes.get();
+            this.failedWrites = store.failedWrites.get();
+            this.transactions = store.transactions.get();
+            this.largestBatch = store.largestBatch.get();
+            this.reads = store.reads.get();
+            this.statementCacheHits = store.statementCacheHits.get();
+            this.statementCacheMisses = store.statementCacheMisses.get();
+            this.queuedWrites = store.writeQueue.size();
+        }
+
+        public double getAverageBatchSize() {
+            return transactions == 0 ? 0 : (double) writes / transactions;
+        }
+
+        @Override
+        public String toString() {
+            long lookups = statementCacheHits + statementCacheMisses;
+            return String.format("%d write(s) in %d transaction(s) (avg %.1f, max %d), %d failed, %d read(s), " +
+                            "statement cache %.0f%% hits",
+                    writes, transactions, getAverageBatchSize(), largestBatch, failedWrites, reads,
+                    lookups == 0 ? 0.0 : 100.0 * statementCacheHits / lookups);
+        }
+    }
+
+    private class PooledConnection {
+        final Connection connection;
+        // Access-ordered, so the least recently used statement is closed when the cache is full
+        private final Map<String, PreparedStatement> statements =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                        if (size() > STATEMENT_CACHE_SIZE) {
+                            closeQuietly(eldest.getValue());
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement != null && !statement.isClosed()) {
+                statementCacheHits.incrementAndGet();
+                statement.clearParameters();
+                return statement;
+            }
+            statementCacheMisses.incrementAndGet();
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+            return statement;
+        }
+
+        void close() {
+            for (PreparedStatement statement : statements.values()) {
+                closeQuietly(statement);
+            }
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing local store connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private static class WriteTask<T> {
+        final Work<T> work;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        WriteTask(Work<T> work) {
+            this.work = work;
+        }
+    }
+
+    public static LocalStore getDefault() {
+        return get(DEFAULT_DB_URL);
+    }
+
+    public static LocalStore get(String dbUrl) {
+        return STORES.computeIfAbsent(dbUrl, LocalStore::new);
+    }
+
+    private LocalStore(String dbUrl) {
+        this.dbUrl = dbUrl;
+        try {
+            writeConnection = new PooledConnection(openWriteConnection());
+            for (int i = 0; i < READ_POOL_SIZE; i++) {
+                readPool.add(new PooledConnection(openReadConnection()));
+            }
+        } catch (SQLException e) {
+            System.err.println("Local store unavailable (" + dbUrl + "): " + e.getMessage());
+            closeConnections();
+            closed = true;
+            return;
+        }
+
+        writerThread = new Thread(this::writerLoop, "local-store-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "local-store-shutdown"));
+
+        try {
+            migrationResult = SchemaMigrations.migrate(this);
+            System.out.println("Local store: " + migrationResult);
+        } catch (SQLException e) {
+            // Rather than let callers run against a schema that is missing their tables
+            System.err.println("Local store unavailable (" + dbUrl + "): " + e.getMessage());
+            shutdown();
+        }
+    }
+
+    private Connection openWriteConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(dbUrl);
+        try (Statement stmt = connection.createStatement()) {
+            // Must come first: it only takes effect before the file is initialised, and an
+            // existing database keeps its mode until a full VACUUM
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("PRAGMA busy_timeout = 5000");
+            // journal_mode is stored in the file, so WAL also applies to the read connections
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("PRAGMA temp_store = MEMORY");
+        }
+        return connection;
+    }
+
+    private Connection openReadConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(dbUrl);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = 5000");
+            stmt.execute("PRAGMA temp_store = MEMORY");
+            stmt.execute("PRAGMA query_only = 1");
+        }
+        return connection;
+    }
+
+    public boolean isAvailable() {
+        return !closed;
+    }
+
+    public Stats getStats() {
+        return new Stats(this);
+    }
+
+    // What the migration runner did when the store was opened; null if it did not complete
+    public SchemaMigrations.MigrationResult getMigrationResult() {
+        return migrationResult;
+    }
+
+    /**
+     * Queues a write and returns at once. The future completes after the transaction it ran
+     * in has committed, or exceptionally if the work or the commit failed.
+     */
+    public <T> CompletableFuture<T> submitWrite(Work<T> work) {
+        WriteTask<T> task = new WriteTask<>(work);
+        if (closed) {
+            task.future.completeExceptionally(new SQLException("Local store is closed"));
+            return task.future;
+        }
+        writeQueue.add(task);
+        return task.future;
+    }
+
+    // Queues a write and waits until it has committed. On the writer thread it runs in place.
+    public <T> T write(Work<T> work) throws SQLException {
+        if (Thread.currentThread() == writerThread) {
+            return work.run(new Session(writeConnection));
+        }
+        return await(submitWrite(work));
+    }
+
+    // Runs on a pooled read-only connection; on the writer thread it uses the write connection
+    public <T> T read(Work<T> work) throws SQLException {
+        if (closed) {
+            throw new SQLException("Local store is closed");
+        }
+        if (Thread.currentThread() == writerThread) {
+            return work.run(new Session(writeConnection));
+        }
+        PooledConnection pooled;
+        try {
+            pooled = readPool.poll(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a read connection");
+        }
+        if (pooled == null) {
+            throw new SQLException("No read connection available after " + WAIT_TIMEOUT_SECONDS + "s");
+        }
+        reads.incrementAndGet();
+        try {
+            return work.run(new Session(pooled));
+        } finally {
+            readPool.add(pooled);
+        }
+    }
+
+    // Blocks until every write queued so far has committed
+    public void flush() {
+        if (closed || Thread.currentThread() == writerThread) {
+            return;
+        }
+        try {
+            await(submitWrite(session -> null));
+        } catch (SQLException e) {
+            System.err.println("Error flushing local store: " + e.getMessage());
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException(cause);
+        } catch (TimeoutException e) {
+            throw new SQLException("Local store write timed out after " + WAIT_TIMEOUT_SECONDS + "s");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a local store write");
+        }
+    }
+
+    private void writerLoop() {
+        List<WriteTask<?>> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(writeQueue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            writeQueue.drainTo(batch, MAX_BATCH_SIZE - 1);
+            boolean stopping = batch.remove(shutdownMarker);
+            if (!batch.isEmpty()) {
+                runBatch(batch);
+            }
+            batch.clear();
+            if (stopping) {
+                break;
+            }
+        }
+        // Anything queued after close() started is refused rather than left waiting
+        List<WriteTask<?>> rejected = new ArrayList<>();
+        writeQueue.drainTo(rejected);
+        for (WriteTask<?> task : rejected) {
+            task.future.completeExceptionally(new SQLException("Local store is closed"));
+        }
+    }
+
+    private void runBatch(List<WriteTask<?>> batch) {
+        Connection connection = writeConnection.connection;
+        Session session = new Session(writeConnection);
+        Object[] results = new Object[batch.size()];
+        Exception[] failures = new Exception[batch.size()];
+        try {
+            connection.setAutoCommit(false);
+            for (int i = 0; i < batch.size(); i++) {
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    results[i] = batch.get(i).work.run(session);
+                    connection.releaseSavepoint(savepoint);
+                } catch (Exception e) {
+                    failures[i] = e;
+                    connection.rollback(savepoint);
+                    connection.releaseSavepoint(savepoint);
+                }
+            }
+            connection.commit();
+            transactions.incrementAndGet();
+            largestBatch.accumulateAndGet(batch.size(), Math::max);
+        } catch (SQLException e) {
+            System.err.println("Error committing local store writes: " + e.getMessage());
+            rollbackQuietly(connection);
+            for (int i = 0; i < batch.size(); i++) {
+                if (failures[i] == null) {
+                    failures[i] = e;
+                }
+            }
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                System.err.println("Error restoring auto-commit: " + e.getMessage());
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), results[i], failures[i]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void complete(WriteTask<T> task, Object result, Exception failure) {
+        writes.incrementAndGet();
+        if (failure != null) {
+            failedWrites.incrementAndGet();
+            task.future.completeExceptionally(failure);
+        } else {
+            task.future.complete((T) result);
+        }
+    }
+
+    // Finishes the queued writes, then closes every connection
+    public void close() {
+        if (closed) {
+            return;
+        }
+        STORES.remove(dbUrl, this);
+        shutdown();
+    }
+
+    private void shutdown() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        writeQueue.add(shutdownMarker);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(WAIT_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeConnections();
+    }
+
+    private void closeConnections() {
+        if (writeConnection != null) {
+            writeConnection.close();
+        }
+        PooledConnection pooled;
+        while ((pooled = readPool.poll()) != null) {
+            pooled.close();
+        }
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            System.err.println("Error rolling back local store writes: " + e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.vertex.cv_app.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read routing for a server with replicas. Each endpoint keeps a rolling window of its recent
+ * latencies and failures; reads go to the fastest endpoint whose circuit is closed, and the
+ * next one is tried when a connection fails. An endpoint is circuit-broken after
+ * {@link #FAILURES_TO_OPEN} failures in a row, or when half of a full window failed, and is
+ * skipped until its cool-down ends; then one request is let through as a probe, which closes
+ * the circuit on success or reopens it for twice as long on failure.
+ *
+ * <p>Samples older than {@link #SAMPLE_MAX_AGE_MS} are ignored, so an endpoint that has not
+ * been used for a while is tried again and its latency re-measured.
+ */
+public class ReplicaRouter {
+    public static final int WINDOW_SIZE = 20;
+    public static final int FAILURES_TO_OPEN = 3;
+    public static final double ERROR_RATE_TO_OPEN = 0.5;
+    public static final long OPEN_MS = TimeUnit.SECONDS.toMillis(5);
+    public static final long MAX_OPEN_MS = TimeUnit.SECONDS.toMillis(60);
+    public static final long SAMPLE_MAX_AGE_MS = TimeUnit.SECONDS.toMillis(60);
+    // A probe that never reported back (e.g. its request was cancelled) frees the slot after this
+    private static final long PROBE_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+
+    // Keyed by the primary URL, which is what callers pass as serverUrl
+    private static final Map<String, ReplicaRouter> ROUTERS = new ConcurrentHashMap<>();
+
+    private final String primaryUrl;
+    private final List<Endpoint> endpoints;
+    private final AtomicInteger failovers = new AtomicInteger();
+
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    public static class Endpoint {
+        public final String url;
+        private final long[] latencyNanos = new long[WINDOW_SIZE];
+        private final long[] sampledAt = new long[WINDOW_SIZE];
+        private final boolean[] failed = new boolean[WINDOW_SIZE];
+        private int next;
+        private int consecutiveFailures;
+        private CircuitState state = CircuitState.CLOSED;
+        private long openUntil;
+        private long openMillis = OPEN_MS;
+        private final AtomicLong probeClaimedAt = new AtomicLong();
+        private long requests;
+        private long failures;
+
+        Endpoint(String url) {
+            this.url = url;
+        }
+
+        synchronized void recordSuccess(long elapsedNanos) {
+            if (state != CircuitState.CLOSED) {
+                // The probe got through; start over with a clean window
+                state = CircuitState.CLOSED;
+                openMillis = OPEN_MS;
+                Arrays.fill(sampledAt, 0);
+            }
+            record(elapsedNanos, false);
+            consecutiveFailures = 0;
+            probeClaimedAt.set(0);
+        }
+
+        synchronized void recordFailure(long elapsedNanos) {
+            record(elapsedNanos, true);
+            failures++;
+            consecutiveFailures++;
+            long now = System.currentTimeMillis();
+            if (state == CircuitState.HALF_OPEN) {
+                openMillis = Math.min(MAX_OPEN_MS, openMillis * 2);
+                open(now);
+            } else if (state == CircuitState.CLOSED
+                    && (consecutiveFailures >= FAILURES_TO_OPEN || windowErrorRate(now) >= ERROR_RATE_TO_OPEN)) {
+                open(now);
+            }
+            probeClaimedAt.set(0);
+        }
+
+        private void open(long now) {
+            state = CircuitState.OPEN;
+            openUntil = now + openMillis;
+        }
+
+        private void record(long elapsedNanos, boolean failure) {
+            latencyNanos[next] = elapsedNanos;
+            sampledAt[next] = System.currentTimeMillis();
+            failed[next] = failure;
+            next = (next + 1) % WINDOW_SIZE;
+            requests++;
+        }
+
+        // Only a full window of recent samples is enough to judge the error rate
+        private double windowErrorRate(long now) {
+            int samples = 0;
+            int failures = 0;
+            for (int i = 0; i < WINDOW_SIZE; i++) {
+                if (sampledAt[i] > 0 && now - sampledAt[i] <= SAMPLE_MAX_AGE_MS) {
+                    samples++;
+                    if (failed[i]) failures++;
+                }
+            }
+            return samples < WINDOW_SIZE ? 0 : (double) failures / samples;
+        }
+
+        // Mean latency of recent successes; 0 when there are none, so the endpoint is measured next
+        synchronized double meanLatencyMillis() {
+            long now = System.currentTimeMillis();
+            long total = 0;
+            int samples = 0;
+            for (int i = 0; i < WINDOW_SIZE; i++) {
+                if (sampledAt[i] > 0 && !failed[i] && now - sampledAt[i] <= SAMPLE_MAX_AGE_MS) {
+                    total += latencyNanos[i];
+                    samples++;
+                }
+            }
+            return samples == 0 ? 0 : total / (samples * 1_000_000.0);
+        }
+
+        synchronized CircuitState currentState() {
+            if (state == CircuitState.OPEN && System.currentTimeMillis() >= openUntil) {
+                state = CircuitState.HALF_OPEN;
+            }
+            return state;
+        }
+
+        // Exactly one caller gets to probe a half-open endpoint
+        boolean tryClaimProbe() {
+            if (currentState() != CircuitState.HALF_OPEN) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            long claimed = probeClaimedAt.get();
+            return (claimed == 0 || now - claimed > PROBE_TIMEOUT_MS) && probeClaimedAt.compareAndSet(claimed, now);
+        }
+
+        public synchronized EndpointStats getStats() {
+            return new EndpointStats(url, currentState(), meanLatencyMillis(), windowErrorRate(System.currentTimeMillis()),
+                    requests, failures, state == CircuitState.OPEN ? Math.max(0, openUntil - System.currentTimeMillis()) : 0);
+        }
+    }
+
+    public static class EndpointStats {
+        public final String url;
+        public final CircuitState state;
+        public final double meanLatencyMillis;
+        public final double errorRate;
+        public final long requests;
+        public final long failures;
+        public final long reopensInMillis;
+
+        EndpointStats(String url, CircuitState state, double meanLatencyMillis, double errorRate,
+                      long requests, long failures, long reopensInMillis) {
+            this.url = url;
+            this.state = state;
+            this.meanLatencyMillis = meanLatencyMillis;
+            this.errorRate = errorRate;
+            this.requests = requests;
+            this.failures = failures;
+            this.reopensInMillis = reopensInMillis;
+        }
+
+        @Override
+        public String toString() {
+            String text = String.format("%s %s, %.0f ms, %d/%d failed", url, state, meanLatencyMillis, failures, requests);
+            return state == CircuitState.OPEN ? text + ", probe in " + (reopensInMillis / 1000) + "s" : text;
+        }
+    }
+
+    private ReplicaRouter(String primaryUrl, List<String> replicaUrls) {
+        this.primaryUrl = primaryUrl;
+        LinkedHashSet<String> urls = new LinkedHashSet<>();
+        urls.add(primaryUrl);
+        for (String replica : replicaUrls) {
+            urls.add(ServerProfiles.normalizeUrl(replica));
+        }
+        List<Endpoint> list = new ArrayList<>();
+        for (String url : urls) {
+            list.add(new Endpoint(url));
+        }
+        this.endpoints = list;
+    }
+
+    /**
+     * Registers the replicas that can answer reads for {@code serverUrl}; an empty list removes
+     * them. Re-registering the same set keeps the endpoints' measurements.
+     */
+    public static void setReplicas(String serverUrl, List<String> replicaUrls) {
+        String primary = ServerProfiles.normalizeUrl(serverUrl);
+        List<String> replicas = new ArrayList<>();
+        for (String replica : replicaUrls) {
+            String normalized = ServerProfiles.normalizeUrl(replica);
+            if (!normalized.isEmpty() && !normalized.equals(primary)) {
+                replicas.add(normalized);
+            }
+        }
+        if (replicas.isEmpty()) {
+            ROUTERS.remove(primary);
+            return;
+        }
+        ROUTERS.compute(primary, (key, existing) -> existing != null && existing.sameEndpoints(replicas)
+                ? existing : new ReplicaRouter(primary, replicas));
+    }
+
+    // The router whose primary URL the request URL starts with, or null when it has no replicas
+    public static ReplicaRouter forUrl(String requestUrl) {
+        for (ReplicaRouter router : ROUTERS.values()) {
+            if (requestUrl.startsWith(router.primaryUrl + "/") || requestUrl.equals(router.primaryUrl)) {
+                return router;
+            }
+        }
+        return null;
+    }
+
+    public static ReplicaRouter get(String serverUrl) {
+        return ROUTERS.get(ServerProfiles.normalizeUrl(serverUrl));
+    }
+
+    private boolean sameEndpoints(List<String> replicas) {
+        if (endpoints.size() != replicas.size() + 1) {
+            return false;
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            if (!endpoints.get(i + 1).url.equals(replicas.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getPrimaryUrl() {
+        return primaryUrl;
+    }
+
+    /**
+     * The endpoints to try, in order: a half-open endpoint whose probe this caller claimed (one
+     * per request, so an unused claim never holds up another endpoint),
+     * then closed endpoints fastest first, then, as a last resort when nothing else is left,
+     * open ones soonest-to-recover first.
+     */
+    public List<Endpoint> candidates() {
+        List<Endpoint> probes = new ArrayList<>();
+        List<Endpoint> closed = new ArrayList<>();
+        List<Endpoint> open = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            CircuitState state = endpoint.currentState();
+            if (state == CircuitState.CLOSED) {
+                closed.add(endpoint);
+            } else if (state == CircuitState.HALF_OPEN && probes.isEmpty() && endpoint.tryClaimProbe()) {
+                probes.add(endpoint);
+            } else {
+                open.add(endpoint);
+            }
+        }
+        closed.sort(Comparator.comparingDouble(Endpoint::meanLatencyMillis));
+        open.sort(Comparator.comparingLong(endpoint -> endpoint.openUntil));
+
+        List<Endpoint> ordered = new ArrayList<>(probes);
+        ordered.addAll(closed);
+        if (ordered.isEmpty()) {
+            ordered.addAll(open);
+        }
+        return ordered;
+    }
+
+    // requestUrl rewritten from the primary onto the endpoint
+    public String rebase(String requestUrl, Endpoint endpoint) {
+        return endpoint.url + requestUrl.substring(primaryUrl.length());
+    }
+
+    void recordFailover() {
+        failovers.incrementAndGet();
+    }
+
+    public int getFailovers() {
+        return failovers.get();
+    }
+
+    public List<EndpointStats> getStats() {
+        List<EndpointStats> stats = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            stats.add(endpoint.getStats());
+        }
+        return stats;
+    }
+
+    public static List<ReplicaRouter> all() {
+        return new ArrayList<>(ROUTERS.values());
+    }
+}
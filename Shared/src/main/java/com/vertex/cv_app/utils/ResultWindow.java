@@ -0,0 +1,258 @@
+package com.vertex.cv_app.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The results fetched for one search, held column by column (one array per field plus
+ * precomputed sort and facet keys) so the client can re-sort, count facets and apply
+ * filter chips without another request. When the window holds every result of the search
+ * ({@link #isComplete()}) all of this is exact; otherwise callers should go back to the
+ * server, using {@link #applyToServer} for the filters the server can express.
+ */
+public class ResultWindow {
+
+    public enum Facet {
+        UPLOAD_MONTH("Upload month"),
+        FILE_TYPE("File type"),
+        EMAIL_DOMAIN("Email domain");
+
+        public final String label;
+
+        Facet(String label) {
+            this.label = label;
+        }
+    }
+
+    // Below this many rows a sequential pass is faster than splitting the work across threads
+    private static final int PARALLEL_THRESHOLD = 2048;
+    private static final String NONE = "(none)";
+
+    private static final ResultWindow EMPTY = new ResultWindow(new String[SearchResultRows.FIELDS.length][0], 0, 0);
+
+    private final String[][] columns;       // [field][row], fields as in SearchResultRows.FIELDS
+    private final String[] nameKeys;        // lower-cased for sorting
+    private final String[] filenameKeys;
+    private final String[][] facetKeys;     // [facet][row]
+    private final int size;
+    private final int totalResults;
+
+    private ResultWindow(String[][] columns, int size, int totalResults) {
+        this.columns = columns;
+        this.size = size;
+        this.totalResults = totalResults;
+
+        nameKeys = new String[size];
+        filenameKeys = new String[size];
+        facetKeys = new String[Facet.values().length][size];
+        for (int row = 0; row < size; row++) {
+            nameKeys[row] = columns[SearchResultRows.NAME][row].toLowerCase(Locale.ROOT);
+            filenameKeys[row] = columns[SearchResultRows.FILENAME][row].toLowerCase(Locale.ROOT);
+            facetKeys[Facet.UPLOAD_MONTH.ordinal()][row] = uploadMonth(columns[SearchResultRows.UPLOAD_DATE][row]);
+            facetKeys[Facet.FILE_TYPE.ordinal()][row] = fileType(filenameKeys[row]);
+            facetKeys[Facet.EMAIL_DOMAIN.ordinal()][row] = emailDomain(columns[SearchResultRows.EMAIL][row]);
+        }
+    }
+
+    public static ResultWindow empty() {
+        return EMPTY;
+    }
+
+    // Builds a window from an /api/search style response; "total" says how many results exist
+    public static ResultWindow fromResponse(JSONObject response) {
+        JSONArray results = response.optJSONArray("results");
+        int size = results == null ? 0 : results.length();
+        String[][] columns = new String[SearchResultRows.FIELDS.length][size];
+        for (int row = 0; row < size; row++) {
+            JSONObject item = results.getJSONObject(row);
+            columns[SearchResultRows.ID][row] = item.getString("id");
+            for (int field = 1; field < SearchResultRows.FIELDS.length; field++) {
+                columns[field][row] = item.optString(SearchResultRows.FIELDS[field], "N/A");
+            }
+        }
+        return new ResultWindow(columns, size, Math.max(size, response.optInt("total", size)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getTotalResults() {
+        return totalResults;
+    }
+
+    public boolean isComplete() {
+        return size >= totalResults;
+    }
+
+    /**
+     * Rows passing every filter (one value per facet), ordered by the given sort. Ties keep
+     * the server's order, so an unsorted view matches what the server returned.
+     */
+    public int[] select(Map<Facet, String> filters, String sortBy, boolean descending) {
+        IntStream rows = stream();
+        if (filters != null) {
+            for (Map.Entry<Facet, String> filter : filters.entrySet()) {
+                String[] keys = facetKeys[filter.getKey().ordinal()];
+                String value = filter.getValue();
+                rows = rows.filter(row -> keys[row].equals(value));
+            }
+        }
+        int[] selected = rows.toArray();
+        if (sortBy == null) {
+            return selected;
+        }
+
+        IntFunction<String> key = sortKey(sortBy);
+        Comparator<Integer> order = Comparator.comparing(key::apply);
+        if (descending) {
+            order = order.reversed();
+        }
+        Integer[] boxed = Arrays.stream(selected).boxed().toArray(Integer[]::new);
+        Comparator<Integer> stable = order.thenComparingInt(row -> row);
+        if (boxed.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(boxed, stable);
+        } else {
+            Arrays.sort(boxed, stable);
+        }
+        return Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+    }
+
+    // Value -> count over the given rows, most frequent first
+    public Map<String, Integer> facetCounts(Facet facet, int[] rows) {
+        String[] keys = facetKeys[facet.ordinal()];
+        IntStream stream = rows.length >= PARALLEL_THRESHOLD ? Arrays.stream(rows).parallel() : Arrays.stream(rows);
+        ConcurrentMap<String, Long> counts = stream.mapToObj(row -> keys[row])
+                .collect(Collectors.groupingByConcurrent(value -> value, Collectors.counting()));
+
+        List<Map.Entry<String, Long>> sorted = new ArrayList<>(counts.entrySet());
+        sorted.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : sorted) {
+            result.put(entry.getKey(), entry.getValue().intValue());
+        }
+        return result;
+    }
+
+    // Copies rows[from, to) into the flat layout the result tables read
+    public SearchResultRows toRows(int[] rows, int from, int to) {
+        int count = Math.max(0, Math.min(to, rows.length) - from);
+        String[] cells = new String[count * SearchResultRows.FIELDS.length];
+        for (int i = 0; i < count; i++) {
+            int row = rows[from + i];
+            for (int field = 0; field < SearchResultRows.FIELDS.length; field++) {
+                cells[i * SearchResultRows.FIELDS.length + field] = columns[field][row];
+            }
+        }
+        return SearchResultRows.of(cells, count);
+    }
+
+    public JSONObject getRow(int row) {
+        JSONObject item = new JSONObject();
+        for (int field = 0; field < SearchResultRows.FIELDS.length; field++) {
+            item.put(SearchResultRows.FIELDS[field], columns[field][row]);
+        }
+        return item;
+    }
+
+    /**
+     * The search to run when the window is incomplete: an upload month narrows the date range
+     * to that month, a file type becomes a {@code filename:} term and an email domain an
+     * {@code @domain} term. Terms can only narrow an AND search, so this returns null for OR
+     * searches with such filters, and for a month outside the search's date range.
+     */
+    public static HttpClientUtil.SearchParameters applyToServer(HttpClientUtil.SearchParameters base,
+                                                                Map<Facet, String> filters) {
+        HttpClientUtil.SearchParameters params = new HttpClientUtil.SearchParameters(base);
+        params.page = 1;
+        List<String> extraTerms = new ArrayList<>();
+        for (Map.Entry<Facet, String> filter : filters.entrySet()) {
+            String value = filter.getValue();
+            if (value.equals(NONE)) {
+                return null;
+            }
+            switch (filter.getKey()) {
+                case UPLOAD_MONTH:
+                    // Narrows the user's own date range; a month outside it leaves nothing to fetch
+                    YearMonth month = YearMonth.parse(value);
+                    LocalDate from = month.atDay(1);
+                    LocalDate to = month.atEndOfMonth();
+                    if (params.dateFrom != null && !params.dateFrom.trim().isEmpty()) {
+                        LocalDate userFrom = LocalDate.parse(params.dateFrom.trim());
+                        from = userFrom.isAfter(from) ? userFrom : from;
+                    }
+                    if (params.dateTo != null && !params.dateTo.trim().isEmpty()) {
+                        LocalDate userTo = LocalDate.parse(params.dateTo.trim());
+                        to = userTo.isBefore(to) ? userTo : to;
+                    }
+                    if (from.isAfter(to)) {
+                        return null;
+                    }
+                    params.dateFrom = from.toString();
+                    params.dateTo = to.toString();
+                    break;
+                case FILE_TYPE:
+                    extraTerms.add("filename:" + value.substring(1));
+                    break;
+                case EMAIL_DOMAIN:
+                    extraTerms.add("@" + value);
+                    break;
+            }
+        }
+        if (extraTerms.isEmpty()) {
+            return params;
+        }
+        if ("or".equalsIgnoreCase(params.logic)) {
+            return null;
+        }
+        String query = params.query == null ? "" : params.query.trim();
+        params.query = query.isEmpty() ? String.join(", ", extraTerms) : query + ", " + String.join(", ", extraTerms);
+        return params;
+    }
+
+    private IntStream stream() {
+        IntStream rows = IntStream.range(0, size);
+        return size >= PARALLEL_THRESHOLD ? rows.parallel() : rows;
+    }
+
+    private IntFunction<String> sortKey(String sortBy) {
+        switch (sortBy) {
+            case "name":
+                return row -> nameKeys[row];
+            case "filename":
+                return row -> filenameKeys[row];
+            default:
+                // ISO timestamps sort correctly as strings
+                String[] dates = columns[SearchResultRows.UPLOAD_DATE];
+                return row -> dates[row];
+        }
+    }
+
+    private static String uploadMonth(String uploadDate) {
+        return uploadDate.length() >= 7 && uploadDate.charAt(4) == '-' ? uploadDate.substring(0, 7) : NONE;
+    }
+
+    private static String fileType(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot >= 0 && dot < filename.length() - 1 ? filename.substring(dot) : NONE;
+    }
+
+    private static String emailDomain(String email) {
+        int at = email.lastIndexOf('@');
+        return at >= 0 && at < email.length() - 1 ? email.substring(at + 1).toLowerCase(Locale.ROOT) : NONE;
+    }
+}
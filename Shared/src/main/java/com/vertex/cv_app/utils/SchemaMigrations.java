@@ -0,0 +1,297 @@
+package com.vertex.cv_app.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Versioned schema for the local database. Each migration is a numbered SQL script that is
+ * applied once, in order, in its own transaction together with its row in
+ * {@code schema_migrations}, so a failure leaves the schema at the previous version rather
+ * than half-built. {@link LocalStore} runs them when it opens a database; when the schema is
+ * already current this costs a single query.
+ *
+ * <p>To add a table, append a migration with the next version. Never edit one that has
+ * shipped: its checksum is stored and a mismatch is reported at startup.
+ */
+public class SchemaMigrations {
+
+    public static class Migration {
+        public final int version;
+        public final String description;
+        public final String sql;
+
+        Migration(int version, String description, String sql) {
+            this.version = version;
+            this.description = description;
+            this.sql = sql;
+        }
+    }
+
+    public static class MigrationResult {
+        public final int fromVersion;
+        public final int toVersion;
+        public final List<String> applied = new ArrayList<>();
+        public long elapsedMillis;
+
+        MigrationResult(int fromVersion, int toVersion) {
+            this.fromVersion = fromVersion;
+            this.toVersion = toVersion;
+        }
+
+        @Override
+        public String toString() {
+            return applied.isEmpty()
+                    ? String.format("schema at version %d, nothing to apply (%d ms)", fromVersion, elapsedMillis)
+                    : String.format("schema migrated from version %d to %d: %s (%d ms)",
+                    fromVersion, toVersion, String.join(", ", applied), elapsedMillis);
+        }
+    }
+
+    // The first versions use IF NOT EXISTS so databases created before migrations adopt them as-is
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "tokens", """
+                CREATE TABLE IF NOT EXISTS tokens (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    token_type VARCHAR(50) NOT NULL,
+                    token_value TEXT NOT NULL,
+                    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+                    expires_at DATETIME,
+                    is_active BOOLEAN DEFAULT 1
+                );
+                -- Matches the active-token lookup: equality on type and flag, then newest first
+                CREATE INDEX IF NOT EXISTS idx_tokens_type_active_created
+                ON tokens (token_type, is_active, created_at);
+            """),
+            new Migration(2, "http_cache", """
+                CREATE TABLE IF NOT EXISTS http_cache (
+                    cache_key TEXT PRIMARY KEY,
+                    etag TEXT,
+                    content_hash TEXT NOT NULL,
+                    body TEXT NOT NULL,
+                    fetched_at DATETIME DEFAULT CURRENT_TIMESTAMP
+                );
+            """),
+            new Migration(3, "cv_mirror", """
+                CREATE TABLE IF NOT EXISTS cv_mirror (
+                    id TEXT PRIMARY KEY,
+                    name TEXT,
+                    email TEXT,
+                    phone TEXT,
+                    filename TEXT,
+                    upload_date TEXT,
+                    gender TEXT,
+                    type TEXT,
+                    skills TEXT,
+                    synced_at INTEGER NOT NULL
+                );
+                CREATE INDEX IF NOT EXISTS idx_cv_mirror_upload_date ON cv_mirror(upload_date);
+                -- FTS rows share the rowid of their cv_mirror row; prefix indexes keep typed-ahead terms fast
+                CREATE VIRTUAL TABLE IF NOT EXISTS cv_mirror_fts USING fts5(
+                    name, email, phone, filename, skills, prefix = '2 3'
+                );
+                CREATE TABLE IF NOT EXISTS sync_state (
+                    key TEXT PRIMARY KEY,
+                    value TEXT
+                );
+            """),
+            new Migration(4, "saved_searches", """
+                CREATE TABLE IF NOT EXISTS saved_searches (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    name TEXT NOT NULL UNIQUE,
+                    params TEXT NOT NULL,
+                    created_at INTEGER NOT NULL,
+                    last_run_at INTEGER NOT NULL DEFAULT 0,
+                    last_total INTEGER NOT NULL DEFAULT 0,
+                    last_error TEXT
+                );
+                -- The id set of the last run; rows are kept so new results can be shown without a fetch
+                CREATE TABLE IF NOT EXISTS saved_search_results (
+                    search_id INTEGER NOT NULL,
+                    cv_id TEXT NOT NULL,
+                    row TEXT NOT NULL,
+                    first_seen INTEGER NOT NULL,
+                    is_new INTEGER NOT NULL DEFAULT 0,
+                    PRIMARY KEY (search_id, cv_id)
+                ) WITHOUT ROWID;
+                CREATE INDEX IF NOT EXISTS idx_saved_search_results_new ON saved_search_results(search_id, is_new);
+            """),
+            new Migration(5, "server_profiles", """
+                CREATE TABLE server_profiles (
+                    name TEXT PRIMARY KEY,
+                    url TEXT NOT NULL,
+                    is_active INTEGER NOT NULL DEFAULT 0,
+                    created_at INTEGER NOT NULL
+                );
+                INSERT INTO server_profiles (name, url, is_active, created_at)
+                VALUES ('Production', 'http://13.250.35.49:8000', 1, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+                -- Everything stored so far came from the one hard-wired server
+                UPDATE tokens SET token_type = token_type || '@http://13.250.35.49:8000' WHERE instr(token_type, '@') = 0;
+                -- The mirror is only a cache of the server, so it is rebuilt keyed by server and re-synced
+                DROP TABLE cv_mirror_fts;
+                DROP TABLE cv_mirror;
+                DELETE FROM sync_state WHERE key LIKE 'cv_mirror.%';
+                CREATE TABLE cv_mirror (
+                    server TEXT NOT NULL,
+                    id TEXT NOT NULL,
+                    name TEXT,
+                    email TEXT,
+                    phone TEXT,
+                    filename TEXT,
+                    upload_date TEXT,
+                    gender TEXT,
+                    type TEXT,
+                    skills TEXT,
+                    synced_at INTEGER NOT NULL,
+                    PRIMARY KEY (server, id)
+                );
+                CREATE INDEX idx_cv_mirror_server_upload_date ON cv_mirror(server, upload_date);
+                CREATE VIRTUAL TABLE cv_mirror_fts USING fts5(
+                    name, email, phone, filename, skills, prefix = '2 3'
+                );
+                -- Saved searches are user data, so they are copied over with their ids
+                CREATE TABLE saved_searches_v5 (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    server TEXT NOT NULL,
+                    name TEXT NOT NULL,
+                    params TEXT NOT NULL,
+                    created_at INTEGER NOT NULL,
+                    last_run_at INTEGER NOT NULL DEFAULT 0,
+                    last_total INTEGER NOT NULL DEFAULT 0,
+                    last_error TEXT,
+                    UNIQUE (server, name)
+                );
+                INSERT INTO saved_searches_v5 (id, server, name, params, created_at, last_run_at, last_total, last_error)
+                SELECT id, 'http://13.250.35.49:8000', name, params, created_at, last_run_at, last_total, last_error
+                FROM saved_searches;
+                DROP TABLE saved_searches;
+                ALTER TABLE saved_searches_v5 RENAME TO saved_searches;
+            """),
+            new Migration(6, "server_profile_replicas", """
+                -- Comma-separated URLs of read replicas, empty when the server has none
+                ALTER TABLE server_profiles ADD COLUMN replicas TEXT NOT NULL DEFAULT '';
+            """)
+    );
+
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    /**
+     * Brings the store's schema up to date. Throws if a migration fails; the versions before
+     * it stay applied.
+     */
+    public static MigrationResult migrate(LocalStore store) throws SQLException {
+        long start = System.nanoTime();
+        Map<Integer, String> applied = store.write(SchemaMigrations::readApplied);
+        int current = applied.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+
+        for (Migration migration : MIGRATIONS) {
+            String checksum = applied.get(migration.version);
+            if (checksum != null && !checksum.equals(checksumOf(migration.sql))) {
+                System.err.println("Schema migration " + migration.version + " (" + migration.description +
+                        ") has changed since it was applied; the database was not altered");
+            }
+        }
+
+        MigrationResult result = new MigrationResult(current, getLatestVersion());
+        for (Migration migration : MIGRATIONS) {
+            if (applied.containsKey(migration.version)) {
+                continue;
+            }
+            long migrationStart = System.nanoTime();
+            store.write(session -> {
+                apply(session, migration, migrationStart);
+                return null;
+            });
+            result.applied.add(String.format("V%d %s (%d ms)", migration.version, migration.description,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - migrationStart)));
+        }
+        result.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return result;
+    }
+
+    private static Map<Integer, String> readApplied(LocalStore.Session session) throws SQLException {
+        try (Statement stmt = session.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_migrations (
+                    version INTEGER PRIMARY KEY,
+                    description TEXT NOT NULL,
+                    checksum TEXT NOT NULL,
+                    applied_at INTEGER NOT NULL,
+                    elapsed_ms INTEGER NOT NULL
+                )
+            """);
+        }
+        Map<Integer, String> applied = new HashMap<>();
+        try (ResultSet rs = session.prepare("SELECT version, checksum FROM schema_migrations").executeQuery()) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    // Runs inside the store's transaction, so the script and its record commit or roll back together
+    private static void apply(LocalStore.Session session, Migration migration, long startNanos) throws SQLException {
+        try (Statement stmt = session.createStatement()) {
+            for (String statement : splitStatements(migration.sql)) {
+                stmt.execute(statement);
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Migration " + migration.version + " (" + migration.description + ") failed: " + e.getMessage(), e);
+        }
+        PreparedStatement record = session.prepare(
+                "INSERT INTO schema_migrations (version, description, checksum, applied_at, elapsed_ms) VALUES (?, ?, ?, ?, ?)");
+        record.setInt(1, migration.version);
+        record.setString(2, migration.description);
+        record.setString(3, checksumOf(migration.sql));
+        record.setLong(4, System.currentTimeMillis());
+        record.setLong(5, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        record.executeUpdate();
+    }
+
+    // SHA-256 hex of the script as written. Applied checksums are stored, so this must never change
+    static String checksumOf(String sql) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hashBytes = digest.digest(sql.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hashBytes.length * 2);
+            for (byte b : hashBytes) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is guaranteed to be available on every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Scripts hold plain DDL, so statements end at a semicolon that closes a line; comment lines are dropped
+    static List<String> splitStatements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String statement = current.toString().trim();
+                statements.add(statement.substring(0, statement.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,122 @@
+package com.vertex.cv_app.utils;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Decides whether a new search can only return a subset of the previous one, and if so
+ * drops the previous rows it can already rule out so the table updates before the server
+ * answers.
+ *
+ * <p>The server splits {@code q} on commas and matches each term as a substring of its
+ * index keys, combining terms with {@code logic}. Under {@code and}, a query narrows the
+ * previous one when every previous term is contained in one of the new terms (a term was
+ * added or extended) and the date range is unchanged.</p>
+ */
+public class SearchRefinement {
+
+    // Index categories whose values every result row carries, so a term scoped to one of them
+    // can rule a row out locally. "name:" also matches the server's filename keys
+    private static final Map<String, String[]> LOCAL_FIELDS = Map.of(
+            "name", new String[]{"name", "filename"},
+            "email", new String[]{"email"},
+            "filename", new String[]{"filename"});
+
+    private SearchRefinement() {
+    }
+
+    public static List<String> queryTerms(String query) {
+        List<String> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        for (String term : query.split(",")) {
+            String trimmed = term.trim().toLowerCase(Locale.ROOT);
+            if (!trimmed.isEmpty()) {
+                terms.add(trimmed);
+            }
+        }
+        return terms;
+    }
+
+    public static boolean isNarrowing(HttpClientUtil.SearchParameters previous, HttpClientUtil.SearchParameters next) {
+        if (previous == null || next == null || !isAndLogic(previous) || !isAndLogic(next)) {
+            return false;
+        }
+        if (!Objects.equals(previous.dateFrom, next.dateFrom) || !Objects.equals(previous.dateTo, next.dateTo)) {
+            return false;
+        }
+
+        List<String> previousTerms = queryTerms(previous.query);
+        List<String> nextTerms = queryTerms(next.query);
+        if (nextTerms.isEmpty() || nextTerms.equals(previousTerms)) {
+            return false;
+        }
+        for (String previousTerm : previousTerms) {
+            boolean covered = false;
+            for (String nextTerm : nextTerms) {
+                if (nextTerm.contains(previousTerm)) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Drops rows that cannot match a new name:, email: or filename: term. Other terms may match
+    // through skills, positions or education the rows do not carry, so those are left to the server
+    public static List<JSONObject> refine(List<JSONObject> rows, HttpClientUtil.SearchParameters previous,
+                                          HttpClientUtil.SearchParameters next) {
+        List<String> previousTerms = queryTerms(previous.query);
+        List<String> localTerms = new ArrayList<>();
+        for (String term : queryTerms(next.query)) {
+            int colon = term.indexOf(':');
+            if (!previousTerms.contains(term) && colon > 0 && LOCAL_FIELDS.containsKey(term.substring(0, colon))) {
+                localTerms.add(term);
+            }
+        }
+        if (localTerms.isEmpty()) {
+            return rows;
+        }
+
+        List<JSONObject> refined = new ArrayList<>();
+        for (JSONObject row : rows) {
+            if (mayMatchAll(row, localTerms)) {
+                refined.add(row);
+            }
+        }
+        return refined;
+    }
+
+    // The server matches a prefix of each indexed value; a substring test keeps every row it could return
+    private static boolean mayMatchAll(JSONObject row, List<String> terms) {
+        for (String term : terms) {
+            int colon = term.indexOf(':');
+            String value = term.substring(colon + 1);
+            boolean found = false;
+            for (String field : LOCAL_FIELDS.get(term.substring(0, colon))) {
+                if (row.optString(field, "").toLowerCase(Locale.ROOT).contains(value)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAndLogic(HttpClientUtil.SearchParameters params) {
+        return params.logic == null || params.logic.isEmpty() || params.logic.equalsIgnoreCase("and");
+    }
+}
@@ -0,0 +1,251 @@
+package com.vertex.cv_app.utils;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Keeps the stored access token usable. A refresh is scheduled from the token's {@code exp}
+ * claim, at 80% of its lifetime or five minutes before expiry, whichever is earlier; it calls
+ * {@code POST /refresh} while the token is still valid and falls back to the
+ * {@link Reauthenticator} once it is not. {@link #callWithToken} retries a request once
+ * with a new token when the server rejects the current one.
+ *
+ * <p>There is one refresher per server; its token is stored under
+ * {@link JWTTokenManager#serverTokenType}.
+ */
+public class TokenRefresher {
+
+    public static final String ACCESS_TOKEN = "access_token";
+    private static final long MIN_REFRESH_MARGIN_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final double REFRESH_AT_LIFETIME_FRACTION = 0.8;
+    private static final long RETRY_DELAY_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+    private final String serverUrl;
+    private final String tokenType;
+    private final JWTTokenManager tokens;
+    private volatile Reauthenticator reauthenticator;
+    private volatile TokenListener listener;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "token-refresh-" + THREAD_IDS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> scheduledRefresh;
+    private volatile long nextRefreshAt;
+
+    private final AtomicInteger refreshes = new AtomicInteger();
+    private final AtomicInteger failedRefreshes = new AtomicInteger();
+    private final AtomicInteger reauthentications = new AtomicInteger();
+    private final AtomicInteger retriedRequests = new AtomicInteger();
+    private volatile long lastRefreshAt;
+    private volatile String lastError;
+
+    // Logs in again without the user, e.g. with credentials kept for the session; may return null
+    public interface Reauthenticator {
+        HttpClientUtil.LoginResult login();
+    }
+
+    // Called on the refresh thread (or the thread whose request was retried)
+    public interface TokenListener {
+        void onTokenRefreshed(String token);
+
+        void onTokenLost(String reason);
+    }
+
+    public static class TokenStats {
+        public final boolean hasToken;
+        public final long ageMillis;
+        public final long remainingMillis;  // -1 when the token carries no expiry
+        public final long nextRefreshAt;    // 0 when nothing is scheduled
+        public final int refreshes;
+        public final int failedRefreshes;
+        public final int reauthentications;
+        public final int retriedRequests;
+        public final long lastRefreshAt;
+        public final String lastError;
+
+        TokenStats(JWTTokenManager.CachedToken token, TokenRefresher refresher) {
+            long now = System.currentTimeMillis();
+            this.hasToken = token != null;
+            this.ageMillis = token != null ? now - token.receivedAtMillis : 0;
+            this.remainingMillis = token != null && token.expiresAtMillis > 0 ? token.expiresAtMillis - now : -1;
+            this.nextRefreshAt = refresher.nextRefreshAt;
+            this.refreshes = refresher.refreshes.get();
+            this.failedRefreshes = refresher.failedRefreshes.get();
+            this.reauthentications = refresher.reauthentications.get();
+            this.retriedRequests = refresher.retriedRequests.get();
+            this.lastRefreshAt = refresher.lastRefreshAt;
+            this.lastError = refresher.lastError;
+        }
+    }
+
+    public TokenRefresher(String serverUrl, JWTTokenManager tokens) {
+        this.serverUrl = serverUrl;
+        this.tokenType = JWTTokenManager.serverTokenType(ACCESS_TOKEN, serverUrl);
+        this.tokens = tokens;
+    }
+
+    public void setReauthenticator(Reauthenticator reauthenticator) {
+        this.reauthenticator = reauthenticator;
+    }
+
+    public void setListener(TokenListener listener) {
+        this.listener = listener;
+    }
+
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public String getToken() {
+        return tokens.getToken(tokenType);
+    }
+
+    public boolean hasValidToken() {
+        return tokens.hasActiveToken(tokenType);
+    }
+
+    // Stores a token from a login and plans its refresh
+    public void setToken(String token) {
+        tokens.saveNewToken(tokenType, token, null);
+        reschedule();
+    }
+
+    // Logs out of this server only; other servers' tokens are kept
+    public void clearToken() {
+        tokens.deactivateTokens(tokenType);
+        reschedule();
+    }
+
+    public TokenStats getStats() {
+        return new TokenStats(tokens.getCachedToken(tokenType), this);
+    }
+
+    // Plans the next refresh from the current token; call after a login or logout
+    public synchronized void reschedule() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+        nextRefreshAt = 0;
+        JWTTokenManager.CachedToken token = tokens.getCachedToken(tokenType);
+        if (token == null || token.expiresAtMillis == 0) {
+            return;
+        }
+        long lifetime = Math.max(0, token.expiresAtMillis - token.receivedAtMillis);
+        long refreshAt = Math.min(token.expiresAtMillis - MIN_REFRESH_MARGIN_MS,
+                token.receivedAtMillis + (long) (lifetime * REFRESH_AT_LIFETIME_FRACTION));
+        scheduleAt(refreshAt, token.value);
+    }
+
+    private void scheduleAt(long refreshAt, String staleToken) {
+        long delay = Math.max(0, refreshAt - System.currentTimeMillis());
+        nextRefreshAt = System.currentTimeMillis() + delay;
+        scheduledRefresh = scheduler.schedule(() -> {
+            refreshNow(staleToken);
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Replaces {@code staleToken} and returns the new token, or null when neither a refresh
+     * nor re-authentication worked. If another caller already replaced it, the current token
+     * is returned without another request.
+     */
+    public synchronized String refreshNow(String staleToken) {
+        JWTTokenManager.CachedToken current = tokens.getCachedToken(tokenType);
+        if (current != null && !current.value.equals(staleToken)) {
+            return current.value;
+        }
+
+        String error = null;
+        int status = 0;
+        String fresh = null;
+        boolean expired = current == null
+                || (current.expiresAtMillis > 0 && current.expiresAtMillis <= System.currentTimeMillis());
+        if (!expired) {
+            HttpClientUtil.LoginResult result = HttpClientUtil.refreshToken(serverUrl, current.value);
+            if (result.success) {
+                fresh = result.token;
+            } else {
+                error = result.errorMessage;
+                status = result.statusCode;
+            }
+        }
+        Reauthenticator reauth = reauthenticator;
+        if (fresh == null && reauth != null) {
+            HttpClientUtil.LoginResult result = reauth.login();
+            if (result != null && result.success) {
+                fresh = result.token;
+                reauthentications.incrementAndGet();
+            } else if (result != null) {
+                error = result.errorMessage;
+                status = result.statusCode;
+            }
+        }
+
+        TokenListener currentListener = listener;
+        if (fresh == null) {
+            failedRefreshes.incrementAndGet();
+            lastError = error != null ? error : "Token expired";
+            // A transient failure is retried while the old token still has time left
+            if (!expired && !HttpClientUtil.isAuthFailure(status)) {
+                scheduleAt(System.currentTimeMillis() + RETRY_DELAY_MS, staleToken);
+            } else if (currentListener != null) {
+                currentListener.onTokenLost(lastError);
+            }
+            return null;
+        }
+
+        tokens.saveNewToken(tokenType, fresh, null);
+        refreshes.incrementAndGet();
+        lastRefreshAt = System.currentTimeMillis();
+        lastError = null;
+        reschedule();
+        if (currentListener != null) {
+            currentListener.onTokenRefreshed(fresh);
+        }
+        return fresh;
+    }
+
+    /**
+     * Runs {@code call} with the current token. When {@code statusOf} reports that the server
+     * rejected the token (HTTP 401), gets a new one and runs the call once more.
+     */
+    public <T> T callWithToken(Function<String, T> call, ToIntFunction<T> statusOf) {
+        String token = getToken();
+        T result = call.apply(token);
+        if (token == null || !HttpClientUtil.isAuthFailure(statusOf.applyAsInt(result))) {
+            return result;
+        }
+        String fresh = refreshNow(token);
+        if (fresh == null || fresh.equals(token)) {
+            return result;
+        }
+        retriedRequests.incrementAndGet();
+        return call.apply(fresh);
+    }
+
+    public static String formatDuration(long millis) {
+        long minutes = Math.abs(millis) / 60000;
+        String text = minutes >= 60 ? (minutes / 60) + "h " + (minutes % 60) + "m" : minutes + "m";
+        return millis < 0 ? "-" + text : text;
+    }
+}